@@ -0,0 +1,73 @@
+package com.github.kkysen.supersmashbros.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.actions.Attack;
+import com.github.kkysen.megamashbros.actions.RangeAttack;
+import com.github.kkysen.megamashbros.core.Hitboxes;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Times one tick of {@link Hitboxes#update()} while a {@link Player} spams
+ * short-lived projectiles, adding boxesPerTick hitboxes every tick that each
+ * last lifetime seconds, so there are always about boxesPerTick * lifetime *
+ * tick rate of them, and boxesPerTick of them expire every tick.
+ * 
+ * @author Khyber Sen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoxesBenchmark {
+    
+    @Param({"16", "128"})
+    public int boxesPerTick;
+    
+    @Param({"0.1", "1"})
+    public float lifetime;
+    
+    private World world;
+    private Player player;
+    private Attack attack;
+    
+    @Setup
+    public void setUp() {
+        world = Worlds.newWorld(2, () -> new Controller() {});
+        player = world.player(0);
+        attack = new RangeAttack(player.state, 0, lifetime, 0, 1, 1);
+        // fill it up until as many expire as are added
+        final int ticks = 2 * Math.round(lifetime * world.context.getTickRate());
+        for (int i = 0; i < ticks; i++) {
+            tick();
+        }
+    }
+    
+    @Benchmark
+    public Hitboxes tick() {
+        final Hitboxes hitboxes = world.hitboxes;
+        for (int i = 0; i < boxesPerTick; i++) {
+            hitboxes.add(player, attack, 10, 10);
+        }
+        hitboxes.update();
+        world.context.tick();
+        return hitboxes;
+    }
+    
+}
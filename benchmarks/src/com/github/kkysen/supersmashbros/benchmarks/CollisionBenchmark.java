@@ -0,0 +1,70 @@
+package com.github.kkysen.supersmashbros.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.utils.IntArray;
+import com.github.kkysen.megamashbros.core.Broadphase;
+import com.github.kkysen.megamashbros.core.Hitboxes;
+import com.github.kkysen.megamashbros.core.Hurtboxes;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.supersmashbros.headless.SpamAI;
+
+/**
+ * Times the collision of every hurtbox with the hitboxes around it, in a
+ * {@link World} that {@link SpamAI}s have filled up with hitboxes and then
+ * frozen. It only finds the damage with
+ * {@link Hurtboxes#collide(int, Hitboxes, int)}, so the {@link World} never
+ * changes; {@link TakeHitsBenchmark} times the knockbacks too.
+ * 
+ * @author Khyber Sen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    
+    private static final int WARM_UP_TICKS = 300;
+    
+    @Param({"2", "8", "64", "512"})
+    public int numPlayers;
+    
+    private World world;
+    
+    @Setup
+    public void setUp() {
+        world = Worlds.warmUp(Worlds.newWorld(numPlayers, SpamAI::new), WARM_UP_TICKS);
+    }
+    
+    @Benchmark
+    public float collide() {
+        final Broadphase broadphase = world.broadphase;
+        final Hitboxes hitboxes = world.hitboxes;
+        final Hurtboxes hurtboxes = world.hurtboxes;
+        broadphase.rebuild();
+        float damage = 0;
+        for (int i = 0; i < hurtboxes.size; i++) {
+            final IntArray candidates = broadphase.candidates(hurtboxes, i);
+            final int[] items = candidates.items;
+            for (int j = 0; j < candidates.size; j++) {
+                damage += hurtboxes.collide(i, hitboxes, items[j]);
+            }
+        }
+        return damage;
+    }
+    
+}
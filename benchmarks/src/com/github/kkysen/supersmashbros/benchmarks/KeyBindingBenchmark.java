@@ -0,0 +1,60 @@
+package com.github.kkysen.supersmashbros.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.libgdx.util.keys.Key;
+import com.github.kkysen.libgdx.util.keys.KeyBinding;
+
+/**
+ * Times checking a {@link Controller} for every {@link KeyBinding}, like a
+ * {@link com.github.kkysen.megamashbros.core.Player} does every tick, and
+ * checking a single {@link Key}.
+ * 
+ * @author Khyber Sen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeyBindingBenchmark {
+    
+    private final Controller controller = new Controller() {};
+    private final Key key = Key.SPACE;
+    
+    @Setup
+    public void setUp() {
+        controller.pressKeys(KeyBinding.RIGHT);
+        controller.pressKeys(KeyBinding.RANGE_ATTACK);
+    }
+    
+    @Benchmark
+    public int isPressed() {
+        int numPressed = 0;
+        for (int i = 0; i < KeyBinding.COUNT; i++) {
+            if (KeyBinding.get(i).isPressed(controller)) {
+                numPressed++;
+            }
+        }
+        return numPressed;
+    }
+    
+    @Benchmark
+    public boolean isKeyPressed() {
+        return controller.isPressed(key);
+    }
+    
+}
@@ -0,0 +1,83 @@
+package com.github.kkysen.supersmashbros.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.badlogic.gdx.math.Vector2;
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.libgdx.util.keys.KeyBinding;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Times {@link Player#update()} of a {@link Player} tapping one
+ * {@link KeyBinding}, holding it for {@link #TAP_TICKS} updates and then
+ * releasing it for one, so that actions that are only done once per press,
+ * like attacks, keep being done. The {@link World#scheduler} is advanced along
+ * with it, because that's where the warmed up actions run, and the
+ * {@link World#hitboxes} are updated and the tick is advanced too, so the
+ * attacks' hitboxes expire.
+ * <br>
+ * Whenever the {@link Player} falls out of the {@link World}, it's put back
+ * where it started, so it never dies.
+ * 
+ * @author Khyber Sen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerBenchmark {
+    
+    private static final int TAP_TICKS = 4;
+    
+    @Param({"STOP", "RIGHT", "JUMP", "RANGE_ATTACK"})
+    public KeyBinding held;
+    
+    private World world;
+    private Player player;
+    private final Vector2 start = new Vector2();
+    private int tick = 0;
+    
+    @Setup
+    public void setUp() {
+        world = Worlds.newWorld(2, () -> new Controller() {});
+        player = world.player(0);
+        player.controller.pressKeys(held);
+        start.set(player.position);
+    }
+    
+    @Benchmark
+    public Player update() {
+        if (++tick == TAP_TICKS) {
+            player.controller.releaseKeys(held);
+        } else if (tick > TAP_TICKS) {
+            player.controller.pressKeys(held);
+            tick = 0;
+        }
+        world.scheduler.advance();
+        player.update();
+        world.hitboxes.update();
+        world.context.tick();
+        if (!player.isAlive()) {
+            player.position.set(start);
+            player.velocity.setZero();
+            player.acceleration.setZero();
+        }
+        return player;
+    }
+    
+}
@@ -0,0 +1,64 @@
+package com.github.kkysen.supersmashbros.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kkysen.megamashbros.ai.AI;
+import com.github.kkysen.megamashbros.ai.SmartAI;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.core.WorldQuery;
+
+/**
+ * Times {@link SmartAI#makeDecisions(Player, WorldQuery)} against every other
+ * {@link Player} in a {@link World} of {@link SmartAI}s that has been played
+ * for a while. It's timed once per tick, like the {@link World} does, so it's
+ * averaged with the ticks the {@link AI} skips.
+ * 
+ * @author Khyber Sen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SmartAIBenchmark {
+    
+    private static final int WARM_UP_TICKS = 120;
+    
+    @Param({"2", "8", "64", "512"})
+    public int numPlayers;
+    
+    private Player self;
+    private SmartAI ai;
+    private WorldQuery query;
+    
+    @Setup
+    public void setUp() {
+        final World world = Worlds.warmUp(Worlds.newWorld(numPlayers, SmartAI::new),
+                WARM_UP_TICKS);
+        self = world.player(0);
+        ai = (SmartAI) self.controller;
+        query = world.query;
+    }
+    
+    @Benchmark
+    public AI makeDecisions() {
+        ai.update();
+        ai.makeDecisions(self, query);
+        return ai;
+    }
+    
+}
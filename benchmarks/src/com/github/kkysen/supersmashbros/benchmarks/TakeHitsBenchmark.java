@@ -0,0 +1,68 @@
+package com.github.kkysen.supersmashbros.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.supersmashbros.headless.SpamAI;
+
+/**
+ * Times {@link World#collide()}, which also knocks back every hit
+ * {@link Player}, in the same frozen {@link World} as
+ * {@link CollisionBenchmark}. Since that changes the {@link World}, it's
+ * restored to the same snapshot before each invocation, so every one is timed
+ * from the same knockbacks and percentages. That's why it's kept apart from
+ * {@link CollisionBenchmark}, whose invocations are too short to be restored
+ * each time.
+ * 
+ * @author Khyber Sen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TakeHitsBenchmark {
+    
+    private static final int WARM_UP_TICKS = 300;
+    
+    @Param({"2", "8", "64", "512"})
+    public int numPlayers;
+    
+    private World world;
+    private ByteBuffer snapshot;
+    
+    @Setup
+    public void setUp() {
+        world = Worlds.warmUp(Worlds.newWorld(numPlayers, SpamAI::new), WARM_UP_TICKS);
+        snapshot = Worlds.snapshot(world);
+    }
+    
+    @Setup(Level.Invocation)
+    public void restore() {
+        world.restore(snapshot);
+        snapshot.rewind();
+    }
+    
+    @Benchmark
+    public World takeHits() {
+        world.collide();
+        return world;
+    }
+    
+}
@@ -0,0 +1,54 @@
+package com.github.kkysen.supersmashbros.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kkysen.megamashbros.ai.SmartAI;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Times a full {@link World#step()} of {@link SmartAI}s, which keep
+ * themselves on the platform, so the number of players stays the same.
+ * 
+ * @author Khyber Sen
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WorldBenchmark {
+    
+    @Param({"2", "8", "64", "512"})
+    public int numPlayers;
+    
+    private World world;
+    
+    @Setup(Level.Iteration)
+    public void setUp() {
+        world = Worlds.newWorld(numPlayers, SmartAI::new);
+    }
+    
+    @Benchmark
+    public World step() {
+        if (world.gameOver) {
+            setUp();
+        }
+        world.step();
+        return world;
+    }
+    
+}
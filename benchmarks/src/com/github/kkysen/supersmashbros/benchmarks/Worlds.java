@@ -0,0 +1,68 @@
+package com.github.kkysen.supersmashbros.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Supplier;
+
+import com.github.kkysen.libgdx.util.Log;
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.players.Mario;
+
+/**
+ * Creates the headless {@link World}s the benchmarks run in. Without a GL
+ * context, {@link Mario}'s states are created with only the sizes of their
+ * frames, so no textures are ever loaded.
+ * 
+ * @author Khyber Sen
+ */
+final class Worlds {
+    
+    static final int WIDTH = 1920;
+    static final int HEIGHT = 1080;
+    
+    /**
+     * fixed, so that every run simulates the same game
+     */
+    static final long SEED = 0x5EED;
+    
+    static final int SNAPSHOT_SIZE = 1 << 20;
+    
+    static {
+        Log.setLevel(Log.NONE);
+    }
+    
+    private Worlds() {}
+    
+    static World newWorld(final int numPlayers, final Supplier<Controller> controllers) {
+        final Player[] players = new Player[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            players[i] = new Mario(controllers.get());
+        }
+        return new World(WIDTH, HEIGHT, SEED, players);
+    }
+    
+    /**
+     * Steps the {@link World} until it is full of hitboxes.
+     */
+    static World warmUp(final World world, final int ticks) {
+        for (int i = 0; i < ticks && !world.gameOver; i++) {
+            world.step();
+        }
+        return world;
+    }
+    
+    /**
+     * @return a snapshot of the {@link World}, ready to be
+     *         {@link World#restore(ByteBuffer)}d
+     */
+    static ByteBuffer snapshot(final World world) {
+        final ByteBuffer snapshot = ByteBuffer.allocateDirect(SNAPSHOT_SIZE)
+                .order(ByteOrder.nativeOrder());
+        world.snapshot(snapshot);
+        snapshot.flip();
+        return snapshot;
+    }
+    
+}
@@ -1,8 +1,5 @@
 package com.github.kkysen.libgdx.util;
 
-import com.badlogic.gdx.Gdx;
-import com.github.kkysen.megamashbros.app.Game;
-
 /**
  * 
  * 
@@ -14,16 +11,80 @@ public interface Debuggable {
         return getClass().getSimpleName();
     }
     
+    /**
+     * Lets hot paths skip building a message that wouldn't be logged anyway,
+     * when the parameterized methods below won't do.
+     */
+    public default boolean isLogging() {
+        return Log.isEnabled(Log.INFO);
+    }
+    
+    public default boolean isDebugging() {
+        return Log.isEnabled(Log.DEBUG);
+    }
+    
+    public default boolean isLoggingErrors() {
+        return Log.isEnabled(Log.ERROR);
+    }
+    
     public default void log(final String message) {
-        Gdx.app.log(name(), message);
+        if (isLogging()) {
+            Log.log(Log.INFO, name(), message);
+        }
+    }
+    
+    /**
+     * Logs the format with the "{}" replaced by the argument, which is only
+     * converted to a String if it will be logged. The same goes for the other
+     * parameterized methods, which take a fixed number of arguments so that
+     * nothing is allocated if they aren't logged.
+     */
+    public default void log(final String format, final Object arg) {
+        if (isLogging()) {
+            Log.log(Log.INFO, name(), format, arg);
+        }
+    }
+    
+    public default void log(final String format, final Object arg1, final Object arg2) {
+        if (isLogging()) {
+            Log.log(Log.INFO, name(), format, arg1, arg2);
+        }
     }
     
     public default void debug(final String message) {
-        Gdx.app.debug(name(), message);
+        if (isDebugging()) {
+            Log.log(Log.DEBUG, name(), message);
+        }
+    }
+    
+    public default void debug(final String format, final Object arg) {
+        if (isDebugging()) {
+            Log.log(Log.DEBUG, name(), format, arg);
+        }
+    }
+    
+    public default void debug(final String format, final Object arg1, final Object arg2) {
+        if (isDebugging()) {
+            Log.log(Log.DEBUG, name(), format, arg1, arg2);
+        }
     }
     
     public default void error(final String message) {
-        Gdx.app.error(name(), message);
+        if (isLoggingErrors()) {
+            Log.log(Log.ERROR, name(), message);
+        }
+    }
+    
+    public default void error(final String format, final Object arg) {
+        if (isLoggingErrors()) {
+            Log.log(Log.ERROR, name(), format, arg);
+        }
+    }
+    
+    public default void error(final String format, final Object arg1, final Object arg2) {
+        if (isLoggingErrors()) {
+            Log.log(Log.ERROR, name(), format, arg1, arg2);
+        }
     }
     
     public default String join(final Object... objects) {
@@ -38,9 +99,4 @@ public interface Debuggable {
         }
     }
     
-    public default void pause() {
-        System.out.println("pausing");
-        Game.instance.world.pause();
-    }
-    
 }
@@ -6,7 +6,6 @@ import java.util.Comparator;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Pools;
-import com.github.kkysen.megamashbros.app.Game;
 
 import lombok.experimental.ExtensionMethod;
 
@@ -62,8 +61,7 @@ public class ExtensionMethods {
     }
     
     public static void accelerate(final Vector2 acceleration, final Vector2 velocity,
-            final Vector2 position) {
-        final float deltaTime = Game.deltaTime;
+            final Vector2 position, final float deltaTime) {
         velocity.mulAdd(acceleration, deltaTime);
         position.mulAdd(velocity, deltaTime);
     }
@@ -0,0 +1,93 @@
+package com.github.kkysen.libgdx.util;
+
+import java.util.Arrays;
+
+/**
+ * A log-linear histogram of non-negative longs, like latencies in
+ * nanoseconds. Each power of 2 is split into {@link #SUB_BUCKETS} buckets, so
+ * percentiles are within about 3% of the real value, recording is O(1) and
+ * nothing is allocated after construction.
+ * 
+ * @author Khyber Sen
+ */
+public class Histogram {
+    
+    private static final int SUB_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int SUB_MASK = SUB_BUCKETS - 1;
+    
+    private final long[] counts = new long[Long.SIZE - SUB_BITS + 1 << SUB_BITS];
+    
+    private long count = 0;
+    private long sum = 0;
+    private long max = 0;
+    
+    private static int index(final long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = 63 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BITS;
+        return shift + 1 << SUB_BITS | (int) (value >>> shift & SUB_MASK);
+    }
+    
+    private static long lowestValue(final int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        final int shift = (index >>> SUB_BITS) - 1;
+        return (long) (SUB_BUCKETS | index & SUB_MASK) << shift;
+    }
+    
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        if (value > max) {
+            max = value;
+        }
+    }
+    
+    public long count() {
+        return count;
+    }
+    
+    public long max() {
+        return max;
+    }
+    
+    public double mean() {
+        return count == 0 ? 0 : (double) sum / count;
+    }
+    
+    /**
+     * @param percentile from 0 to 100
+     * @return the highest value that could be in the bucket containing the
+     *         percentile, but no more than {@link #max()}
+     */
+    public long percentile(final double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(lowestValue(i + 1) - 1, max);
+            }
+        }
+        return max;
+    }
+    
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        max = 0;
+    }
+    
+}
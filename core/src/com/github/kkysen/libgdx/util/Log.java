@@ -0,0 +1,154 @@
+package com.github.kkysen.libgdx.util;
+
+import java.io.PrintStream;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import com.badlogic.gdx.Application;
+import com.badlogic.gdx.Gdx;
+
+/**
+ * The logging behind {@link Debuggable}, with the same levels as
+ * {@link Application#setLogLevel(int)}.
+ * <br>
+ * A message below the {@link #getLevel()} is never built: the
+ * {@link Debuggable} methods take a format with "{}" placeholders and only
+ * format it if it will be logged. An enabled message is formatted on the
+ * calling thread, so mutable arguments are printed as they were, and then
+ * handed to a background thread that does the actual printing. If that thread
+ * falls behind, messages are dropped rather than blocking the caller.
+ * 
+ * @author Khyber Sen
+ */
+public final class Log {
+    
+    public static final int NONE = Application.LOG_NONE;
+    public static final int ERROR = Application.LOG_ERROR;
+    public static final int INFO = Application.LOG_INFO;
+    public static final int DEBUG = Application.LOG_DEBUG;
+    
+    private static final int CAPACITY = 1 << 16;
+    private static final long SINK_PERIOD_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    
+    private static volatile int level = INFO;
+    
+    private static final Queue<String> infos = new ConcurrentLinkedQueue<>();
+    private static final Queue<String> errors = new ConcurrentLinkedQueue<>();
+    private static final AtomicInteger size = new AtomicInteger();
+    private static final AtomicLong dropped = new AtomicLong();
+    
+    private static Thread sink;
+    
+    private Log() {}
+    
+    public static int getLevel() {
+        return level;
+    }
+    
+    /**
+     * Also sets the level of {@link Gdx#app}, if there is one.
+     */
+    public static void setLevel(final int level) {
+        Log.level = level;
+        if (Gdx.app != null) {
+            Gdx.app.setLogLevel(level);
+        }
+    }
+    
+    public static boolean isEnabled(final int level) {
+        return Log.level >= level;
+    }
+    
+    /**
+     * @return the number of messages dropped so far because the sink fell
+     *         behind
+     */
+    public static long dropped() {
+        return dropped.get();
+    }
+    
+    private static synchronized void startSink() {
+        if (sink != null) {
+            return;
+        }
+        sink = new Thread(() -> {
+            for (;;) {
+                drain();
+                LockSupport.parkNanos(SINK_PERIOD_NANOS);
+            }
+        }, "log sink");
+        sink.setDaemon(true);
+        sink.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(Log::drain, "log flush"));
+    }
+    
+    private static void print(final Queue<String> queue, final PrintStream out) {
+        for (String line; (line = queue.poll()) != null;) {
+            size.decrementAndGet();
+            out.println(line);
+        }
+    }
+    
+    /**
+     * Prints everything logged so far.
+     */
+    public static synchronized void drain() {
+        print(errors, System.err);
+        print(infos, System.out);
+        final long numDropped = dropped.getAndSet(0);
+        if (numDropped != 0) {
+            System.err.println("[Log] dropped " + numDropped + " messages");
+        }
+    }
+    
+    private static void enqueue(final int level, final String line) {
+        if (sink == null) {
+            startSink();
+        }
+        if (size.incrementAndGet() > CAPACITY) {
+            size.decrementAndGet();
+            dropped.incrementAndGet();
+            return;
+        }
+        (level == ERROR ? errors : infos).offer(line);
+    }
+    
+    private static String format(final String format, final Object[] args, final int numArgs) {
+        final StringBuilder sb = new StringBuilder(format.length() + 16 * numArgs);
+        int start = 0;
+        for (int i = 0; i < numArgs; i++) {
+            final int placeholder = format.indexOf("{}", start);
+            if (placeholder == -1) {
+                break;
+            }
+            sb.append(format, start, placeholder).append(args[i]);
+            start = placeholder + 2;
+        }
+        return sb.append(format, start, format.length()).toString();
+    }
+    
+    /**
+     * Logs the message if the level is enabled.
+     */
+    public static void log(final int level, final String tag, final String message) {
+        if (isEnabled(level)) {
+            enqueue(level, "[" + tag + "] " + message);
+        }
+    }
+    
+    /**
+     * Logs the format with each "{}" replaced by the next argument, if the
+     * level is enabled.
+     */
+    public static void log(final int level, final String tag, final String format,
+            final Object... args) {
+        if (isEnabled(level)) {
+            enqueue(level, "[" + tag + "] " + format(format, args, args.length));
+        }
+    }
+    
+}
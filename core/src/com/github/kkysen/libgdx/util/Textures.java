@@ -1,5 +1,6 @@
 package com.github.kkysen.libgdx.util;
 
+import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.utils.Array;
@@ -21,6 +22,14 @@ public class Textures {
     
     private Textures() {}
     
+    /**
+     * @return true if there is no GL context, so no {@link Texture}s can be
+     *         loaded, like when running on a headless backend
+     */
+    public static boolean isHeadless() {
+        return Gdx.gl == null;
+    }
+    
     public static Array<TextureRegion> getFrames(final Texture texture, final int numFrames,
             final int x, final int y, final int width, final int height) {
         textures.add(texture);
@@ -1,5 +1,7 @@
 package com.github.kkysen.libgdx.util.keys;
 
+import java.nio.ByteBuffer;
+
 import com.github.kkysen.libgdx.util.Debuggable;
 
 /**
@@ -7,22 +9,40 @@ import com.github.kkysen.libgdx.util.Debuggable;
  */
 public class Controller implements Debuggable {
     
-    private static final int NUM_KEYS = 256;
+    public static final int NUM_KEYS = 256;
+    
+    /**
+     * the number of longs the pressed keys are packed into by
+     * {@link #getPressedKeys(long[])}
+     */
+    public static final int NUM_WORDS = NUM_KEYS / Long.SIZE;
     
-    private final boolean[] pressedKeys = new boolean[NUM_KEYS];
+    /**
+     * the pressed keys, with key code k stored in bit k % 64 of word k / 64
+     */
+    private final long[] pressedKeys = new long[NUM_WORDS];
     
     protected Controller() {}
     
     public void pressKey(final int keyCode) {
-        pressedKeys[keyCode] = true;
+        pressedKeys[keyCode >>> 6] |= 1L << keyCode;
     }
     
     public void releaseKey(final int keyCode) {
-        pressedKeys[keyCode] = false;
+        pressedKeys[keyCode >>> 6] &= ~(1L << keyCode);
     }
     
     public void update() {}
     
+    /**
+     * @return a new {@link Controller} that can restore this one's snapshots,
+     *         for playing ahead in a copy of the game without touching this
+     *         one. By default, it just keeps holding whatever keys are pressed.
+     */
+    public Controller fork() {
+        return new Controller();
+    }
+    
     public void pressKeys(final KeyBinding keyBinding) {
         //        if (this instanceof AI) {
         //System.out.println(name() + " pressed " + keyBinding);
@@ -41,21 +61,71 @@ public class Controller implements Debuggable {
         }
     }
     
+    /**
+     * Packs the pressed keys into bits, with key code k stored in bit k % 64 of
+     * bits[k / 64].
+     * 
+     * @param bits at least {@link #NUM_WORDS} long
+     */
+    public void getPressedKeys(final long[] bits) {
+        System.arraycopy(pressedKeys, 0, bits, 0, NUM_WORDS);
+    }
+    
+    /**
+     * Presses exactly the keys packed into bits by
+     * {@link #getPressedKeys(long[])}, releasing all the others.
+     */
+    public void setPressedKeys(final long[] bits) {
+        System.arraycopy(bits, 0, pressedKeys, 0, NUM_WORDS);
+    }
+    
+    /**
+     * Writes the pressed keys, so they can be restored by
+     * {@link #restore(ByteBuffer)}. Subclasses must write their own state too.
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        for (int i = 0; i < NUM_WORDS; i++) {
+            buffer.putLong(pressedKeys[i]);
+        }
+    }
+    
+    public void restore(final ByteBuffer buffer) {
+        for (int i = 0; i < NUM_WORDS; i++) {
+            pressedKeys[i] = buffer.getLong();
+        }
+    }
+    
+    public boolean isPressed(final Key key) {
+        return (pressedKeys[key.keyCode >>> 6] & 1L << key.keyCode) != 0;
+    }
+    
     public boolean isPressed(final Key... keys) {
         for (final Key key : keys) {
-            if (!pressedKeys[key.keyCode]) {
+            if (!isPressed(key)) {
                 return false;
             }
         }
         return true;
     }
     
+    /**
+     * @return if all of the keyBinding's keys are pressed, which is checked
+     *         against its precompiled {@link KeyBinding#mask} one word at a
+     *         time
+     */
+    public boolean isPressed(final KeyBinding keyBinding) {
+        final long[] pressed = pressedKeys;
+        final long[] mask = keyBinding.mask;
+        return (pressed[0] & mask[0] ^ mask[0] | pressed[1] & mask[1] ^ mask[1]
+                | pressed[2] & mask[2] ^ mask[2] | pressed[3] & mask[3] ^ mask[3]) == 0;
+    }
+    
     @Override
     public String toString() {
         final StringBuilder sb = new StringBuilder();
         sb.append('[');
-        for (int keyCode = 0; keyCode < pressedKeys.length; keyCode++) {
-            if (pressedKeys[keyCode]) {
+        for (int keyCode = 0; keyCode < NUM_KEYS; keyCode++) {
+            if ((pressedKeys[keyCode >>> 6] & 1L << keyCode) != 0) {
                 sb.append(Key.get(keyCode));
                 sb.append(',');
                 sb.append(' ');
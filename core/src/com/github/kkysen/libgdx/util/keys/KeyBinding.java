@@ -1,5 +1,6 @@
 package com.github.kkysen.libgdx.util.keys;
 
+import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -27,17 +28,21 @@ public enum KeyBinding {
     
     final Key[] keys;
     
+    /**
+     * the {@link #keys} packed into bits like {@link Controller}'s pressed
+     * keys, so they can all be checked at once
+     */
+    final long[] mask = new long[Controller.NUM_WORDS];
+    
     private KeyBinding(final Key... keys) {
         this.keys = keys;
+        for (final Key key : keys) {
+            mask[key.keyCode >>> 6] |= 1L << key.keyCode;
+        }
     }
     
     public boolean isPressed(final Controller controller) {
-        for (final Key key : keys) {
-            if (!controller.isPressed(key)) {
-                return false;
-            }
-        }
-        return true;
+        return controller.isPressed(this);
     }
     
     private static final KeyBinding[] VALUES = values();
@@ -47,8 +52,12 @@ public enum KeyBinding {
         return VALUES[ordinal];
     }
     
+    public static KeyBinding random(final Random random) {
+        return VALUES[random.nextInt(COUNT)];
+    }
+    
     public static KeyBinding random() {
-        return VALUES[ThreadLocalRandom.current().nextInt(COUNT)];
+        return random(ThreadLocalRandom.current());
     }
     
 }
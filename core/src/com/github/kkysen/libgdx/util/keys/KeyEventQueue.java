@@ -0,0 +1,172 @@
+package com.github.kkysen.libgdx.util.keys;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import com.github.kkysen.libgdx.util.Histogram;
+
+import lombok.Getter;
+
+/**
+ * A lock-free single producer, single consumer ring buffer of timestamped key
+ * presses and releases, so the input thread never touches a
+ * {@link Controller}'s keys while the simulation is reading them.
+ * <br>
+ * The producer {@link #offer(int, boolean, long)}s events as they happen, and
+ * the consumer {@link #drain(Controller, long)}s them into the
+ * {@link Controller} at the start of each tick, but only the ones that happened
+ * before that tick's time, so each event is applied to the tick it happened
+ * in, even when several ticks are run at once to catch up.
+ * <br>
+ * A key pressed and released within the same tick would never be seen as
+ * pressed, so its release is deferred to the next tick. The time from each
+ * event to the tick it's applied in is recorded in the {@link #latency}
+ * {@link Histogram}.
+ * 
+ * @author Khyber Sen
+ */
+public class KeyEventQueue {
+    
+    public static final int DEFAULT_CAPACITY = 1 << 12;
+    
+    private static final int DOWN = 1;
+    
+    /**
+     * the head and tail indices, each on its own cache line so the producer
+     * and consumer don't keep invalidating each other's
+     */
+    private static final int HEAD = 8;
+    private static final int TAIL = 24;
+    
+    private final AtomicLongArray indices = new AtomicLongArray(TAIL + 8);
+    
+    private final int mask;
+    private final long[] times;
+    private final int[] events;
+    
+    // only touched by the producer
+    private long tail = 0;
+    private long cachedHead = 0;
+    private volatile long numDropped = 0;
+    
+    // only touched by the consumer
+    private long head = 0;
+    private long cachedTail = 0;
+    private final long[] pressedThisTick = new long[Controller.NUM_WORDS];
+    private final long[] deferredReleases = new long[Controller.NUM_WORDS];
+    private @Getter long numEvents = 0;
+    private @Getter long numDeferred = 0;
+    
+    /**
+     * the ns from each event to the start of the tick it was applied in
+     */
+    public final Histogram latency = new Histogram();
+    
+    /**
+     * @param capacity a power of 2
+     */
+    public KeyEventQueue(final int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of 2: " + capacity);
+        }
+        mask = capacity - 1;
+        times = new long[capacity];
+        events = new int[capacity];
+    }
+    
+    public KeyEventQueue() {
+        this(DEFAULT_CAPACITY);
+    }
+    
+    /**
+     * Only called by the producer thread.
+     * 
+     * @param time the {@link System#nanoTime()} of the event, which must never
+     *            be less than the previous one's
+     * @return false if the queue was full and the event was dropped
+     */
+    public boolean offer(final int keyCode, final boolean down, final long time) {
+        if (tail - cachedHead > mask) {
+            cachedHead = indices.get(HEAD);
+            if (tail - cachedHead > mask) {
+                numDropped++;
+                return false;
+            }
+        }
+        final int i = (int) tail & mask;
+        times[i] = time;
+        events[i] = keyCode << 1 | (down ? DOWN : 0);
+        // publishes the event written above
+        indices.lazySet(TAIL, ++tail);
+        return true;
+    }
+    
+    /**
+     * Only called by the consumer thread, at the start of a tick.
+     * <br>
+     * Releases the keys whose releases were deferred from the last tick, and
+     * then applies every event that happened by until to the controller.
+     * 
+     * @param until the {@link System#nanoTime()} the tick is for
+     * @return the number of events applied
+     */
+    public int drain(final Controller controller, final long until) {
+        for (int word = 0; word < Controller.NUM_WORDS; word++) {
+            for (long bits = deferredReleases[word]; bits != 0; bits &= bits - 1) {
+                controller.releaseKey(word << 6 | Long.numberOfTrailingZeros(bits));
+            }
+            deferredReleases[word] = 0;
+            pressedThisTick[word] = 0;
+        }
+        if (head == cachedTail) {
+            cachedTail = indices.get(TAIL);
+            if (head == cachedTail) {
+                return 0;
+            }
+        }
+        final long now = System.nanoTime();
+        final long start = head;
+        for (; head != cachedTail; head++) {
+            final int i = (int) head & mask;
+            final long time = times[i];
+            if (time - until > 0) {
+                break; // it's for a later tick
+            }
+            final int event = events[i];
+            final int keyCode = event >>> 1;
+            final int word = keyCode >>> 6;
+            final long bit = 1L << keyCode;
+            if ((event & DOWN) != 0) {
+                controller.pressKey(keyCode);
+                pressedThisTick[word] |= bit;
+                deferredReleases[word] &= ~bit;
+            } else if ((pressedThisTick[word] & bit) != 0) {
+                deferredReleases[word] |= bit;
+                numDeferred++;
+            } else {
+                controller.releaseKey(keyCode);
+            }
+            latency.record(now - time);
+        }
+        // frees the slots read above
+        indices.lazySet(HEAD, head);
+        final int numApplied = (int) (head - start);
+        numEvents += numApplied;
+        return numApplied;
+    }
+    
+    /**
+     * @return if the key was pressed in the last {@link #drain(Controller, long)}
+     */
+    public boolean wasPressed(final int keyCode) {
+        return (pressedThisTick[keyCode >>> 6] & 1L << keyCode) != 0;
+    }
+    
+    /**
+     * @return the number of events dropped because the queue was full, which
+     *         can be read from any thread
+     */
+    public long getNumDropped() {
+        return numDropped;
+    }
+    
+}
@@ -1,40 +1,52 @@
 package com.github.kkysen.libgdx.util.keys;
 
-import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.InputProcessor;
 
 /**
- * 
+ * The {@link Controller} for the keyboard. It isn't registered as the
+ * {@link InputProcessor} until the graphical game is created, so that headless
+ * simulations don't need {@link com.badlogic.gdx.Gdx#input}.
+ * <br>
+ * The input thread only queues the key events in its {@link #events}, and the
+ * simulation {@link #drain(long)}s them into the pressed keys at the start of
+ * each tick, so they never race and a quick tap is never missed.
  * 
  * @author Khyber Sen
  */
 public class User extends Controller implements InputProcessor {
     
     private static final User INSTANCE = new User();
-    static {
-        Gdx.input.setInputProcessor(INSTANCE);
-    }
     
     public static User get() {
         return INSTANCE;
     }
     
+    public final KeyEventQueue events = new KeyEventQueue();
+    
     private User() {}
     
+    /**
+     * Presses and releases the keys for the tick at the given time.
+     * 
+     * @param until the {@link System#nanoTime()} the tick is for
+     * @return the number of key events applied
+     */
+    public int drain(final long until) {
+        return events.drain(this, until);
+    }
+    
     @Override
     public final void update() {}
     
     @Override
     public boolean keyDown(final int keyCode) {
-        System.out.println(Key.get(keyCode) + " pressed");
-        pressKey(keyCode);
+        events.offer(keyCode, true, System.nanoTime());
         return true;
     }
     
     @Override
     public boolean keyUp(final int keyCode) {
-        System.out.println(Key.get(keyCode) + " released");
-        releaseKey(keyCode);
+        events.offer(keyCode, false, System.nanoTime());
         return false;
     }
     
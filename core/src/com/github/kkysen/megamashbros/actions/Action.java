@@ -1,13 +1,16 @@
 package com.github.kkysen.megamashbros.actions;
 
-import com.badlogic.gdx.utils.Timer.Task;
+import java.nio.ByteBuffer;
+
 import com.github.kkysen.libgdx.util.Debuggable;
 import com.github.kkysen.libgdx.util.ExtensionMethods;
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
-import com.github.kkysen.megamashbros.app.Game;
 import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.Scheduler;
+import com.github.kkysen.megamashbros.core.SimulationContext;
 import com.github.kkysen.megamashbros.core.State;
 
+import lombok.Getter;
 import lombok.experimental.ExtensionMethod;
 
 /**
@@ -16,11 +19,14 @@ import lombok.experimental.ExtensionMethod;
  * @author Khyber Sen
  */
 @ExtensionMethod(ExtensionMethods.class)
-public class Action extends Executable implements Debuggable {
+public class Action extends Executable implements Scheduler.Task, Debuggable {
     
     protected static final float PI = (float) Math.PI;
     
-    private final State state;
+    /**
+     * the {@link State} a {@link Player} is in while doing this {@link Action}
+     */
+    private final @Getter State state;
     
     private final State[] impossiblePreStates;
     
@@ -52,11 +58,17 @@ public class Action extends Executable implements Debuggable {
     }
     
     @Override
-    public void update() {
-        elapsedTime += Game.deltaTime;
+    public void update(final SimulationContext context) {
+        elapsedTime += context.deltaTime;
     }
     
-    private boolean isImpossiblePreState(final State state) {
+    /**
+     * Only called when the {@link Player}'s transitions are compiled, so
+     * {@link #execute(Player)} doesn't check it.
+     * 
+     * @return true if this {@link Action} can't be done from state
+     */
+    public boolean isImpossiblePreState(final State state) {
         for (final State impossiblePreState : impossiblePreStates) {
             if (state == impossiblePreState) { // I meant to use ==
                 return true;
@@ -81,8 +93,10 @@ public class Action extends Executable implements Debuggable {
     
     @Override
     public final State execute(final Player player) {
-        if (elapsedTime < cooldown || isImpossiblePreState(player.state) || dontExecute(player)) {
-            error(this + " still in cooldown, " + (cooldown - elapsedTime) + " left");
+        if (elapsedTime < cooldown || dontExecute(player)) {
+            if (isLoggingErrors()) {
+                error(this + " still in cooldown, " + (cooldown - elapsedTime) + " left");
+            }
             return player.state;
         }
         elapsedTime = 0;
@@ -90,26 +104,52 @@ public class Action extends Executable implements Debuggable {
         player.state.setPlayer(null, resetTime);
         state.setPlayer(player, resetTime);
         if (warmupTime == 0) {
-            attack(state, player.facingRight);
+            player.attack(this);
             move(player);
         } else {
-            player.tasks.clear();
-            player.schedule(warmupTime, new Task() {
-                
-                @Override
-                public void run() {
-                    if (state.player == null) {
-                        return;
-                    }
-                    attack(state, player.facingRight);
-                    move(player);
-                }
-                
-            });
+            player.cancelTasks();
+            player.schedule(warmupTime, this);
         }
         return state;
     }
     
+    /**
+     * Creates this {@link Action}'s hitboxes for the player, which is queued
+     * by {@link #execute(Player)} until {@link Player#apply()}, by when the
+     * player may have already changed to another {@link State}.
+     */
+    public final void attack(final Player player, final boolean facingRight) {
+        final Player current = state.player;
+        state.player = player;
+        attack(state, facingRight);
+        state.player = current;
+    }
+    
+    /**
+     * Finishes warming up, which is scheduled by {@link #execute(Player)}.
+     */
+    @Override
+    public final void run() {
+        final Player player = state.player;
+        if (player == null) {
+            return; // the player has already changed state
+        }
+        attack(state, player.facingRight);
+        move(player);
+    }
+    
+    @Override
+    public void snapshot(final ByteBuffer buffer) {
+        buffer.putFloat(elapsedTime);
+        state.snapshot(buffer);
+    }
+    
+    @Override
+    public void restore(final ByteBuffer buffer, final Player player) {
+        elapsedTime = buffer.getFloat();
+        state.restore(buffer, player);
+    }
+    
     protected void attack(final State state, final boolean facingRight) {}
     
     protected void move(final Player player) {}
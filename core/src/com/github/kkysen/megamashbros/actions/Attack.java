@@ -1,9 +1,13 @@
 package com.github.kkysen.megamashbros.actions;
 
+import java.nio.ByteBuffer;
+
 import com.badlogic.gdx.math.MathUtils;
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
+import com.github.kkysen.megamashbros.core.Hitboxes;
 import com.github.kkysen.megamashbros.core.Player;
 import com.github.kkysen.megamashbros.core.State;
+import com.github.kkysen.megamashbros.core.World;
 
 /**
  * 
@@ -16,6 +20,12 @@ public abstract class Attack extends Action {
     public final float angle;
     public final float knockback;
     
+    /**
+     * its index in the {@link Hitboxes#attacks} of its {@link Player}'s
+     * {@link World}, -1 until it first creates a hitbox
+     */
+    public int id = -1;
+    
     private boolean alreadyUsed = false;
     
     /**
@@ -53,6 +63,18 @@ public abstract class Attack extends Action {
         alreadyUsed = false;
     }
     
+    @Override
+    public void snapshot(final ByteBuffer buffer) {
+        super.snapshot(buffer);
+        buffer.put((byte) (alreadyUsed ? 1 : 0));
+    }
+    
+    @Override
+    public void restore(final ByteBuffer buffer, final Player player) {
+        super.restore(buffer, player);
+        alreadyUsed = buffer.get() != 0;
+    }
+    
     @Override
     protected void attack(final State state, final boolean facingRight) {
         alreadyUsed = true;
@@ -1,9 +1,11 @@
 package com.github.kkysen.megamashbros.actions;
 
+import java.nio.ByteBuffer;
 import java.util.function.Function;
 
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
 import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.SimulationContext;
 import com.github.kkysen.megamashbros.core.State;
 
 /**
@@ -31,8 +33,19 @@ public abstract class Executable implements Function<Player, State> {
         return execute(player);
     }
     
-    public void update() {}
+    public void update(final SimulationContext context) {}
     
     public void reset() {}
     
+    /**
+     * Writes anything that changes during the game, so it can be restored by
+     * {@link #restore(ByteBuffer, Player)}.
+     */
+    public void snapshot(final ByteBuffer buffer) {}
+    
+    /**
+     * @param player the {@link Player} this {@link Executable} belongs to
+     */
+    public void restore(final ByteBuffer buffer, final Player player) {}
+    
 }
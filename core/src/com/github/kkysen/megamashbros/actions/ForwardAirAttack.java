@@ -1,7 +1,7 @@
 package com.github.kkysen.megamashbros.actions;
 
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
-import com.github.kkysen.megamashbros.core.Hitbox;
+import com.github.kkysen.megamashbros.core.Hitboxes;
 import com.github.kkysen.megamashbros.core.State;
 
 public class ForwardAirAttack extends AirAttack {
@@ -15,10 +15,10 @@ public class ForwardAirAttack extends AirAttack {
     @Override
     protected void attack(final State state, final boolean facingRight) {
         super.attack(state, facingRight);
-        final Hitbox hitbox = state.newHitbox(this, 40f, 50f);
-        hitbox.angle = angle;
-        hitbox.position.x += facingRight ? 20f : -20f;
-        state.addHitbox(hitbox);
+        final Hitboxes hitboxes = state.player.world.hitboxes;
+        final int hitbox = state.addHitbox(this, 40f, 50f);
+        hitboxes.angle[hitbox] = angle;
+        hitboxes.x[hitbox] += facingRight ? 20f : -20f;
     }
     
 }
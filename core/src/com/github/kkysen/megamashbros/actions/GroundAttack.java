@@ -16,7 +16,7 @@ public abstract class GroundAttack extends Attack {
     @Override
     protected boolean dontExecute(final Player player) {
         if (player.velocity.y != 0) {
-            System.out.println("skipping air");
+            log("skipping air");
         }
         return super.dontExecute(player) || player.velocity.y != 0;
     }
@@ -1,5 +1,7 @@
 package com.github.kkysen.megamashbros.actions;
 
+import java.nio.ByteBuffer;
+
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
 import com.github.kkysen.megamashbros.core.Player;
 import com.github.kkysen.megamashbros.core.State;
@@ -34,7 +36,7 @@ public class Jump extends Move {
         
         final boolean isOnPlatform = player.wasOnPlatform;
         if (isOnPlatform || player.numMidairJumps++ <= 1 && !jumpPressed) {
-            System.out.println("someone jumped");
+            log("someone jumped");
             player.velocity.y = maxSpeed;
             if (isOnPlatform) {
                 player.numMidairJumps = 1;
@@ -51,4 +53,16 @@ public class Jump extends Move {
         super.reset();
         jumpPressed = false;
     }
+    
+    @Override
+    public void snapshot(final ByteBuffer buffer) {
+        super.snapshot(buffer);
+        buffer.put((byte) (jumpPressed ? 1 : 0));
+    }
+    
+    @Override
+    public void restore(final ByteBuffer buffer, final Player player) {
+        super.restore(buffer, player);
+        jumpPressed = buffer.get() != 0;
+    }
 }
@@ -1,7 +1,7 @@
 package com.github.kkysen.megamashbros.actions;
 
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
-import com.github.kkysen.megamashbros.core.Hitbox;
+import com.github.kkysen.megamashbros.core.Hitboxes;
 import com.github.kkysen.megamashbros.core.State;
 
 public class RangeAttack extends Attack {
@@ -16,11 +16,14 @@ public class RangeAttack extends Attack {
     @Override
     protected void attack(final State state, final boolean facingRight) {
         super.attack(state, facingRight);
-        final Hitbox hitbox = state.newHitbox(this, 50f, 50f);
-        hitbox.velocity.x += facingRight ? 300f : -300f;
-        hitbox.angle = facingRight ? angle : PI - angle;
-        state.addHitbox(hitbox);
-        System.out.println("\tSmashAttack created " + hitbox + ", " + hitbox.motion());
+        final Hitboxes hitboxes = state.player.world.hitboxes;
+        final int hitbox = state.addHitbox(this, 50f, 50f);
+        hitboxes.vx[hitbox] += facingRight ? 300f : -300f;
+        hitboxes.angle[hitbox] = facingRight ? angle : PI - angle;
+        if (isLogging()) {
+            log("\tSmashAttack created " + hitboxes.toString(hitbox) + ", "
+                    + hitboxes.motion(hitbox));
+        }
     }
     
 }
@@ -1,7 +1,7 @@
 package com.github.kkysen.megamashbros.actions;
 
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
-import com.github.kkysen.megamashbros.core.Hitbox;
+import com.github.kkysen.megamashbros.core.Hitboxes;
 import com.github.kkysen.megamashbros.core.State;
 
 public class UpAirAttack extends AirAttack {
@@ -14,10 +14,10 @@ public class UpAirAttack extends AirAttack {
 	@Override
     protected void attack(final State state, final boolean facingRight) {
         super.attack(state, facingRight);
-        final Hitbox hitbox = state.newHitbox(this, 60f, 30f);
-        hitbox.angle = facingRight ? angle : PI - angle;
-        hitbox.position.y += 60f;
-        hitbox.position.x += facingRight ? 5f : -5f;
-        state.addHitbox(hitbox);
+        final Hitboxes hitboxes = state.player.world.hitboxes;
+        final int hitbox = state.addHitbox(this, 60f, 30f);
+        hitboxes.angle[hitbox] = facingRight ? angle : PI - angle;
+        hitboxes.y[hitbox] += 60f;
+        hitboxes.x[hitbox] += facingRight ? 5f : -5f;
     }
 }
@@ -1,7 +1,7 @@
 package com.github.kkysen.megamashbros.actions;
 
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
-import com.github.kkysen.megamashbros.core.Hitbox;
+import com.github.kkysen.megamashbros.core.Hitboxes;
 import com.github.kkysen.megamashbros.core.State;
 
 public class UpTiltAttack extends GroundAttack {
@@ -15,11 +15,11 @@ public class UpTiltAttack extends GroundAttack {
     @Override
     protected void attack(final State state, final boolean facingRight) {
         super.attack(state, facingRight);
-        final Hitbox hitbox = state.newHitbox(this, 20f, 40f);
-        hitbox.angle = facingRight ? angle : PI - angle;
-        hitbox.position.y += 20f;
-        hitbox.position.x += facingRight ? 20f : -5f; // TODO is this right?
-        state.addHitbox(hitbox);
+        final Hitboxes hitboxes = state.player.world.hitboxes;
+        final int hitbox = state.addHitbox(this, 20f, 40f);
+        hitboxes.angle[hitbox] = facingRight ? angle : PI - angle;
+        hitboxes.y[hitbox] += 20f;
+        hitboxes.x[hitbox] += facingRight ? 20f : -5f; // TODO is this right?
     }
     
 }
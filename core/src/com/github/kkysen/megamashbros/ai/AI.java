@@ -1,9 +1,14 @@
 package com.github.kkysen.megamashbros.ai;
 
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.utils.Array;
 import com.github.kkysen.libgdx.util.keys.Controller;
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
 import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.core.WorldQuery;
 
 /**
  * 
@@ -12,13 +17,36 @@ import com.github.kkysen.megamashbros.core.Player;
  */
 public abstract class AI extends Controller {
     
-    protected static final int cycles = 4; // must be power of 2
+    protected static final int DEFAULT_CYCLES = 4;
+    
+    /**
+     * the number of ticks between applying decisions, a power of 2
+     */
+    protected final int cycles;
     
     protected int cycle = 0;
     
+    /**
+     * this {@link AI}'s own random number generator, so that {@link AI}s
+     * deciding in parallel don't share the {@link World}'s and still make the
+     * same decisions whatever order they run in
+     */
+    protected final RandomXS128 random = new RandomXS128();
+    
     private Array<KeyBinding> pressedKeys = new Array<>(4);
     private Array<KeyBinding> pendingKeyPresses = new Array<>(4);
     
+    protected AI(final int cycles) {
+        if (Integer.bitCount(cycles) != 1) {
+            throw new IllegalArgumentException("cycles must be a power of 2, not " + cycles);
+        }
+        this.cycles = cycles;
+    }
+    
+    protected AI() {
+        this(DEFAULT_CYCLES);
+    }
+    
     @Override
     public final void update() {
         if ((++cycle & cycles - 1) == 0) {
@@ -44,7 +72,70 @@ public abstract class AI extends Controller {
         pendingKeyPresses.add(keyBinding);
     }
     
-    // will be called before update
-    public abstract void makeDecisions(Player self, Array<Player> enemies);
+    public void seed(final long seed) {
+        random.setSeed(seed);
+    }
+    
+    private static void snapshot(final ByteBuffer buffer, final Array<KeyBinding> keyBindings) {
+        buffer.putShort((short) keyBindings.size);
+        for (int i = 0; i < keyBindings.size; i++) {
+            buffer.put((byte) keyBindings.get(i).ordinal());
+        }
+    }
+    
+    private static void restore(final ByteBuffer buffer, final Array<KeyBinding> keyBindings) {
+        keyBindings.clear();
+        for (int i = buffer.getShort(); i > 0; i--) {
+            keyBindings.add(KeyBinding.get(buffer.get()));
+        }
+    }
+    
+    @Override
+    public void snapshot(final ByteBuffer buffer) {
+        super.snapshot(buffer);
+        buffer.putInt(cycle);
+        buffer.putLong(random.getState(0));
+        buffer.putLong(random.getState(1));
+        snapshot(buffer, pressedKeys);
+        snapshot(buffer, pendingKeyPresses);
+    }
+    
+    @Override
+    public void restore(final ByteBuffer buffer) {
+        super.restore(buffer);
+        cycle = buffer.getInt();
+        random.setState(buffer.getLong(), buffer.getLong());
+        restore(buffer, pressedKeys);
+        restore(buffer, pendingKeyPresses);
+    }
+    
+    /**
+     * @return a new {@link AI} of the same kind, with the same {@link #cycles},
+     *         for the same {@link Player} in a {@link World#fork()}
+     */
+    @Override
+    public abstract AI fork();
+    
+    /**
+     * Called on the simulating thread for every {@link AI} before any of them
+     * {@link #makeDecisions(Player, WorldQuery)}, so anything that reads the
+     * other {@link AI}s, like snapshotting the {@link World}, must be done
+     * here instead. Does nothing by default.
+     * 
+     * @param query where everything was at the start of this tick
+     */
+    public void prepareDecisions(final Player self, final WorldQuery query) {}
+    
+    /**
+     * Decides which keys to press, possibly in parallel with the other
+     * {@link AI}s, so it may only read the {@link World}'s {@link Player}s,
+     * not the other {@link AI}s, and must only press keys on this {@link AI}.
+     * 
+     * Will be called after {@link #prepareDecisions(Player, WorldQuery)} and
+     * before {@link #update()}.
+     * 
+     * @param query where everything was at the start of this tick
+     */
+    public abstract void makeDecisions(Player self, WorldQuery query);
     
 }
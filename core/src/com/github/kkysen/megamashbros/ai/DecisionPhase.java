@@ -0,0 +1,105 @@
+package com.github.kkysen.megamashbros.ai;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.badlogic.gdx.utils.Array;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.WorldQuery;
+
+/**
+ * Lets every {@link AI} make its decisions for a tick at once, in parallel on
+ * a {@link ForkJoinPool}, before any {@link Player} is updated.
+ * 
+ * The {@link AI}s only read the {@link WorldQuery} and the {@link Player}s,
+ * which nobody changes until the phase is over, and the keys they press are
+ * only queued in their own {@link AI}s until {@link AI#update()}, so they
+ * don't need any locking and the order they run in doesn't matter. Anything
+ * that reads the other {@link AI}s is done first, one {@link AI} at a time,
+ * in {@link AI#prepareDecisions(Player, WorldQuery)}.
+ * 
+ * @author Khyber Sen
+ */
+public class DecisionPhase {
+    
+    /**
+     * the fewest {@link AI}s worth handing to another thread; any fewer and
+     * they're all run on the simulating thread
+     */
+    public static final int MIN_AIS_PER_TASK = 8;
+    
+    /**
+     * the pool the {@link AI}s make their decisions on, or null to make them
+     * all on the simulating thread, which is the default when there's only
+     * one core to run them on anyways
+     */
+    public ForkJoinPool pool = Runtime.getRuntime().availableProcessors() > 1
+            ? ForkJoinPool.commonPool() : null;
+    
+    private final Array<Player> ais = new Array<>(Player.class);
+    
+    private WorldQuery query;
+    
+    private final class Decide extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final int from;
+        private final int to;
+        private final int grain;
+        
+        public Decide(final int from, final int to, final int grain) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                decide(from, to);
+                return;
+            }
+            final int mid = from + to >>> 1;
+            invokeAll(new Decide(from, mid, grain), new Decide(mid, to, grain));
+        }
+        
+    }
+    
+    private void decide(final int from, final int to) {
+        final Player[] ais = this.ais.items;
+        for (int i = from; i < to; i++) {
+            final Player ai = ais[i];
+            ((AI) ai.controller).makeDecisions(ai, query);
+        }
+    }
+    
+    /**
+     * Lets every {@link AI} controlled {@link Player} in players make its
+     * decisions, and returns once they all have.
+     */
+    public void decide(final Array<Player> players, final WorldQuery query) {
+        this.query = query;
+        for (int i = 0; i < players.size; i++) {
+            final Player player = players.get(i);
+            if (player.isAI()) {
+                ((AI) player.controller).prepareDecisions(player, query);
+                ais.add(player);
+            }
+        }
+        try {
+            if (pool == null || ais.size <= MIN_AIS_PER_TASK) {
+                decide(0, ais.size);
+            } else {
+                // a few tasks per thread so they can steal from each other
+                final int grain = Math.max(MIN_AIS_PER_TASK,
+                        ais.size / (4 * pool.getParallelism()));
+                pool.invoke(new Decide(0, ais.size, grain));
+            }
+        } finally {
+            ais.clear();
+            this.query = null;
+        }
+    }
+    
+}
@@ -1,7 +1,7 @@
 package com.github.kkysen.megamashbros.ai;
 
-import com.badlogic.gdx.utils.Array;
 import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.WorldQuery;
 
 /**
  * 
@@ -11,6 +11,11 @@ import com.github.kkysen.megamashbros.core.Player;
 public class FrozenAI extends AI {
     
     @Override
-    public void makeDecisions(final Player self, final Array<Player> enemies) {}
+    public AI fork() {
+        return new FrozenAI();
+    }
+    
+    @Override
+    public void makeDecisions(final Player self, final WorldQuery query) {}
     
 }
@@ -1,9 +1,8 @@
 package com.github.kkysen.megamashbros.ai;
 
-import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.Array;
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
 import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.WorldQuery;
 
 /**
  * 
@@ -13,9 +12,14 @@ import com.github.kkysen.megamashbros.core.Player;
 public class RandomAI extends AI {
     
     @Override
-    public void makeDecisions(final Player self, final Array<Player> enemies) {
-        if (MathUtils.randomBoolean(0.01f)) {
-            pressKeys(KeyBinding.random());
+    public AI fork() {
+        return new RandomAI();
+    }
+    
+    @Override
+    public void makeDecisions(final Player self, final WorldQuery query) {
+        if (random.nextFloat() < 0.01f) {
+            pressKeys(KeyBinding.random(random));
         }
     }
     
@@ -0,0 +1,358 @@
+package com.github.kkysen.megamashbros.ai;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.github.kkysen.libgdx.util.keys.KeyBinding;
+import com.github.kkysen.megamashbros.core.Platform;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.core.WorldQuery;
+
+import lombok.Getter;
+
+/**
+ * Picks which {@link KeyBinding} to press next by playing each one out a few
+ * hundred ms ahead in its own {@link World#fork()} and seeing how it went,
+ * choosing which one to play out next with UCB1, so that the promising ones
+ * are played out the most (a Monte Carlo tree search one move deep).
+ * 
+ * It searches a little every tick, within a strict time {@link #budget}, even
+ * abandoning a play out that runs past it, and keeps what it learned until it
+ * has to press something, every {@link #cycles} ticks. Since how far it gets
+ * depends on how fast the machine is, a {@link World} with a {@link SearchAI}
+ * can only be reproduced from its recorded inputs, unless the search is
+ * limited by {@link #maxRollouts} instead.
+ * 
+ * @author Khyber Sen
+ */
+public class SearchAI extends AI {
+    
+    public static final long DEFAULT_BUDGET = 1_000_000; // 1 ms per tick
+    
+    public static final float DEFAULT_HORIZON = 0.3f; // s
+    
+    /**
+     * what can be pressed, where null means pressing nothing
+     */
+    private static final KeyBinding[] CANDIDATES = {
+        null,
+        KeyBinding.LEFT,
+        KeyBinding.RIGHT,
+        KeyBinding.JUMP,
+        KeyBinding.RANGE_ATTACK,
+        KeyBinding.ATTACK_FORWARD,
+        KeyBinding.ATTACK_DOWN,
+        KeyBinding.ATTACK_UP,
+    };
+    
+    /**
+     * how much a lost life is worth compared to a percent of damage
+     */
+    private static final float LIFE_VALUE = 100;
+    
+    /**
+     * how much being a pixel closer to the nearest enemy is worth, just so
+     * that it approaches them when there's nothing better to do
+     */
+    private static final float APPROACH_VALUE = 0.01f;
+    
+    /**
+     * how much landing a pixel off the {@link Platform} is worth, since falling
+     * off usually takes longer than the {@link #horizon} to lose a life
+     */
+    private static final float OFF_PLATFORM_VALUE = 0.2f;
+    
+    private static final float EXPLORATION = (float) Math.sqrt(2);
+    
+    /**
+     * the most time in ns to search for each tick
+     */
+    public final long budget;
+    
+    /**
+     * how far in s each candidate is played out
+     */
+    public final float horizon;
+    
+    /**
+     * the most play outs per tick, or 0 if only limited by the {@link #budget}
+     */
+    public final int maxRollouts;
+    
+    private World fork;
+    private Rollout rollout;
+    private ByteBuffer root = newBuffer(4096);
+    private float rootScore;
+    
+    /**
+     * how long the last {@link #prepareDecisions(Player, WorldQuery)} took,
+     * which counts towards the {@link #budget} too, except for creating the
+     * fork the first time
+     */
+    private long prepareTime = 0;
+    
+    private final int[] visits = new int[CANDIDATES.length];
+    private final float[] totalScores = new float[CANDIDATES.length];
+    private int numVisits = 0;
+    
+    /**
+     * a moving average of how long in ns one play out takes, so the search
+     * stops before starting one that won't finish within the {@link #budget}
+     */
+    private long rolloutTime = 0;
+    
+    private @Getter long numRollouts = 0;
+    private @Getter long numAbandonedRollouts = 0;
+    private @Getter long numForkTicks = 0;
+    private @Getter long searchTime = 0;
+    private @Getter long maxSearchTime = 0;
+    
+    public SearchAI(final long budget, final float horizon, final int maxRollouts,
+            final int cycles) {
+        super(cycles);
+        this.budget = budget;
+        this.horizon = horizon;
+        this.maxRollouts = maxRollouts;
+    }
+    
+    public SearchAI(final long budget) {
+        this(budget, DEFAULT_HORIZON, 0, DEFAULT_CYCLES);
+    }
+    
+    public SearchAI() {
+        this(DEFAULT_BUDGET);
+    }
+    
+    /**
+     * Plays out a candidate for the {@link SearchAI} that forked it, and then
+     * random ones for the rest of the play out.
+     */
+    private static final class Rollout extends AI {
+        
+        /**
+         * the index of the candidate to press first, or -1 if there isn't one
+         */
+        private int candidate = -1;
+        
+        public Rollout(final int cycles) {
+            super(cycles);
+        }
+        
+        public void play(final int candidate, final long seed) {
+            this.candidate = candidate;
+            random.setSeed(seed);
+        }
+        
+        @Override
+        public AI fork() {
+            return new Rollout(cycles);
+        }
+        
+        @Override
+        public void makeDecisions(final Player self, final WorldQuery query) {
+            if ((cycle & cycles - 1) != cycles - 1) {
+                return; // press keys right when they'll be applied
+            }
+            final int i = candidate != -1 ? candidate : random.nextInt(CANDIDATES.length);
+            candidate = -1;
+            if (CANDIDATES[i] != null) {
+                pressKeys(CANDIDATES[i]);
+            }
+        }
+        
+    }
+    
+    @Override
+    public AI fork() {
+        // if another SearchAI forks this one, it plays randomly in the fork
+        return new Rollout(cycles);
+    }
+    
+    private static ByteBuffer newBuffer(final int capacity) {
+        return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+    }
+    
+    private void snapshot(final World world) {
+        while (true) {
+            root.clear();
+            try {
+                world.snapshot(root);
+                break;
+            } catch (final BufferOverflowException e) {
+                root = newBuffer(root.capacity() << 1);
+            }
+        }
+        root.flip();
+    }
+    
+    /**
+     * @return how far off the {@link Platform} the {@link Player} will land if
+     *         it keeps moving like it is, since it takes much longer than the
+     *         {@link #horizon} to come down from a jump
+     */
+    private static float offPlatform(final Player player, final World world) {
+        final Platform platform = world.platform;
+        final float g = -world.gravity;
+        final float vy = player.velocity.y;
+        final float height = player.position.y - platform.top;
+        float x = player.position.x;
+        if (height > 0) {
+            x += player.velocity.x * (vy + (float) Math.sqrt(vy * vy + 2 * g * height)) / g;
+        }
+        final float off = Math.max(0, Math.max(platform.left - x, x - platform.right));
+        return off == 0 ? 0 : off + Math.max(0, -height);
+    }
+    
+    private static float harm(final Player player, final World world) {
+        return player.getPercentage() - LIFE_VALUE * player.lives
+                + (player.isAlive() ? 0 : LIFE_VALUE)
+                + OFF_PLATFORM_VALUE * offPlatform(player, world);
+    }
+    
+    /**
+     * @return how good the {@link World} is for self, the more harm done to
+     *         its enemies and the less to itself the better
+     */
+    private static float evaluate(final World world, final int self) {
+        final Player player = world.player(self);
+        float score = -harm(player, world);
+        float nearest = Float.POSITIVE_INFINITY;
+        for (int id = 0; id < world.context.numIds(); id++) {
+            if (id == self) {
+                continue;
+            }
+            final Player enemy = world.player(id);
+            score += harm(enemy, world);
+            if (!enemy.isCompletelyDead()) {
+                nearest = Math.min(nearest, player.position.dst(enemy.position));
+            }
+        }
+        if (nearest != Float.POSITIVE_INFINITY) {
+            score -= APPROACH_VALUE * nearest;
+        }
+        return score;
+    }
+    
+    private int select() {
+        int best = -1;
+        float bestBound = Float.NEGATIVE_INFINITY;
+        final float logVisits = (float) Math.log(numVisits);
+        for (int i = 0; i < CANDIDATES.length; i++) {
+            if (visits[i] == 0) {
+                return i; // play out each candidate at least once
+            }
+            final float bound = totalScores[i] / visits[i]
+                    + EXPLORATION * (float) Math.sqrt(logVisits / visits[i]);
+            if (bound > bestBound) {
+                best = i;
+                bestBound = bound;
+            }
+        }
+        return best;
+    }
+    
+    private int best() {
+        int best = -1;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < CANDIDATES.length; i++) {
+            if (visits[i] == 0) {
+                continue;
+            }
+            final float score = totalScores[i] / visits[i];
+            if (score > bestScore) {
+                best = i;
+                bestScore = score;
+            }
+        }
+        return best;
+    }
+    
+    /**
+     * @return the score of the play out, or NaN if it was abandoned because it
+     *         ran past the {@link #budget}
+     */
+    private float playOut(final int candidate, final int self, final int numTicks,
+            final long start) {
+        root.rewind();
+        fork.restore(root);
+        rollout.play(candidate, random.nextLong());
+        for (int tick = 0; tick < numTicks; tick++) {
+            if (System.nanoTime() - start > budget) {
+                numForkTicks += tick;
+                numAbandonedRollouts++;
+                return Float.NaN;
+            }
+            fork.step();
+        }
+        numForkTicks += numTicks;
+        return evaluate(fork, self);
+    }
+    
+    private void search(final Player self, final long start) {
+        final int numTicks = Math.max(1, Math.round(horizon * self.world.context.getTickRate()));
+        for (int n = 0; maxRollouts == 0 || n < maxRollouts; n++) {
+            final long now = System.nanoTime();
+            if (now - start + rolloutTime > budget) {
+                if (n == 0) {
+                    // so that one slow play out, like the first one, can't stop it for good
+                    rolloutTime >>= 1;
+                }
+                break;
+            }
+            final int candidate = select();
+            final float score = playOut(candidate, self.id, numTicks, start);
+            if (Float.isNaN(score)) {
+                break;
+            }
+            visits[candidate]++;
+            // scores are relative to now, so they're comparable between ticks
+            totalScores[candidate] += score - rootScore;
+            numVisits++;
+            numRollouts++;
+            // a play out that was slow because the thread was preempted shouldn't count as much
+            final long time = rolloutTime == 0 ? System.nanoTime() - now
+                    : Math.min(System.nanoTime() - now, rolloutTime << 2);
+            rolloutTime = rolloutTime == 0 ? time : rolloutTime + (time - rolloutTime >> 3);
+        }
+    }
+    
+    /**
+     * Snapshots the {@link World} to search from, including the other
+     * {@link AI}s, which can't be read while they're deciding.
+     */
+    @Override
+    public void prepareDecisions(final Player self, final WorldQuery query) {
+        if (fork == null) {
+            fork = self.world.fork();
+            rollout = (Rollout) fork.player(self.id).controller;
+        }
+        final long start = System.nanoTime();
+        snapshot(self.world);
+        rootScore = evaluate(self.world, self.id);
+        prepareTime = System.nanoTime() - start;
+    }
+    
+    @Override
+    public void makeDecisions(final Player self, final WorldQuery query) {
+        final long start = System.nanoTime() - prepareTime;
+        search(self, start);
+        if ((cycle & cycles - 1) == cycles - 1) {
+            // the pending keys are applied in this tick's update
+            final int best = best();
+            if (best != -1 && CANDIDATES[best] != null) {
+                pressKeys(CANDIDATES[best]);
+            }
+            for (int i = 0; i < CANDIDATES.length; i++) {
+                visits[i] = 0;
+                totalScores[i] = 0;
+            }
+            numVisits = 0;
+        }
+        final long time = System.nanoTime() - start;
+        searchTime += time;
+        maxSearchTime = Math.max(maxSearchTime, time);
+    }
+    
+}
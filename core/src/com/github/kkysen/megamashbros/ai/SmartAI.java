@@ -1,16 +1,12 @@
 package com.github.kkysen.megamashbros.ai;
 
-import java.util.Comparator;
-
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.Pools;
+import com.badlogic.gdx.utils.IntArray;
 import com.github.kkysen.libgdx.util.ExtensionMethods;
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
-import com.github.kkysen.megamashbros.app.Game;
-import com.github.kkysen.megamashbros.core.Hitbox;
 import com.github.kkysen.megamashbros.core.Player;
 import com.github.kkysen.megamashbros.core.Platform.Relation;
+import com.github.kkysen.megamashbros.core.WorldQuery;
 
 import lombok.experimental.ExtensionMethod;
 
@@ -24,11 +20,12 @@ public class SmartAI extends AI {
     
     private static final float TARGETING_MARGIN = 16f;
     
-    private static final float radius2 = cycles * cycles * 50f;
+    private static final float radius2 = DEFAULT_CYCLES * DEFAULT_CYCLES * 50f;
     
-    private static final Vector2 dd = Pools.obtain(Vector2.class); // change in distance
-    private static final Vector2 xyf = Pools.obtain(Vector2.class); // final position
-    private static final Vector2 vf = Pools.obtain(Vector2.class); // final velocity
+    private final Vector2 vf = new Vector2();
+    private final IntArray threats = new IntArray();
+    private final int[] nearestIds = new int[1];
+    private final float[] nearestDistances = new float[1];
     
     private static final KeyBinding[] sectorToKeys = {
         KeyBinding.JUMP,  // 0
@@ -41,51 +38,60 @@ public class SmartAI extends AI {
         KeyBinding.LEFT,  // 7
     };
     
-    private boolean evade(final Player self, final Array<Player> enemies, final float dt) {
-        // TODO maybe I should sort all the hitboxes first to evade the closer ones first
-        for (final Player enemy : enemies) {
-            for (final Hitbox hitbox : enemy.hitboxes) {
-                dd.distanceTraveled(hitbox.acceleration, hitbox.velocity, dt);
-                if (xyf.set(hitbox.position).add(dd).dst2(self.position) < radius2) {
-                    final float angle = vf.set(hitbox.velocity).mulAdd(hitbox.acceleration, dt)
-                            .angle();
-                    // divide unit circle into 8 sectors 0 to 7, 0 being [-22.5, 22.5]
-                    // choose move based on sector
-                    final int sector = (((int) angle << 1) + 45) / 90;
-                    pressKeys(sectorToKeys[sector]);
-                    return true;
-                }
+    private boolean evade(final Player self, final WorldQuery query, final float dt) {
+        final Vector2 vf = this.vf; // final velocity
+        final float[] x = query.x;
+        final float[] y = query.y;
+        final float[] vx = query.vx;
+        final float[] vy = query.vy;
+        final float[] ax = query.ax;
+        final float[] ay = query.ay;
+        // only hitboxes that can reach the evasion radius in dt are candidates
+        final float radius = (float) Math.sqrt(radius2);
+        query.hitboxesWithin(self.position.x, self.position.y,
+                radius + query.maxHitboxTravel(dt), self.id, threats);
+        // evade the hitbox that will end up closest first
+        int nearest = -1;
+        float nearestDst2 = radius2;
+        for (int j = 0; j < threats.size; j++) {
+            final int i = threats.get(j);
+            // final position
+            final float xf = x[i] + dt * (vx[i] + 0.5f * ax[i] * dt);
+            final float yf = y[i] + dt * (vy[i] + 0.5f * ay[i] * dt);
+            final float dst2 = self.position.dst2(xf, yf);
+            if (dst2 < nearestDst2) {
+                nearest = i;
+                nearestDst2 = dst2;
             }
         }
-        return false;
+        if (nearest == -1) {
+            return false;
+        }
+        final int i = nearest;
+        final float angle = vf.set(vx[i] + ax[i] * dt, vy[i] + ay[i] * dt).angle();
+        // divide unit circle into 8 sectors 0 to 7, 0 being [-22.5, 22.5]
+        // choose move based on sector
+        final int sector = (((int) angle << 1) + 45) / 90 & 7;
+        pressKeys(sectorToKeys[sector]);
+        return true;
     }
     
-    private boolean target(final Player self, final Array<Player> enemies) {
+    private boolean target(final Player self, final WorldQuery query) {
         final Vector2 position = self.position;
-        final float[] distances = new float[Player.numPlayers];
-        if (Game.instance.world.isPaused() || Player.numPlayers == 0) {
-            final int i = 1;
-            final int j = i;
-        }
-        for (final Player enemy : enemies) {
-            distances[enemy.id] = position.dst(enemy.position);
+        final int numEnemies = query.nearestEnemies(self, 1, nearestIds, nearestDistances);
+        if (numEnemies == 0) {
+            return false;
         }
-        final Comparator<Player> cmpByDistance = //
-                (a, b) -> (int) (distances[a.id] - distances[b.id]);
-        final Player[] enemiesArray = enemies.toArray().sorted(cmpByDistance);
-        for (final Player enemy : enemiesArray) {
-            // FIXME implement logic
-            if (distances[enemy.id] > cycles * 2) {
-                continue;
-            }
+        // FIXME implement logic
+        if (nearestDistances[0] <= cycles * 2) {
             pressKeys(KeyBinding.RANGE_ATTACK);
-            break;
         }
+        final Player nearest = self.world.player(nearestIds[0]);
         final float x = position.x;
         final Relation platformRelation = self.world.platform.xRelation(x);
         switch (platformRelation) {
             case MIDDLE:
-                final float dx = enemiesArray[0].position.x - x;
+                final float dx = nearest.position.x - x;
                 if (dx < TARGETING_MARGIN && dx > -TARGETING_MARGIN) {
                     break;
                 }
@@ -115,14 +121,19 @@ public class SmartAI extends AI {
     }
     
     @Override
-    public void makeDecisions(final Player self, final Array<Player> enemies) {
+    public AI fork() {
+        return new SmartAI();
+    }
+    
+    @Override
+    public void makeDecisions(final Player self, final WorldQuery query) {
         if ((cycle & cycles - 1) != 0) {
             return; // only run every #cycles game loops
         }
-        final float dt = cycles * Game.deltaTime; // delta time
+        final float dt = cycles * self.world.context.deltaTime; // delta time
         // using short circuit
-        final boolean dummy = evade(self, enemies, dt)
-                || target(self, enemies);
+        final boolean dummy = evade(self, query, dt)
+                || target(self, query);
     }
     
 }
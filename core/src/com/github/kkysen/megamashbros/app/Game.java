@@ -5,7 +5,6 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Scanner;
 
-import com.badlogic.gdx.Application;
 import com.badlogic.gdx.ApplicationAdapter;
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
@@ -16,12 +15,15 @@ import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer.ShapeType;
+import com.github.kkysen.libgdx.util.Log;
 import com.github.kkysen.libgdx.util.Textures;
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
 import com.github.kkysen.libgdx.util.keys.User;
 import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.TickMetrics;
 import com.github.kkysen.megamashbros.core.World;
 import com.github.kkysen.megamashbros.players.Mario;
+import com.github.kkysen.megamashbros.replay.InputRecorder;
 
 public class Game extends ApplicationAdapter {
     
@@ -29,6 +31,18 @@ public class Game extends ApplicationAdapter {
     public static final int WIDTH = 1600;
     public static final int HEIGHT = 900;
     
+    /**
+     * the system property of the file to export the {@link World#metrics} to,
+     * if any
+     */
+    public static final String METRICS_PROPERTY = "megamashbros.metrics";
+    
+    /**
+     * the system property of the file to record the inputs of the first game
+     * to, if any
+     */
+    public static final String RECORD_PROPERTY = "megamashbros.record";
+    
     private static boolean isRunningFromJar() {
         return Game.class.getResource("Game.class").toString().startsWith("jar");
     }
@@ -51,11 +65,6 @@ public class Game extends ApplicationAdapter {
         return open(ASSETS.resolve(path));
     }
     
-    public static Game instance;
-    
-    public static float deltaTime;
-    public static float speed = 1;
-    
     private OrthographicCamera camera;
     private SpriteBatch batch;
     private ShapeRenderer lineRenderer;
@@ -65,7 +74,6 @@ public class Game extends ApplicationAdapter {
     private static final int numAIs = 1;
     
     private Player[] createPlayers(final int numAIs) {
-        Player.numPlayers = 0;
         final Player[] players = new Player[numAIs + 1];
         players[0] = Mario.userControlled();
         for (int i = 1; i < players.length; i++) {
@@ -90,23 +98,32 @@ public class Game extends ApplicationAdapter {
     
     private World createWorld() {
         final Texture background = new Texture(asset("background.jpg"));
-        System.out.println(background.getHeight() + ", " + background.getWidth());
+        Log.log(Log.INFO, "Game", background.getHeight() + ", " + background.getWidth());
         final Sprite platform = new Sprite(new Texture(asset("platform.png")));
         return new World(WIDTH, HEIGHT, background, platform, createPlayers());
     }
     
     @Override
     public void create() {
-        Gdx.app.setLogLevel(Application.LOG_NONE);
-        instance = this;
+        Log.setLevel(Log.NONE);
+        Gdx.input.setInputProcessor(User.get());
         camera = new OrthographicCamera();
         camera.setToOrtho(false, WIDTH, HEIGHT);
         batch = new SpriteBatch();
         lineRenderer = new ShapeRenderer();
         world = createWorld();
+        world.user = User.get();
+        final String metricsFile = System.getProperty(METRICS_PROPERTY);
+        if (metricsFile != null) {
+            world.metrics.export(Paths.get(metricsFile), TickMetrics.DEFAULT_EXPORT_INTERVAL);
+        }
+        final String recordFile = System.getProperty(RECORD_PROPERTY);
+        if (recordFile != null) {
+            new InputRecorder(world, Paths.get(recordFile));
+        }
     }
     
-    private static void readSpeed() {
+    private void readSpeed() {
         final Scanner in;
         try {
             in = new Scanner(ASSETS.resolve("speed.txt"));
@@ -115,10 +132,10 @@ public class Game extends ApplicationAdapter {
         }
         if (in.hasNextLine() && in.hasNextFloat()) {
             final float newSpeed = in.nextFloat();
-            if (newSpeed != speed) {
-                System.out.println("\tread maxSpeed = " + newSpeed);
+            if (newSpeed != world.context.speed) {
+                Log.log(Log.INFO, "Game", "\tread maxSpeed = " + newSpeed);
             }
-            speed = newSpeed;
+            world.context.speed = newSpeed;
         }
         in.close();
     }
@@ -126,13 +143,18 @@ public class Game extends ApplicationAdapter {
     @Override
     public void render() {
         readSpeed();
-        deltaTime = Gdx.graphics.getDeltaTime() * speed;
         
         if (KeyBinding.RESTART.isPressed(User.get())) {
+            if (world.recorder != null) {
+                // the new players weren't recorded in the header
+                world.recorder.close();
+            }
             world.replacePlayers(createPlayers());
             world.gameOver = false;
         }
         
+        world.update(Gdx.graphics.getDeltaTime());
+        
         Gdx.gl.glClearColor(1, 0, 0, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
         camera.update();
@@ -151,6 +173,9 @@ public class Game extends ApplicationAdapter {
     
     @Override
     public void dispose() {
+        if (world.recorder != null) {
+            world.recorder.close();
+        }
         batch.dispose();
         world.dispose();
         Textures.dispose();
@@ -0,0 +1,106 @@
+package com.github.kkysen.megamashbros.app;
+
+import java.nio.file.Path;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.github.kkysen.libgdx.util.Log;
+import com.github.kkysen.megamashbros.core.TickMetrics;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.replay.InputRecorder;
+import com.github.kkysen.megamashbros.replay.InputReplay;
+
+/**
+ * The headless counterpart of {@link Game}. It simulates a {@link World}
+ * created from options.json without a GL context, so no textures or batches
+ * are ever loaded, and exits once the game is over. It can also record the
+ * game's inputs, or replay a recorded game instead.
+ * 
+ * @author Khyber Sen
+ */
+public class HeadlessGame extends ApplicationAdapter {
+    
+    /**
+     * if true, the {@link World} is stepped in real time like in {@link Game},
+     * otherwise it is stepped once per frame, as fast as the backend allows
+     */
+    private final boolean realTime;
+    
+    /**
+     * the file to export the {@link World#metrics} to, or null
+     */
+    private final Path metricsFile;
+    
+    /**
+     * the file to record the inputs to with an {@link InputRecorder}, or null
+     */
+    private final Path recordFile;
+    
+    /**
+     * the inputs recorded by an {@link InputRecorder} to replay instead of a
+     * new game, or null
+     */
+    private final Path replayFile;
+    
+    public World world;
+    
+    public HeadlessGame(final boolean realTime, final Path metricsFile, final Path recordFile,
+            final Path replayFile) {
+        this.realTime = realTime;
+        this.metricsFile = metricsFile;
+        this.recordFile = recordFile;
+        this.replayFile = replayFile;
+    }
+    
+    public HeadlessGame(final boolean realTime, final Path metricsFile) {
+        this(realTime, metricsFile, null, null);
+    }
+    
+    public HeadlessGame(final boolean realTime) {
+        this(realTime, null);
+    }
+    
+    @Override
+    public void create() {
+        Log.setLevel(Log.NONE);
+        if (replayFile != null) {
+            world = new InputReplay(replayFile).newWorld();
+        } else {
+            world = new World(Game.WIDTH, Game.HEIGHT, PlayerFactory.fromJson());
+        }
+        if (recordFile != null) {
+            new InputRecorder(world, recordFile);
+        }
+        if (metricsFile != null) {
+            world.metrics.export(metricsFile, TickMetrics.DEFAULT_EXPORT_INTERVAL);
+        }
+    }
+    
+    @Override
+    public void render() {
+        if (realTime) {
+            world.update(Gdx.graphics.getDeltaTime());
+        } else {
+            world.step();
+        }
+        if (world.gameOver) {
+            System.out.println("game over after " + world.context.tick + " ticks");
+            Gdx.app.exit();
+        } else if (world.replay != null && world.replay.isFinished()) {
+            System.out.println("replay over after " + world.context.tick + " ticks");
+            Gdx.app.exit();
+        }
+    }
+    
+    @Override
+    public void dispose() {
+        if (world.recorder != null) {
+            world.recorder.close();
+        }
+        if (world.replay != null) {
+            world.replay.close();
+        }
+        world.dispose();
+    }
+    
+}
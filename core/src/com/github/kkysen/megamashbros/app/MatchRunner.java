@@ -0,0 +1,248 @@
+package com.github.kkysen.megamashbros.app;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import com.badlogic.gdx.utils.JsonValue;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Runs many headless {@link World} matches in parallel on a work-stealing
+ * {@link ForkJoinPool}, all created from the same options.json-style config,
+ * and reports how many each {@link Player} won, how long the matches were, and
+ * how many ticks were simulated per second.
+ * <br>
+ * Every {@link Player} in the config should have a "controller", including
+ * "self", because nobody is at the keyboard.
+ * <br>
+ * Match i is played with the seed {@link #baseSeed} + i, so a batch can be
+ * reproduced from its {@link #baseSeed}, and any one match in it re-run with
+ * {@link #runMatch(long)}.
+ * 
+ * @author Khyber Sen
+ */
+public class MatchRunner {
+    
+    /**
+     * five minutes of game time at the {@link World#DEFAULT_TICK_RATE}
+     */
+    public static final int DEFAULT_MAX_TICKS = World.DEFAULT_TICK_RATE * 60 * 5;
+    
+    private final JsonValue options;
+    private final int maxTicks;
+    private final ForkJoinPool pool;
+    
+    /**
+     * the seed of the first match of every {@link #run(int)}
+     */
+    public final long baseSeed;
+    
+    /**
+     * @param options the options.json-style config each match is created from
+     * @param maxTicks the number of ticks after which a match is a draw
+     * @param parallelism the number of matches simulated at once
+     * @param baseSeed the seed of the first match, each one after it using the
+     *            next seed
+     */
+    public MatchRunner(final JsonValue options, final int maxTicks, final int parallelism,
+            final long baseSeed) {
+        this.options = options;
+        this.maxTicks = maxTicks;
+        this.baseSeed = baseSeed;
+        pool = new ForkJoinPool(parallelism);
+    }
+    
+    public MatchRunner(final JsonValue options, final int maxTicks, final int parallelism) {
+        this(options, maxTicks, parallelism, System.nanoTime());
+    }
+    
+    public MatchRunner(final JsonValue options, final int maxTicks) {
+        this(options, maxTicks, Runtime.getRuntime().availableProcessors());
+    }
+    
+    public MatchRunner(final JsonValue options) {
+        this(options, DEFAULT_MAX_TICKS);
+    }
+    
+    /**
+     * The result of one match.
+     */
+    public static class Match {
+        
+        /**
+         * the index of the winner in the config, or -1 if nobody won
+         */
+        public final int winner;
+        public final long ticks;
+        public final long nanos;
+        
+        /**
+         * the seed it was played with
+         */
+        public final long seed;
+        
+        private Match(final long seed, final int winner, final long ticks, final long nanos) {
+            this.seed = seed;
+            this.winner = winner;
+            this.ticks = ticks;
+            this.nanos = nanos;
+        }
+        
+        @Override
+        public String toString() {
+            return "Match[seed = " + seed + ", winner = " + winner + ", ticks = " + ticks + "]";
+        }
+        
+    }
+    
+    /**
+     * The combined results of many matches.
+     */
+    public static class Results {
+        
+        /**
+         * the number of wins of each {@link Player}, indexed by its order in
+         * the config
+         */
+        public final int[] wins;
+        public int draws;
+        public int matches;
+        public long totalTicks;
+        public long minTicks = Long.MAX_VALUE;
+        public long maxTicks;
+        /**
+         * the total time spent simulating, summed over all threads
+         */
+        public long simulationNanos;
+        /**
+         * the wall-clock time all the matches took, set once they're finished
+         */
+        public long wallNanos;
+        
+        private Results(final int numPlayers) {
+            wins = new int[numPlayers];
+        }
+        
+        private Results add(final Match match) {
+            if (match.winner == -1) {
+                draws++;
+            } else {
+                wins[match.winner]++;
+            }
+            matches++;
+            totalTicks += match.ticks;
+            minTicks = Math.min(minTicks, match.ticks);
+            maxTicks = Math.max(maxTicks, match.ticks);
+            simulationNanos += match.nanos;
+            return this;
+        }
+        
+        private Results add(final Results results) {
+            for (int i = 0; i < wins.length; i++) {
+                wins[i] += results.wins[i];
+            }
+            draws += results.draws;
+            matches += results.matches;
+            totalTicks += results.totalTicks;
+            minTicks = Math.min(minTicks, results.minTicks);
+            maxTicks = Math.max(maxTicks, results.maxTicks);
+            simulationNanos += results.simulationNanos;
+            return this;
+        }
+        
+        public double meanTicks() {
+            return matches == 0 ? 0 : (double) totalTicks / matches;
+        }
+        
+        public double ticksPerSecond() {
+            return wallNanos == 0 ? 0 : totalTicks * 1e9 / wallNanos;
+        }
+        
+        @Override
+        public String toString() {
+            return matches + " matches in " + wallNanos / 1e9 + " sec"
+                    + "\n\twins: " + Arrays.toString(wins) + ", draws: " + draws
+                    + "\n\tmatch length (ticks): mean = " + meanTicks() + ", min = "
+                    + (matches == 0 ? 0 : minTicks) + ", max = " + maxTicks
+                    + "\n\tticks/sec: " + ticksPerSecond();
+        }
+        
+    }
+    
+    private static int indexOf(final Player[] players, final Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == player) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Simulates one match until it's over or {@link #maxTicks} have passed.
+     * 
+     * @param seed the seed of the {@link World}, so the same seed plays the
+     *            same match
+     */
+    public Match runMatch(final long seed) {
+        final long start = System.nanoTime();
+        final Player[] players = PlayerFactory.fromJson(options);
+        final World world = new World(Game.WIDTH, Game.HEIGHT, seed, players);
+        while (!world.gameOver && world.context.tick < maxTicks) {
+            world.step();
+        }
+        final int winner = world.gameOver ? indexOf(players, world.getWinner()) : -1;
+        return new Match(seed, winner, world.context.tick, System.nanoTime() - start);
+    }
+    
+    private int numPlayers() {
+        return PlayerFactory.count(options);
+    }
+    
+    private class Matches extends RecursiveTask<Results> {
+        
+        private static final long serialVersionUID = 1L;
+        
+        /**
+         * the index of the first of these matches
+         */
+        private final int from;
+        private final int numMatches;
+        
+        public Matches(final int from, final int numMatches) {
+            this.from = from;
+            this.numMatches = numMatches;
+        }
+        
+        @Override
+        protected Results compute() {
+            if (numMatches == 1) {
+                return new Results(numPlayers()).add(runMatch(baseSeed + from));
+            }
+            final int half = numMatches >>> 1;
+            final Matches left = new Matches(from, half);
+            left.fork();
+            final Results right = new Matches(from + half, numMatches - half).compute();
+            return right.add(left.join());
+        }
+        
+    }
+    
+    /**
+     * Runs numMatches matches in parallel and waits for all of them to finish.
+     */
+    public Results run(final int numMatches) {
+        final long start = System.nanoTime();
+        final Results results = numMatches == 0 ? new Results(numPlayers())
+                : pool.invoke(new Matches(0, numMatches));
+        results.wallNanos = System.nanoTime() - start;
+        return results;
+    }
+    
+    public void shutdown() {
+        pool.shutdown();
+    }
+    
+}
@@ -20,6 +20,7 @@ import com.github.kkysen.megamashbros.ai.AI;
 import com.github.kkysen.megamashbros.ai.FrozenAI;
 import com.github.kkysen.megamashbros.ai.JumpingAI;
 import com.github.kkysen.megamashbros.ai.RandomAI;
+import com.github.kkysen.megamashbros.ai.SearchAI;
 import com.github.kkysen.megamashbros.ai.SmartAI;
 import com.github.kkysen.megamashbros.core.Player;
 import com.github.kkysen.megamashbros.players.Mario;
@@ -41,6 +42,7 @@ public class PlayerFactory {
         FrozenAI.class,
         JumpingAI.class,
         RandomAI.class,
+        SearchAI.class,
     };
     
     private static final Map<String, Constructor<? extends Player>> playerConstructors = new HashMap<>();
@@ -67,45 +69,57 @@ public class PlayerFactory {
         }
     }
     
-    public static void fromJson(final Array<Player> players, final JsonValue json,
-            final boolean isUser) {
-        final String playerName = json.getString("character");
-        final Constructor<? extends Player> playerConstructor = playerConstructors.get(playerName);
+    private static Controller newAI(final JsonValue json) {
+        final String aiName = json.getString("controller");
+        final Class<? extends AI> aiClass = aiClasses.get(aiName);
+        if (aiClass == null) {
+            throw new IllegalArgumentException(
+                    aiName + " is not a valid AI class, choose another AI controller: "
+                            + aiClasses.keySet());
+        }
+        try {
+            return aiClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException(e);
+        }
+    }
+    
+    /**
+     * @param character the simple class name of the {@link Player}, like
+     *            "Mario"
+     */
+    public static Player newPlayer(final String character, final Controller controller) {
+        final Constructor<? extends Player> playerConstructor = playerConstructors.get(character);
         if (playerConstructor == null) {
             throw new IllegalArgumentException(
-                    playerName + " is not a valid Player class, choose another character: "
+                    character + " is not a valid Player class, choose another character: "
                             + playerConstructors.keySet());
         }
-        
-        final Controller controller;
-        if (isUser) {
-            controller = User.get();
-        } else {
-            final String aiName = json.getString("controller");
-            final Class<? extends AI> aiClass = aiClasses.get(aiName);
-            if (aiClass == null) {
-                throw new IllegalArgumentException(
-                        aiName + " is not a valid AI class, choose another AI controller: "
-                                + aiClasses.keySet());
-            }
-            try {
-                controller = aiClass.newInstance();
-            } catch (InstantiationException | IllegalAccessException e) {
-                throw new RuntimeException(e);
-            }
-        }
-        
         try {
-            final int number = isUser ? 1 : json.getInt("number", 1);
-            for (int i = 0; i < number; i++) {
-                players.add(playerConstructor.newInstance(controller));
-            }
+            return playerConstructor.newInstance(controller);
         } catch (InstantiationException | IllegalAccessException | IllegalArgumentException
                 | InvocationTargetException e) {
             throw new RuntimeException(e);
         }
     }
     
+    /**
+     * @param isUser if true, the player is controlled by the {@link User},
+     *            unless it has a "controller" of its own, like when all the
+     *            players of a headless match are AIs
+     */
+    public static void fromJson(final Array<Player> players, final JsonValue json,
+            final boolean isUser) {
+        final String playerName = json.getString("character");
+        final boolean isAI = !isUser || json.has("controller");
+        final int number = isUser ? 1 : json.getInt("number", 1);
+        for (int i = 0; i < number; i++) {
+            // each AI keeps its own state, so it can't be shared between players
+            final Controller controller = isAI ? newAI(json) : User.get();
+            players.add(newPlayer(playerName, controller));
+        }
+    }
+    
     public static Player[] fromJson(final JsonValue json) {
         final Array<Player> players = new Array<>(Player.class);
         fromJson(players, json.get("self"), true);
@@ -115,8 +129,23 @@ public class PlayerFactory {
         return players.toArray();
     }
     
+    /**
+     * @return the number of players {@link #fromJson(JsonValue)} will create
+     */
+    public static int count(final JsonValue json) {
+        int count = 1;
+        for (final JsonValue jsonPlayer : json.get("enemies")) {
+            count += jsonPlayer.getInt("number", 1);
+        }
+        return count;
+    }
+    
+    public static JsonValue parse(final String fileName) {
+        return new JsonReader().parse(asset(fileName));
+    }
+    
     public static Player[] fromJson(final String fileName) {
-        return fromJson(new JsonReader().parse(asset(fileName)));
+        return fromJson(parse(fileName));
     }
     
     public static Player[] fromJson() {
@@ -0,0 +1,389 @@
+package com.github.kkysen.megamashbros.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+import com.github.kkysen.libgdx.util.Debuggable;
+
+/**
+ * All the boxes of one kind in a {@link World}, stored as a structure of
+ * arrays. Box i is made up of {@code x[i]}, {@code y[i]}, {@code width[i]},
+ * etc., so updating every box is one loop over contiguous memory instead of
+ * chasing a pointer to each box.
+ * <br>
+ * Boxes are removed by moving the last box into the removed box's index, so
+ * an index is only valid until the next {@link #remove(int)},
+ * {@link #removeAll(Player)}, or {@link #update()}. The arrays are replaced
+ * when they grow, so don't hold onto them across an {@link #add}.
+ * <br>
+ * Each box expires at a fixed tick, and is kept in the bucket of a timing
+ * wheel for that tick, along with its index in the bucket, so expiring boxes
+ * only touches the boxes that actually expire that tick. The ticks are counted
+ * by the boxes' own clock, {@link #now}, which only advances when they're
+ * {@link #update()}d, so boxes don't expire while the {@link World} is paused.
+ * 
+ * @author Khyber Sen
+ */
+public abstract class Boxes implements Debuggable {
+    
+    private static final int INITIAL_CAPACITY = 16;
+    
+    /**
+     * the tick a box that lasts forever expires at
+     */
+    public static final long NEVER = Long.MAX_VALUE;
+    
+    private static final int WHEEL_BITS = 8;
+    private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+    
+    /**
+     * so that a lifetime of a whole number of ticks isn't rounded up to the
+     * next one by float error
+     */
+    private static final double TICK_SLACK = 1e-3;
+    
+    public final World world;
+    
+    public int size = 0;
+    
+    public float[] x;
+    public float[] y;
+    public float[] width;
+    public float[] height;
+    
+    /**
+     * the tick of {@link #now} each box is removed at, before it's collided
+     */
+    public long[] expiry;
+    
+    /**
+     * the {@link Player#id} of the {@link Player} each box belongs to
+     */
+    public int[] owner;
+    
+    /**
+     * the boxes expiring at each tick, by the tick mod {@link #WHEEL_SIZE};
+     * the ones expiring in later turns of the wheel are skipped until then
+     */
+    private final IntArray[] wheel = new IntArray[WHEEL_SIZE];
+    
+    /**
+     * each box's index in its bucket of the {@link #wheel}, or -1 if it never
+     * expires
+     */
+    private int[] slot;
+    
+    private final IntArray expiring = new IntArray();
+    
+    /**
+     * the tick the next {@link #update()} expires the boxes of, so a box
+     * added before the update in a {@link World} tick expires a tick earlier
+     * than one added after it, since it's collided in that tick too
+     */
+    private long now = 0;
+    
+    protected Boxes(final World world) {
+        this.world = world;
+        for (int i = 0; i < WHEEL_SIZE; i++) {
+            wheel[i] = new IntArray();
+        }
+    }
+    
+    protected static float[] resize(final float[] array, final int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+    
+    protected static int[] resize(final int[] array, final int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+    
+    protected static long[] resize(final long[] array, final int capacity) {
+        return array == null ? new long[capacity] : Arrays.copyOf(array, capacity);
+    }
+    
+    public final int capacity() {
+        return x == null ? 0 : x.length;
+    }
+    
+    /**
+     * Resizes all the arrays, subclasses must resize their own too.
+     */
+    protected void resize(final int capacity) {
+        x = resize(x, capacity);
+        y = resize(y, capacity);
+        width = resize(width, capacity);
+        height = resize(height, capacity);
+        expiry = resize(expiry, capacity);
+        owner = resize(owner, capacity);
+        slot = resize(slot, capacity);
+    }
+    
+    private IntArray bucket(final long tick) {
+        return wheel[(int) tick & WHEEL_MASK];
+    }
+    
+    private void schedule(final int i) {
+        if (expiry[i] == NEVER) {
+            slot[i] = -1;
+            return;
+        }
+        final IntArray bucket = bucket(expiry[i]);
+        slot[i] = bucket.size;
+        bucket.add(i);
+    }
+    
+    private void unschedule(final int i) {
+        final int slot = this.slot[i];
+        if (slot == -1) {
+            return;
+        }
+        final IntArray bucket = bucket(expiry[i]);
+        final int last = bucket.pop();
+        if (last != i) {
+            bucket.items[slot] = last;
+            this.slot[last] = slot;
+        }
+    }
+    
+    /**
+     * @return the tick a box added now with the lifetime in seconds expires
+     *         at, after it's been collided in every tick within its lifetime
+     */
+    private long expiry(final float lifetime) {
+        final double ticks = Math.ceil((double) lifetime * world.context.getTickRate()
+                - TICK_SLACK);
+        if (ticks >= Integer.MAX_VALUE) {
+            return NEVER;
+        }
+        return now + Math.max(0, (long) ticks);
+    }
+    
+    /**
+     * Adds a box at the {@link Player#position}.
+     * 
+     * @return the index of the new box
+     */
+    protected int add(final Player player, final float width, final float height,
+            final float lifetime) {
+        if (size == capacity()) {
+            resize(Math.max(INITIAL_CAPACITY, size << 1));
+        }
+        final int i = size++;
+        x[i] = player.position.x;
+        y[i] = player.position.y;
+        this.width[i] = width;
+        this.height[i] = height;
+        expiry[i] = expiry(lifetime);
+        owner[i] = player.id;
+        schedule(i);
+        return i;
+    }
+    
+    /**
+     * Copies box {@code from} over box {@code to}, subclasses must copy their
+     * own arrays too.
+     */
+    protected void copy(final int from, final int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        width[to] = width[from];
+        height[to] = height[from];
+        expiry[to] = expiry[from];
+        owner[to] = owner[from];
+    }
+    
+    public final void remove(final int i) {
+        unschedule(i);
+        final int last = --size;
+        if (i != last) {
+            copy(last, i);
+            // the moved box's bucket entry has to follow it
+            final int slot = this.slot[last];
+            if (slot != -1) {
+                bucket(expiry[i]).items[slot] = i;
+            }
+            this.slot[i] = slot;
+        }
+    }
+    
+    public final void removeAll(final Player player) {
+        final int id = player.id;
+        for (int i = 0; i < size; i++) {
+            if (owner[i] == id) {
+                remove(i--);
+            }
+        }
+    }
+    
+    /**
+     * Only clears the buckets the boxes are in, since they're the only ones
+     * that aren't empty.
+     */
+    private void clearWheel() {
+        for (int i = 0; i < size; i++) {
+            if (slot[i] != -1) {
+                bucket(expiry[i]).clear();
+            }
+        }
+    }
+    
+    public void clear() {
+        size = 0;
+        clearWheel();
+    }
+    
+    protected final void snapshot(final ByteBuffer buffer, final float[] array) {
+        for (int i = 0; i < size; i++) {
+            buffer.putFloat(array[i]);
+        }
+    }
+    
+    protected final void snapshot(final ByteBuffer buffer, final int[] array) {
+        for (int i = 0; i < size; i++) {
+            buffer.putInt(array[i]);
+        }
+    }
+    
+    protected final void snapshot(final ByteBuffer buffer, final long[] array) {
+        for (int i = 0; i < size; i++) {
+            buffer.putLong(array[i]);
+        }
+    }
+    
+    protected final void restore(final ByteBuffer buffer, final float[] array) {
+        for (int i = 0; i < size; i++) {
+            array[i] = buffer.getFloat();
+        }
+    }
+    
+    protected final void restore(final ByteBuffer buffer, final int[] array) {
+        for (int i = 0; i < size; i++) {
+            array[i] = buffer.getInt();
+        }
+    }
+    
+    protected final void restore(final ByteBuffer buffer, final long[] array) {
+        for (int i = 0; i < size; i++) {
+            array[i] = buffer.getLong();
+        }
+    }
+    
+    /**
+     * Writes all the boxes, one array at a time, so they can be restored by
+     * {@link #restore(ByteBuffer)}. Subclasses must write their own arrays too.
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        buffer.putLong(now);
+        buffer.putInt(size);
+        snapshot(buffer, x);
+        snapshot(buffer, y);
+        snapshot(buffer, width);
+        snapshot(buffer, height);
+        snapshot(buffer, expiry);
+        snapshot(buffer, owner);
+    }
+    
+    /**
+     * Only allocates if there are more boxes than there's room for. The
+     * {@link #wheel} is rebuilt from the restored expiries.
+     */
+    public void restore(final ByteBuffer buffer) {
+        clearWheel();
+        now = buffer.getLong();
+        size = buffer.getInt();
+        if (size > capacity()) {
+            resize(size);
+        }
+        restore(buffer, x);
+        restore(buffer, y);
+        restore(buffer, width);
+        restore(buffer, height);
+        restore(buffer, expiry);
+        restore(buffer, owner);
+        for (int i = 0; i < size; i++) {
+            schedule(i);
+        }
+    }
+    
+    public final Player player(final int i) {
+        return world.player(owner[i]);
+    }
+    
+    /**
+     * Removes the boxes that expire this tick, and then the ones that have
+     * left the {@link World} while moving the rest by one tick.
+     */
+    public final void update() {
+        final long tick = now++;
+        final IntArray bucket = bucket(tick);
+        for (int i = 0; i < bucket.size; i++) {
+            final int box = bucket.items[i];
+            if (expiry[box] == tick) {
+                expiring.add(box);
+            }
+        }
+        // removing from the highest index down never moves another expiring box,
+        // so the boxes end up in the same order no matter how the bucket was
+        expiring.sort();
+        for (int i = expiring.size - 1; i >= 0; i--) {
+            remove(expiring.items[i]);
+        }
+        expiring.clear();
+        step(world.context.deltaTime, world.bounds);
+    }
+    
+    /**
+     * Removes the boxes outside of the bounds and moves the rest by one tick,
+     * in one pass.
+     */
+    protected abstract void step(float deltaTime, Rectangle bounds);
+    
+    /**
+     * Computes the overlap directly from the bounds, so nothing is allocated
+     * for each pair of boxes checked.
+     * 
+     * @return the area of the intersection of box i and the other box j, or 0
+     *         if they don't intersect
+     */
+    public final float intersectionArea(final int i, final Boxes boxes, final int j) {
+        final float ax = x[i];
+        final float bx = boxes.x[j];
+        final float width = Math.min(ax + this.width[i], bx + boxes.width[j]) - Math.max(ax, bx);
+        if (width <= 0) {
+            return 0;
+        }
+        final float ay = y[i];
+        final float by = boxes.y[j];
+        final float height = Math.min(ay + this.height[i], by + boxes.height[j])
+                - Math.max(ay, by);
+        if (height <= 0) {
+            return 0;
+        }
+        return width * height;
+    }
+    
+    public final boolean overlaps(final int i, final Boxes boxes, final int j) {
+        return intersectionArea(i, boxes, j) > 0;
+    }
+    
+    public final Rectangle bounds(final int i, final Rectangle bounds) {
+        return bounds.set(x[i], y[i], width[i], height[i]);
+    }
+    
+    protected abstract Color color(int i);
+    
+    public abstract String toString(int i);
+    
+    public final void render(final ShapeRenderer lineRenderer) {
+        for (int i = 0; i < size; i++) {
+            lineRenderer.setColor(color(i));
+            lineRenderer.rect(x[i], y[i], width[i], height[i]);
+        }
+    }
+    
+}
@@ -0,0 +1,130 @@
+package com.github.kkysen.megamashbros.core;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * The {@link Broadphase} is a uniform grid over the {@link World#bounds} that
+ * the {@link World#hitboxes} are sorted into. Instead of checking each hurtbox
+ * against every enemy hitbox, a hurtbox is only checked against the hitboxes
+ * in the cells it overlaps.
+ * <br>
+ * The grid is {@link #rebuild()} once a tick after all the boxes have moved,
+ * in one pass over the {@link Hitboxes} arrays.
+ * 
+ * @author Khyber Sen
+ */
+public class Broadphase {
+    
+    public static final float DEFAULT_CELL_SIZE = 64;
+    
+    private final Hitboxes hitboxes;
+    
+    private final float originX;
+    private final float originY;
+    private final float inverseCellSize;
+    private final int numCols;
+    private final int numRows;
+    private final IntArray[] cells;
+    
+    private final IntArray candidates = new IntArray(false, 16);
+    
+    /**
+     * the last query that found each hitbox, so it's only found once per query
+     */
+    private int[] queryIds = new int[0];
+    private int queryId = 0;
+    
+    public Broadphase(final Hitboxes hitboxes, final Rectangle bounds, final float cellSize) {
+        this.hitboxes = hitboxes;
+        originX = bounds.x;
+        originY = bounds.y;
+        inverseCellSize = 1 / cellSize;
+        numCols = Math.max(1, (int) Math.ceil(bounds.width * inverseCellSize));
+        numRows = Math.max(1, (int) Math.ceil(bounds.height * inverseCellSize));
+        cells = new IntArray[numCols * numRows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new IntArray(false, 4);
+        }
+    }
+    
+    public Broadphase(final Hitboxes hitboxes, final Rectangle bounds) {
+        this(hitboxes, bounds, DEFAULT_CELL_SIZE);
+    }
+    
+    private int col(final float x) {
+        final int col = (int) ((x - originX) * inverseCellSize);
+        return col < 0 ? 0 : col >= numCols ? numCols - 1 : col;
+    }
+    
+    private int row(final float y) {
+        final int row = (int) ((y - originY) * inverseCellSize);
+        return row < 0 ? 0 : row >= numRows ? numRows - 1 : row;
+    }
+    
+    /**
+     * Sorts all the {@link #hitboxes} into the cells they overlap.
+     */
+    public void rebuild() {
+        for (final IntArray cell : cells) {
+            cell.clear();
+        }
+        if (queryIds.length < hitboxes.capacity()) {
+            queryIds = new int[hitboxes.capacity()];
+        }
+        final float[] x = hitboxes.x;
+        final float[] y = hitboxes.y;
+        final float[] width = hitboxes.width;
+        final float[] height = hitboxes.height;
+        for (int i = 0; i < hitboxes.size; i++) {
+            final int minCol = col(x[i]);
+            final int maxCol = col(x[i] + width[i]);
+            final int minRow = row(y[i]);
+            final int maxRow = row(y[i] + height[i]);
+            for (int row = minRow; row <= maxRow; row++) {
+                for (int col = minCol; col <= maxCol; col++) {
+                    cells[row * numCols + col].add(i);
+                }
+            }
+        }
+    }
+    
+    public void clear() {
+        for (final IntArray cell : cells) {
+            cell.clear();
+        }
+    }
+    
+    /**
+     * Finds the enemy hitboxes that may overlap box i, each only once.
+     * 
+     * @return the indices of the candidate {@link #hitboxes}, only valid until
+     *         the next call or until the {@link #hitboxes} change
+     */
+    public IntArray candidates(final Boxes boxes, final int i) {
+        candidates.clear();
+        final int id = ++queryId;
+        final int[] queryIds = this.queryIds;
+        final int[] owners = hitboxes.owner;
+        final int owner = boxes.owner[i];
+        final int minCol = col(boxes.x[i]);
+        final int maxCol = col(boxes.x[i] + boxes.width[i]);
+        final int minRow = row(boxes.y[i]);
+        final int maxRow = row(boxes.y[i] + boxes.height[i]);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                final IntArray cell = cells[row * numCols + col];
+                final int[] hitboxes = cell.items;
+                for (int j = 0; j < cell.size; j++) {
+                    final int hitbox = hitboxes[j];
+                    if (queryIds[hitbox] != id && owners[hitbox] != owner) {
+                        queryIds[hitbox] = id;
+                        candidates.add(hitbox);
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+    
+}
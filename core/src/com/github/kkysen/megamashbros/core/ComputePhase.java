@@ -0,0 +1,120 @@
+package com.github.kkysen.megamashbros.core;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * Lets every {@link Player} {@link Player#compute(TickMetrics)} its tick at
+ * once, in parallel on a {@link ForkJoinPool}, before any of them is
+ * {@link Player#apply()}d.
+ * 
+ * A {@link Player} only changes itself while computing, and queues everything
+ * it does to the rest of the {@link World} until it's applied, which the
+ * {@link World} does in order afterwards, so they don't need any locking and
+ * the order they're computed in doesn't matter.
+ * 
+ * @author Khyber Sen
+ */
+public class ComputePhase {
+    
+    /**
+     * the fewest {@link Player}s worth handing to another thread; any fewer
+     * and they're all computed on the simulating thread
+     */
+    public static final int MIN_PLAYERS_PER_TASK = 16;
+    
+    /**
+     * the pool the {@link Player}s are computed on, or null to compute them
+     * all on the simulating thread, which is the default when there's only one
+     * core to run them on anyways
+     */
+    public ForkJoinPool pool = Runtime.getRuntime().availableProcessors() > 1
+            ? ForkJoinPool.commonPool() : null;
+    
+    private Player[] players;
+    private TickMetrics metrics;
+    
+    /**
+     * the laps of each thread that's computed {@link Player}s, all of which
+     * are in {@link #workers}
+     */
+    private final ThreadLocal<TickMetrics> laps = new ThreadLocal<>();
+    private final Array<TickMetrics> workers = new Array<>(TickMetrics.class);
+    
+    private final class Compute extends RecursiveAction {
+        
+        private static final long serialVersionUID = 1L;
+        
+        private final int from;
+        private final int to;
+        private final int grain;
+        
+        public Compute(final int from, final int to, final int grain) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+        
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                final TickMetrics worker = worker();
+                metrics.startLaps(worker);
+                for (int i = from; i < to; i++) {
+                    players[i].compute(worker);
+                }
+                return;
+            }
+            final int mid = from + to >>> 1;
+            invokeAll(new Compute(from, mid, grain), new Compute(mid, to, grain));
+        }
+        
+    }
+    
+    /**
+     * @return this thread's laps
+     */
+    private TickMetrics worker() {
+        TickMetrics worker = laps.get();
+        if (worker == null) {
+            worker = metrics.newWorker();
+            laps.set(worker);
+            synchronized (workers) {
+                workers.add(worker);
+            }
+        }
+        return worker;
+    }
+    
+    /**
+     * Computes every {@link Player} in players, and returns once they all
+     * have.
+     * 
+     * @param metrics timed per phase, summed over every thread the
+     *            {@link Player}s were computed on
+     */
+    public void compute(final Array<Player> players, final TickMetrics metrics) {
+        if (pool == null || players.size <= MIN_PLAYERS_PER_TASK) {
+            for (int i = 0; i < players.size; i++) {
+                players.get(i).compute(metrics);
+            }
+            return;
+        }
+        this.players = players.items;
+        this.metrics = metrics;
+        try {
+            // a few tasks per thread so they can steal from each other
+            final int grain = Math.max(MIN_PLAYERS_PER_TASK,
+                    players.size / (4 * pool.getParallelism()));
+            pool.invoke(new Compute(0, players.size, grain));
+        } finally {
+            this.players = null;
+            this.metrics = null;
+        }
+        // every worker's done, so they can be read without synchronizing on them
+        metrics.mergeLaps(workers);
+    }
+    
+}
@@ -0,0 +1,183 @@
+package com.github.kkysen.megamashbros.core;
+
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.github.kkysen.megamashbros.actions.Attack;
+import com.github.kkysen.megamashbros.core.Scheduler.Task;
+
+/**
+ * The {@link Boxes} created by {@link Attack}s, which move on their own once
+ * created and hurt the enemy {@link Hurtboxes} they hit.
+ * 
+ * @author Khyber Sen
+ */
+public class Hitboxes extends Boxes {
+    
+    public float[] vx;
+    public float[] vy;
+    public float[] ax;
+    public float[] ay;
+    public float[] angle;
+    
+    /**
+     * the index of the {@link Attack} in {@link #attacks} that created each
+     * box
+     */
+    public int[] attack;
+    
+    /**
+     * the {@link Attack}s that have created any of these boxes, indexed by
+     * {@link Attack#id}
+     */
+    public final Array<Attack> attacks = new Array<>(Attack.class);
+    
+    public Hitboxes(final World world) {
+        super(world);
+    }
+    
+    @Override
+    protected void resize(final int capacity) {
+        super.resize(capacity);
+        vx = resize(vx, capacity);
+        vy = resize(vy, capacity);
+        ax = resize(ax, capacity);
+        ay = resize(ay, capacity);
+        angle = resize(angle, capacity);
+        attack = resize(attack, capacity);
+    }
+    
+    @Override
+    protected void copy(final int from, final int to) {
+        super.copy(from, to);
+        vx[to] = vx[from];
+        vy[to] = vy[from];
+        ax[to] = ax[from];
+        ay[to] = ay[from];
+        angle[to] = angle[from];
+        attack[to] = attack[from];
+    }
+    
+    private int idOf(final Attack attack) {
+        final int id = attack.id;
+        if (id >= 0 && id < attacks.size && attacks.get(id) == attack) {
+            return id;
+        }
+        attack.id = attacks.size;
+        attacks.add(attack);
+        return attack.id;
+    }
+    
+    /**
+     * Registers every {@link Attack} the original {@link Hitboxes} have, as the
+     * {@link Attack} it's forked into, with the same id, so these can restore
+     * the original's snapshots.
+     */
+    void registerForks(final Hitboxes original, final IdentityMap<Task, Task> forks) {
+        final Array<Attack> originals = original.attacks;
+        final int numShared = Math.min(attacks.size, originals.size);
+        int id = 0;
+        while (id < numShared && attacks.get(id) == forks.get(originals.get(id))) {
+            id++;
+        }
+        attacks.truncate(id);
+        for (; id < originals.size; id++) {
+            final Attack attack = (Attack) forks.get(originals.get(id));
+            attack.id = id;
+            attacks.add(attack);
+        }
+    }
+    
+    /**
+     * Adds a motionless box at the {@link Player#position} that lasts for the
+     * {@link Attack#duration}.
+     * 
+     * @return the index of the new box
+     */
+    public int add(final Player player, final Attack attack, final float width,
+            final float height) {
+        final int i = add(player, width, height, attack.duration);
+        vx[i] = 0;
+        vy[i] = 0;
+        ax[i] = 0;
+        ay[i] = 0;
+        angle[i] = 0;
+        this.attack[i] = idOf(attack);
+        return i;
+    }
+    
+    @Override
+    public void clear() {
+        super.clear();
+        attacks.clear();
+    }
+    
+    /**
+     * Only the boxes are written, the {@link #attacks} are kept, so they must
+     * be restored into the same {@link World}.
+     */
+    @Override
+    public void snapshot(final ByteBuffer buffer) {
+        super.snapshot(buffer);
+        snapshot(buffer, vx);
+        snapshot(buffer, vy);
+        snapshot(buffer, ax);
+        snapshot(buffer, ay);
+        snapshot(buffer, angle);
+        snapshot(buffer, attack);
+    }
+    
+    @Override
+    public void restore(final ByteBuffer buffer) {
+        super.restore(buffer);
+        restore(buffer, vx);
+        restore(buffer, vy);
+        restore(buffer, ax);
+        restore(buffer, ay);
+        restore(buffer, angle);
+        restore(buffer, attack);
+    }
+    
+    public Attack attack(final int i) {
+        return attacks.get(attack[i]);
+    }
+    
+    @Override
+    protected void step(final float deltaTime, final Rectangle bounds) {
+        final float[] x = this.x;
+        final float[] y = this.y;
+        final float[] vx = this.vx;
+        final float[] vy = this.vy;
+        final float[] ax = this.ax;
+        final float[] ay = this.ay;
+        for (int i = 0; i < size; i++) {
+            if (!bounds.contains(x[i], y[i])) {
+                remove(i--); // the last box is now at i, so step it next
+                continue;
+            }
+            vx[i] += ax[i] * deltaTime;
+            vy[i] += ay[i] * deltaTime;
+            x[i] += vx[i] * deltaTime;
+            y[i] += vy[i] * deltaTime;
+        }
+    }
+    
+    @Override
+    protected Color color(final int i) {
+        return player(i).isAI() ? Color.RED : Color.CYAN;
+    }
+    
+    @Override
+    public String toString(final int i) {
+        return player(i) + "'s Hitbox[damage = " + attack(i).damage + "]";
+    }
+    
+    public String motion(final int i) {
+        return "a = (" + ax[i] + "," + ay[i] + "), v = (" + vx[i] + "," + vy[i] + "), p = ("
+                + x[i] + "," + y[i] + ")";
+    }
+    
+}
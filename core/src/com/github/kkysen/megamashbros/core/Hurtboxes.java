@@ -0,0 +1,77 @@
+package com.github.kkysen.megamashbros.core;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * The {@link Boxes} that follow each {@link Player} around and get hurt by
+ * enemy {@link Hitboxes}.
+ * 
+ * @author Khyber Sen
+ */
+public class Hurtboxes extends Boxes {
+    
+    private static final float DAMAGE_MULTIPLIER = 0.1f;
+    
+    public Hurtboxes(final World world) {
+        super(world);
+    }
+    
+    @Override
+    public int add(final Player player, final float width, final float height,
+            final float lifetime) {
+        return super.add(player, width, height, lifetime);
+    }
+    
+    /**
+     * Adds the {@link Player}'s default box, a bit bigger than the
+     * {@link Player} and lasting forever.
+     */
+    public int add(final Player player) {
+        return add(player, player.width() * 1.25f, player.height() * 1.25f, Float.MAX_VALUE);
+    }
+    
+    @Override
+    protected void step(final float deltaTime, final Rectangle bounds) {
+        final float[] x = this.x;
+        final float[] y = this.y;
+        for (int i = 0; i < size; i++) {
+            if (!bounds.contains(x[i], y[i])) {
+                remove(i--); // the last box is now at i, so step it next
+                continue;
+            }
+            final Vector2 position = player(i).position;
+            x[i] = position.x;
+            y[i] = position.y;
+        }
+    }
+    
+    /**
+     * @return the damage done to box i by the hitbox, proportional to their
+     *         overlapping area
+     */
+    public float damageTakenBy(final int i, final Hitboxes hitboxes, final int hitbox) {
+        return intersectionArea(i, hitboxes, hitbox) * hitboxes.attack(hitbox).damage
+                * DAMAGE_MULTIPLIER;
+    }
+    
+    public float collide(final int i, final Hitboxes hitboxes, final int hitbox) {
+        final float damage = damageTakenBy(i, hitboxes, hitbox);
+        if (damage != 0 && isLogging()) {
+            log(toString(i) + " collided with " + hitboxes.toString(hitbox));
+        }
+        return damage;
+    }
+    
+    @Override
+    protected Color color(final int i) {
+        return player(i).isAI() ? Color.BLUE : Color.GOLD;
+    }
+    
+    @Override
+    public String toString(final int i) {
+        return player(i) + "'s Hurtbox";
+    }
+    
+}
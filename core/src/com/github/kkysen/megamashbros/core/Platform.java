@@ -32,8 +32,13 @@ public class Platform implements Renderable, Disposable {
     public final float leftMargin;
     public final float rightMargin;
     
-    public Platform(final Sprite sprite, final float friction) {
-        bounds = sprite.getBoundingRectangle();
+    /**
+     * @param bounds the bounds of this {@link Platform}
+     * @param sprite the rendered {@link Sprite}, or null if headless
+     * @param friction the friction of this {@link Platform}
+     */
+    private Platform(final Rectangle bounds, final Sprite sprite, final float friction) {
+        this.bounds = bounds;
         this.sprite = sprite;
         this.friction = friction;
         
@@ -46,13 +51,27 @@ public class Platform implements Renderable, Disposable {
         rightMargin = right - margin;
     }
     
+    public Platform(final Sprite sprite, final float friction) {
+        this(sprite.getBoundingRectangle(), sprite, friction);
+    }
+    
     public Platform(final Sprite sprite) {
         this(sprite, DEFAULT_FRICTION);
     }
     
+    public Platform(final Rectangle bounds, final float friction) {
+        this(bounds, null, friction);
+    }
+    
+    public Platform(final Rectangle bounds) {
+        this(bounds, DEFAULT_FRICTION);
+    }
+    
     @Override
     public void render(final Batch batch) {
-        sprite.draw(batch);
+        if (sprite != null) {
+            sprite.draw(batch);
+        }
     }
     
     public enum Relation {
@@ -79,7 +98,9 @@ public class Platform implements Renderable, Disposable {
     
     @Override
     public void dispose() {
-        sprite.getTexture().dispose();
+        if (sprite != null) {
+            sprite.getTexture().dispose();
+        }
     }
     
 }
@@ -1,15 +1,16 @@
 package com.github.kkysen.megamashbros.core;
 
+import java.nio.ByteBuffer;
 import java.util.Map;
 
 import com.badlogic.gdx.graphics.g2d.Batch;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
-import com.badlogic.gdx.utils.Pools;
-import com.badlogic.gdx.utils.Timer;
-import com.badlogic.gdx.utils.Timer.Task;
+import com.badlogic.gdx.utils.BooleanArray;
+import com.badlogic.gdx.utils.FloatArray;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.LongArray;
 import com.github.kkysen.libgdx.util.Debuggable;
 import com.github.kkysen.libgdx.util.ExtensionMethods;
 import com.github.kkysen.libgdx.util.Renderable;
@@ -18,12 +19,10 @@ import com.github.kkysen.libgdx.util.keys.KeyBinding;
 import com.github.kkysen.megamashbros.actions.Action;
 import com.github.kkysen.megamashbros.actions.Attack;
 import com.github.kkysen.megamashbros.actions.Executable;
-import com.github.kkysen.megamashbros.actions.GroundAttack;
-import com.github.kkysen.megamashbros.actions.Move;
-import com.github.kkysen.megamashbros.actions.Stop;
 import com.github.kkysen.megamashbros.ai.AI;
-import com.github.kkysen.megamashbros.app.Game;
+import com.github.kkysen.megamashbros.core.TickMetrics.Phase;
 
+import lombok.Getter;
 import lombok.experimental.ExtensionMethod;
 
 /**
@@ -31,20 +30,20 @@ import lombok.experimental.ExtensionMethod;
  * right now), a {@link Map}&lt;{@link KeyBinding}, {@link Action}&gt; for all
  * the possible {@link #executables} it may do in response to pressed keys, a
  * {@link State} that holds the rendered, animated {@link #state} of the
- * {@link Player}, and all the {@link #hitboxes} and {@link #hurtboxes} produced
- * by the {@link Player}.
+ * {@link Player}. The {@link Hitboxes} and {@link Hurtboxes} produced by the
+ * {@link Player} are stored in its {@link #world}, tagged with its {@link #id}.
  * <br>
  * The {@link Player} also keeps track of the {@link #velocity} and
  * {@link #acceleration} to figure out where the {@link Player} should be
  * rendered, but the {@link #position} vector itself is stored inside the
  * {@link #state}, because that's where the {@link Player} is actually rendered.
  * <br>
- * Then the {@link Player} checks for hits by enemy {@link #hitboxes}. It loops
- * through its own {@link #hurtboxes}, and then for each {@link Hurtbox}, it
- * loops through all the enemies, and then for each enemy it loops through all
- * the enemy's {@link #hitboxes}. For each {@link Hitbox}, it finds the
- * "{@link Hitbox#damage}" done by the collision of the {@link Hurtbox} and
- * {@link Hitbox} proportional to the overlapping area. Somehow it will also
+ * Before any {@link Player} is updated, the {@link World} checks every hurtbox
+ * for hits by enemy hitboxes, asking the {@link World#broadphase} for the
+ * enemy hitboxes that might overlap it. For each hitbox, it finds the
+ * "{@link Attack#damage}" done by the collision of the hurtbox and hitbox
+ * proportional to the overlapping area, and calls
+ * {@link #takeHit(Hitboxes, int, float)}. Somehow it will also
  * calculate an {@link Attack#angle} for the attack. In
  * {@link #knockback(float, float)}, the {@link Player}'s
  * {@link #position}, {@link #velocity}, and {@link #acceleration} are all
@@ -57,8 +56,13 @@ import lombok.experimental.ExtensionMethod;
  * {@link KeyBinding}s in the {@link #executables} map, and for any
  * {@link KeyBinding} that is pressed, it executes that {@link Action}, updating
  * the {@link #state} (or replacing it) and the {@link #position}, etc. in
- * the process. Then it also adds/removes any {@link #hitboxes} or
- * {@link #hurtboxes} produced by this {@link Action}'s new {@link State}.
+ * the process. Then it also adds/removes any hitboxes or hurtboxes produced by
+ * this {@link Action}'s new {@link State}.
+ * <br>
+ * Each tick is split into {@link #compute(TickMetrics)}, which only changes this
+ * {@link Player} and queues what it does to the rest of the {@link World},
+ * and {@link #apply()}, which commits it. So every {@link Player} can be
+ * computed at once, in parallel and in any order, before any is applied.
  * 
  * @author Khyber Sen
  */
@@ -69,35 +73,65 @@ public abstract class Player implements Renderable, Debuggable {
     private static final float PERCENTAGE_MULTIPLIER = 0.001f;
     private static final float HITSTUN_MULTIPLIER = 0.00001f;
     
-    public static int numPlayers = 0;
-    
     public World world;
     
     public final Controller controller;
     private final Executable[] executables;
-    private final Stop stop;
+    private final Transitions transitions;
     
     private final String name;
-    public final int id;
+    /**
+     * allocated by the {@link World}'s {@link SimulationContext} when added to
+     * it, -1 until then
+     */
+    public int id = -1;
     public int lives;
     
     public State state;
+    
+    /**
+     * the {@link #state} it starts in, before doing any {@link Action}
+     */
+    private final State spawnState;
     public float actionTimer = 0;
     public int numMidairJumps = 1;
     
     /**
-     * Hitboxes retrieved from attacks, empty when not attacking
+     * handles of the tasks this {@link Player} has scheduled on the
+     * {@link World#scheduler}, some of which may have already run
      */
-    public final Array<Hitbox> hitboxes = new Array<>();
-    public final Array<Hurtbox> hurtboxes = new Array<>();
+    private final LongArray tasks = new LongArray();
     
-    public final Timer tasks = new Timer();
+    /**
+     * the {@link #executables} that have been executed and not reset since, by
+     * bit, which are the only ones that need to be reset when their
+     * {@link KeyBinding}s aren't pressed
+     */
+    private long unreset = 0;
+    
+    /**
+     * the tasks {@link #compute(TickMetrics)} has scheduled or cancelled and the
+     * {@link Action}s it has attacked with (and which way it was facing), which
+     * aren't put in the {@link World} until {@link #apply()}
+     */
+    private final Array<Scheduler.Task> scheduledTasks = new Array<>(Scheduler.Task.class);
+    private final FloatArray scheduledDelays = new FloatArray();
+    private final LongArray cancelledTasks = new LongArray();
+    private final Array<Action> attacks = new Array<>(Action.class);
+    private final BooleanArray attacksFacingRight = new BooleanArray();
+    
+    /**
+     * where {@link #compute(TickMetrics)} moved this {@link Player} to, which
+     * {@link #apply()} commits to its {@link #position} after attacking from
+     * where it was
+     */
+    private final Vector2 nextPosition = new Vector2();
     
     public final Vector2 acceleration = new Vector2();
     public final Vector2 velocity = new Vector2();
     public final Vector2 position = new Vector2();
     
-    private float percentage = 0;
+    private @Getter float percentage = 0;
     
     public boolean wasOnPlatform = true;
     
@@ -109,37 +143,42 @@ public abstract class Player implements Renderable, Debuggable {
     protected Player(final String name, final Controller controller, final State initialState,
             final int lives, final Executable[] executables) {
         this.name = name;
-        id = numPlayers++;
         this.controller = controller;
-        state = initialState.clone();
-        state.setPlayer(this);
+        spawnState = initialState.clone();
+        spawnState.setPlayer(this);
+        state = spawnState;
         this.lives = lives;
         
         // EnumMap was throwing some weird errors because of some Eclipse compiler error,
         // so I just made my own "EnumMap"
         this.executables = executables;
-        Stop stop = null;
-        for (final Executable executable : executables) {
-            if (executable instanceof Stop) {
-                stop = (Stop) executable;
-                break;
+        transitions = new Transitions(spawnState, executables);
+    }
+    
+    /**
+     * @return a new {@link Player} of the same character, controlled by
+     *         controller, for a {@link World#fork()}
+     */
+    public abstract Player fork(Controller controller);
+    
+    /**
+     * Maps each of this {@link Player}'s {@link #executables} that can be
+     * scheduled to the same one of its fork.
+     */
+    void mapForks(final Player fork, final IdentityMap<Scheduler.Task, Scheduler.Task> forks) {
+        for (int i = 0; i < executables.length; i++) {
+            if (executables[i] instanceof Scheduler.Task) {
+                forks.put((Scheduler.Task) executables[i], (Scheduler.Task) fork.executables[i]);
             }
         }
-        if (stop == null) {
-            throw new IllegalArgumentException("one executable must be a Stop");
-        } else {
-            this.stop = stop;
-        }
-        
-        hurtboxes.add(new Hurtbox(this));
     }
     
     public float width() {
-        return state.size.x;
+        return state.width();
     }
     
     public float height() {
-        return state.size.y;
+        return state.height();
     }
     
     @Override
@@ -147,7 +186,7 @@ public abstract class Player implements Renderable, Debuggable {
         return "Player " + id + " " + controller.name() + " " + name();
     }
     
-    public final void reSpawn(final Batch batch) {
+    public final void reSpawn() {
         // TODO
     }
     
@@ -181,51 +220,48 @@ public abstract class Player implements Renderable, Debuggable {
      * 
      * @param damage damage done to this {@link Player}
      * @param angle angle in radians at which this {@link Player} was attacked
-     * @param knockback the hard-coded {@link Hitbox#knockback} value
+     * @param knockback the hard-coded {@link Attack#knockback} value
      */
     private void knockback(final float damage, final float angle, final float knockback) {
         final float accelerationMagnitude = knockback * damage * (percentage + 1)
                 * /* * massReciprocal*/ KNOCKBACK_MULTIPLIER;
-        System.out.println(this + " knocked back by " + accelerationMagnitude + " at "
-                + MathUtils.radiansToDegrees * angle + " degrees, increasing percentage to "
-                + percentage + "%");
+        if (isLogging()) {
+            log(this + " knocked back by " + accelerationMagnitude + " at "
+                    + MathUtils.radiansToDegrees * angle + " degrees, increasing percentage to "
+                    + percentage + "%");
+        }
         percentage += damage * PERCENTAGE_MULTIPLIER;
         acceleration.setAngleAndLength(angle, accelerationMagnitude);
         stunTime += accelerationMagnitude * HITSTUN_MULTIPLIER;
-        System.out.println(this + " stunned for " + stunTime + " sec");
-        move();
-    }
-    
-    private void takeHits(final Array<Player> enemies) {
-        for (final Hurtbox hurtbox : hurtboxes) {
-            for (final Player enemy : enemies) {
-                log(this + " checking for hits by " + enemy);
-                for (final Hitbox hitbox : enemy.hitboxes) {
-                    final float damage = hurtbox.collide(hitbox);
-                    if (damage == 0) {
-                        continue;
-                    }
-                    final Attack attack = hitbox.attack;
-                    System.out.println(this + " attacked by " + hitbox + ", inflicting " + damage
-                            + " damage and "
-                            + attack.knockback + " knockback at "
-                            + MathUtils.radiansToDegrees * hitbox.angle + " degrees");
-                    knockback(damage, hitbox.angle, attack.knockback);
-                }
-            }
+        if (isLogging()) {
+            log(this + " stunned for " + stunTime + " sec");
         }
+        // hits are taken one at a time before anyone's computed, so it can be moved right away
+        acceleration.accelerate(velocity, position, world.context.deltaTime);
     }
     
-    private void updateBoxes(final Array<? extends Box> boxes) {
-        for (int i = 0; i < boxes.size; i++) {
-            if (!boxes.get(i).update()) { // box has expired, so delete
-                Pools.free(boxes.removeIndex(i--));
-            }
+    /**
+     * Hit by an enemy hitbox.
+     * 
+     * @param hitbox the index of the hitbox in the {@link Hitboxes}
+     * @param damage the damage done by the hitbox
+     */
+    public void takeHit(final Hitboxes hitboxes, final int hitbox, final float damage) {
+        final Attack attack = hitboxes.attack(hitbox);
+        final float angle = hitboxes.angle[hitbox];
+        if (isLogging()) {
+            log(this + " attacked by " + hitboxes.toString(hitbox) + ", inflicting "
+                    + damage + " damage and "
+                    + attack.knockback + " knockback at "
+                    + MathUtils.radiansToDegrees * angle + " degrees");
         }
+        knockback(damage, angle, attack.knockback);
     }
     
     private void stop() {
-        state = stop.execute(this);
+        if (transitions.isPossible(state, transitions.stop)) {
+            state = executables[transitions.stop].execute(this);
+        }
     }
     
     public final boolean isOnPlatform() {
@@ -235,14 +271,14 @@ public abstract class Player implements Renderable, Debuggable {
     private void checkIfOnPlatform() {
         final boolean isOnPlatform = isOnPlatform();
         if (isOnPlatform) {
-            log(this + " hit platform and stopped");
+            log("{} hit platform and stopped", this);
             position.y = world.platform.bounds.maxY();
             velocity.y = 0;
             acceleration.y = 0;
             if (!wasOnPlatform) {
                 //                if (state.action instanceof AirAttack) {
                 //                    // FIXME don't cancel all tasks, because other, non-attack tasks may be scheduled
-                //                    tasks.clear();
+                //                    cancelTasks();
                 //                    //state.action.reset();
                 //                    state.resetTime();
                 //                }
@@ -256,36 +292,98 @@ public abstract class Player implements Renderable, Debuggable {
     
     private void move() {
         //error(this + " moving at " + velocity + ", position = " + position);
-        acceleration.accelerate(velocity, position);
+        nextPosition.set(position);
+        acceleration.accelerate(velocity, nextPosition, world.context.deltaTime);
     }
     
     private void tryStopping() {
-        if (wasOnPlatform && !(state.action instanceof GroundAttack)) {
+        if (wasOnPlatform && !transitions.is(state, Transitions.GROUND_ATTACK)) {
             stop();
         }
     }
     
-    public void schedule(final float delaySeconds, final Task task) {
-        tasks.scheduleTask(task, delaySeconds);
+    /**
+     * Schedules the task to run after the given game time on the
+     * {@link World#scheduler}, so it can be cancelled by {@link #cancelTasks()}.
+     * It isn't put on the {@link World#scheduler} until {@link #apply()}.
+     */
+    public void schedule(final float delaySeconds, final Scheduler.Task task) {
+        final Scheduler scheduler = world.scheduler;
+        // forget the tasks that have already run
+        for (int i = 0; i < tasks.size; i++) {
+            if (!scheduler.isPending(tasks.get(i))) {
+                tasks.removeIndex(i--);
+            }
+        }
+        scheduledTasks.add(task);
+        scheduledDelays.add(delaySeconds);
+    }
+    
+    private boolean hasPendingTasks() {
+        if (scheduledTasks.size > 0) {
+            return true;
+        }
+        final Scheduler scheduler = world.scheduler;
+        for (int i = 0; i < tasks.size; i++) {
+            if (scheduler.isPending(tasks.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Cancels every task scheduled by {@link #schedule(float, Scheduler.Task)},
+     * which isn't done on the {@link World#scheduler} until {@link #apply()}.
+     */
+    public void cancelTasks() {
+        cancelledTasks.addAll(tasks);
+        tasks.clear();
+        scheduledTasks.clear();
+        scheduledDelays.clear();
+    }
+    
+    private void applyTasks() {
+        final Scheduler scheduler = world.scheduler;
+        for (int i = 0; i < cancelledTasks.size; i++) {
+            scheduler.cancel(cancelledTasks.get(i));
+        }
+        cancelledTasks.clear();
+        for (int i = 0; i < scheduledTasks.size; i++) {
+            tasks.add(scheduler.schedule(scheduledDelays.get(i), scheduledTasks.get(i)));
+        }
+        scheduledTasks.clear();
+        scheduledDelays.clear();
+    }
+    
+    /**
+     * Queues the action's attack until {@link #apply()}, since its hitboxes
+     * are shared by the whole {@link World}, facing the way this
+     * {@link Player} is facing now.
+     */
+    public void attack(final Action action) {
+        attacks.add(action);
+        attacksFacingRight.add(facingRight);
     }
     
     private void executeExecutables() {
         //System.out.println(this + "'s state is " + state);
         
+        final SimulationContext context = world.context;
+        final float deltaTime = context.deltaTime;
         if (stunTime > 0) { // still stunned, so lower stunTime and skip all actions
-            if (stunTime < Game.deltaTime) {
+            if (stunTime < deltaTime) {
                 stunTime = 0;
             } else {
-                stunTime -= Game.deltaTime;
+                stunTime -= deltaTime;
             }
             //System.out.println(this + " stunned");
             tryStopping();
             return;
         }
-        final Action action = state.action;
-        if (action instanceof Attack) {
-            if (moveTime < action.totalTime()) {
-                moveTime += Game.deltaTime;
+        if (transitions.is(state, Transitions.ATTACK)) {
+            if (moveTime < state.action.totalTime()) {
+                moveTime += deltaTime;
                 return;
             } else {
                 state.resetTime();
@@ -299,22 +397,31 @@ public abstract class Player implements Renderable, Debuggable {
         moveTime = 0;
         actionTimer = 0;
         acceleration.x = 0;
-        log(this + " checking for called executables");
-        boolean noMovesCalled = true;
+        log("{} checking for called executables", this);
+        long pressed = 0;
         for (int i = 0; i < executables.length; i++) {
             final Executable executable = executables[i];
-            executable.update();
-            if (executable.keyBinding.isPressed(controller)) {
-                if (executable instanceof Move) {
-                    noMovesCalled = false;
-                }
+            executable.update(context);
+            if (controller.isPressed(executable.keyBinding)) {
+                pressed |= 1L << i;
+            }
+        }
+        // the released executables that were already reset don't need to be reset again
+        for (long called = pressed | unreset; called != 0; called &= called - 1) {
+            final int i = Long.numberOfTrailingZeros(called);
+            final Executable executable = executables[i];
+            if ((pressed & 1L << i) != 0) {
                 //System.out.println(this + " pressed " + KeyBinding.get(i) + ", calling " + executable);
-                state = executable.execute(this);
+                if (transitions.isPossible(state, i)) {
+                    state = executable.execute(this);
+                }
             } else {
                 executable.reset();
             }
         }
-        if (noMovesCalled) {
+        // a scheduled Action can still change itself after being reset, so it must be reset again
+        unreset = hasPendingTasks() ? pressed | unreset : pressed;
+        if ((pressed & transitions.moves) == 0) {
             tryStopping();
         }
         if (wasOnPlatform) {
@@ -322,39 +429,133 @@ public abstract class Player implements Renderable, Debuggable {
         }
     }
     
-    public final void update(final Array<Player> enemies) {
+    private static void lap(final TickMetrics metrics, final Phase phase) {
+        if (metrics != null) {
+            metrics.lap(phase);
+        }
+    }
+    
+    /**
+     * Reads the {@link #controller} and works out what this {@link Player}
+     * does this tick, only changing itself. Everything it does to the rest of
+     * the {@link World} is queued until {@link #apply()}, so any number of
+     * {@link Player}s can be computed at once.
+     * 
+     * @param metrics what to time the phases with, or null to not time them
+     */
+    public final void compute(final TickMetrics metrics) {
         controller.update();
-        log(this + " updating hitboxes");
-        updateBoxes(hitboxes);
-        log(this + " updating hurtboxes");
-        updateBoxes(hurtboxes);
-        takeHits(enemies);
+        lap(metrics, Phase.INPUT);
         checkIfOnPlatform();
+        lap(metrics, Phase.PLATFORM);
         executeExecutables();
+        lap(metrics, Phase.EXECUTABLES);
         move();
+        state.update(world.context.deltaTime);
+        lap(metrics, Phase.MOVE);
+    }
+    
+    /**
+     * Commits what {@link #compute(TickMetrics)} queued: the tasks it scheduled and
+     * cancelled, the attacks it made from where it was, and then where it
+     * moved to.
+     */
+    public final void apply() {
+        applyTasks();
+        for (int i = 0; i < attacks.size; i++) {
+            attacks.get(i).attack(this, attacksFacingRight.get(i));
+        }
+        attacks.clear();
+        attacksFacingRight.clear();
+        position.set(nextPosition);
+    }
+    
+    public final void update() {
+        compute(world.metrics);
+        apply();
     }
     
     public final void kill() {
-        error(this + " was killed");
-        hitboxes.clear();
-        hurtboxes.clear();
-        executables.clear();
-        tasks.clear();
+        error("{} was killed", this);
+        world.hitboxes.removeAll(this);
+        world.hurtboxes.removeAll(this);
+        cancelTasks();
+        applyTasks();
     }
     
-    @Override
-    public final void render(final Batch batch) {
-        state.render(batch);
+    /**
+     * @return the index of the {@link Action} whose {@link State} is the
+     *         current {@link #state}, or -1 for the {@link #spawnState}
+     */
+    public int stateIndex() {
+        return state.id - 1;
     }
     
-    @Override
-    public final void render(final ShapeRenderer lineRenderer) {
-        for (final Hitbox hitbox : hitboxes) {
-            hitbox.render(lineRenderer);
+    /**
+     * Writes everything about this {@link Player} that changes during the game,
+     * including its {@link #controller} and {@link #executables}, so it can be
+     * restored by {@link #restore(ByteBuffer)}.
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        buffer.putFloat(position.x);
+        buffer.putFloat(position.y);
+        buffer.putFloat(velocity.x);
+        buffer.putFloat(velocity.y);
+        buffer.putFloat(acceleration.x);
+        buffer.putFloat(acceleration.y);
+        buffer.putFloat(percentage);
+        buffer.putInt(lives);
+        buffer.putFloat(stunTime);
+        buffer.putFloat(moveTime);
+        buffer.putFloat(actionTimer);
+        buffer.putInt(numMidairJumps);
+        buffer.put((byte) ((wasOnPlatform ? 1 : 0) | (facingRight ? 2 : 0)));
+        buffer.putInt(stateIndex());
+        buffer.putInt(tasks.size);
+        for (int i = 0; i < tasks.size; i++) {
+            buffer.putLong(tasks.get(i));
         }
-        for (final Hurtbox hurtbox : hurtboxes) {
-            hurtbox.render(lineRenderer);
+        buffer.putLong(unreset);
+        controller.snapshot(buffer);
+        spawnState.snapshot(buffer);
+        for (final Executable executable : executables) {
+            executable.snapshot(buffer);
+        }
+    }
+    
+    public void restore(final ByteBuffer buffer) {
+        position.x = buffer.getFloat();
+        position.y = buffer.getFloat();
+        velocity.x = buffer.getFloat();
+        velocity.y = buffer.getFloat();
+        acceleration.x = buffer.getFloat();
+        acceleration.y = buffer.getFloat();
+        percentage = buffer.getFloat();
+        lives = buffer.getInt();
+        stunTime = buffer.getFloat();
+        moveTime = buffer.getFloat();
+        actionTimer = buffer.getFloat();
+        numMidairJumps = buffer.getInt();
+        final byte flags = buffer.get();
+        wasOnPlatform = (flags & 1) != 0;
+        facingRight = (flags & 2) != 0;
+        final int stateIndex = buffer.getInt();
+        state = stateIndex == -1 ? spawnState : ((Action) executables[stateIndex]).getState();
+        tasks.clear();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            tasks.add(buffer.getLong());
+        }
+        unreset = buffer.getLong();
+        controller.restore(buffer);
+        spawnState.restore(buffer, this);
+        for (final Executable executable : executables) {
+            executable.restore(buffer, this);
         }
     }
     
+    @Override
+    public final void render(final Batch batch) {
+        state.render(batch);
+    }
+    
 }
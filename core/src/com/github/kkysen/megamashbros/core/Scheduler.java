@@ -0,0 +1,399 @@
+package com.github.kkysen.megamashbros.core;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+/**
+ * The {@link Scheduler} runs {@link Task}s after a number of ticks of its
+ * {@link World}, so they happen at the same point in the game no matter how
+ * fast the {@link World} is simulated.
+ * <br>
+ * It's a hierarchical timing wheel: {@link #LEVELS} wheels of {@link #SLOTS}
+ * slots each, where a slot of level n covers {@link #SLOTS}^n ticks. A task is
+ * put in the slot of the lowest level that covers its deadline, and whenever
+ * the lower wheel has gone all the way around, the next slot of the higher
+ * wheel is cascaded down. So scheduling and cancelling are O(1).
+ * <br>
+ * The scheduled tasks are kept in pooled nodes stored as arrays, so nothing is
+ * allocated per task once the pool has grown. A scheduled task is identified by
+ * a handle, which becomes invalid once the task has run or been cancelled.
+ * <br>
+ * Every task ever scheduled is registered with an id, so that the pending
+ * tasks can be snapshotted as ids instead of references.
+ * 
+ * @author Khyber Sen
+ */
+public class Scheduler {
+    
+    public interface Task {
+        
+        public void run();
+        
+    }
+    
+    /**
+     * a handle that's never pending
+     */
+    public static final long NONE = -1;
+    
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    
+    /**
+     * the longest delay that fits in the wheels, longer delays are rescheduled
+     * when they reach the end of the wheels
+     */
+    private static final long MAX_DELAY = (1L << SLOT_BITS * LEVELS) - 1;
+    
+    private static final int NULL = -1;
+    
+    private final World world;
+    
+    private long now = 0;
+    
+    private final int[] heads = new int[LEVELS * SLOTS];
+    private final int[] tails = new int[LEVELS * SLOTS];
+    
+    private Task[] tasks = new Task[0];
+    private long[] deadlines = new long[0];
+    private int[] slots = new int[0];
+    private int[] prev = new int[0];
+    private int[] next = new int[0];
+    private int[] generations = new int[0];
+    private int free = NULL;
+    
+    /**
+     * the number of nodes in use or free, which is less than the length of
+     * the arrays after restoring a snapshot taken before they grew
+     */
+    private int capacity = 0;
+    
+    private int size = 0;
+    
+    /**
+     * every {@link Task} that has been scheduled, indexed by its id in
+     * {@link #taskIds}
+     */
+    private final Array<Task> registeredTasks = new Array<>(Task.class);
+    private final ObjectIntMap<Task> taskIds = new ObjectIntMap<>();
+    
+    public Scheduler(final World world) {
+        this.world = world;
+        Arrays.fill(heads, NULL);
+        Arrays.fill(tails, NULL);
+    }
+    
+    /**
+     * @return the number of pending tasks
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * @return the number of ticks the {@link Scheduler} has advanced
+     */
+    public long now() {
+        return now;
+    }
+    
+    private void resize(final int capacity) {
+        tasks = Arrays.copyOf(tasks, capacity);
+        deadlines = Arrays.copyOf(deadlines, capacity);
+        slots = Arrays.copyOf(slots, capacity);
+        prev = Arrays.copyOf(prev, capacity);
+        next = Arrays.copyOf(next, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+    }
+    
+    /**
+     * Adds the nodes from oldCapacity on to the free list as if they were
+     * new, so they're allocated in the same order no matter what they were
+     * used for before a snapshot was restored.
+     */
+    private void free(final int oldCapacity) {
+        for (int i = capacity - 1; i >= oldCapacity; i--) {
+            tasks[i] = null;
+            deadlines[i] = 0;
+            slots[i] = 0;
+            prev[i] = 0;
+            generations[i] = 0;
+            next[i] = free;
+            free = i;
+        }
+    }
+    
+    private void grow() {
+        final int oldCapacity = capacity;
+        capacity = Math.max(16, oldCapacity << 1);
+        if (capacity > tasks.length) {
+            resize(capacity);
+        }
+        free(oldCapacity);
+    }
+    
+    private void register(final Task task) {
+        if (!taskIds.containsKey(task)) {
+            taskIds.put(task, registeredTasks.size);
+            registeredTasks.add(task);
+        }
+    }
+    
+    /**
+     * Registers every {@link Task} the original {@link Scheduler} has, as the
+     * {@link Task} it's forked into, in the same order, so this one can
+     * restore the original's snapshots. Only the ones registered since last
+     * time, or that this one registered differently on its own, are changed.
+     */
+    void registerForks(final Scheduler original, final IdentityMap<Task, Task> forks) {
+        final Array<Task> originals = original.registeredTasks;
+        final int numShared = Math.min(registeredTasks.size, originals.size);
+        int id = 0;
+        while (id < numShared && registeredTasks.get(id) == forks.get(originals.get(id))) {
+            id++;
+        }
+        while (registeredTasks.size > id) {
+            taskIds.remove(registeredTasks.pop(), NULL);
+        }
+        for (; id < originals.size; id++) {
+            register(forks.get(originals.get(id)));
+        }
+    }
+    
+    private int allocate() {
+        if (free == NULL) {
+            grow();
+        }
+        final int node = free;
+        free = next[node];
+        return node;
+    }
+    
+    private void release(final int node) {
+        tasks[node] = null;
+        generations[node]++; // invalidates any outstanding handles
+        next[node] = free;
+        free = node;
+    }
+    
+    private void link(final int node) {
+        final long delay = Math.min(deadlines[node] - now, MAX_DELAY);
+        int level = 0;
+        while (delay >>> SLOT_BITS * (level + 1) != 0) {
+            level++;
+        }
+        final long placement = now + delay;
+        final int slot = level * SLOTS + (int) (placement >>> SLOT_BITS * level & SLOT_MASK);
+        slots[node] = slot;
+        final int tail = tails[slot];
+        prev[node] = tail;
+        next[node] = NULL;
+        if (tail == NULL) {
+            heads[slot] = node;
+        } else {
+            next[tail] = node;
+        }
+        tails[slot] = node;
+    }
+    
+    private void unlink(final int node) {
+        final int slot = slots[node];
+        final int before = prev[node];
+        final int after = next[node];
+        if (before == NULL) {
+            heads[slot] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after == NULL) {
+            tails[slot] = before;
+        } else {
+            prev[after] = before;
+        }
+    }
+    
+    /**
+     * @return the tasks in the slot, which is emptied
+     */
+    private int detach(final int slot) {
+        final int head = heads[slot];
+        heads[slot] = NULL;
+        tails[slot] = NULL;
+        return head;
+    }
+    
+    private static long handle(final int node, final int generation) {
+        return (long) generation << 32 | node;
+    }
+    
+    private int node(final long handle) {
+        final int node = (int) handle;
+        if (handle == NONE || node < 0 || node >= capacity
+                || generations[node] != (int) (handle >>> 32) || tasks[node] == null) {
+            return NULL;
+        }
+        return node;
+    }
+    
+    /**
+     * Schedules the task to run after the given number of ticks, at least 1.
+     * 
+     * @return a handle to {@link #cancel(long)} it with
+     */
+    public long schedule(final long delayTicks, final Task task) {
+        register(task);
+        final int node = allocate();
+        tasks[node] = task;
+        deadlines[node] = now + Math.max(1, delayTicks);
+        link(node);
+        size++;
+        return handle(node, generations[node]);
+    }
+    
+    /**
+     * Schedules the task to run after the given game time, rounded to the
+     * nearest tick.
+     * 
+     * @return a handle to {@link #cancel(long)} it with
+     */
+    public long schedule(final float delaySeconds, final Task task) {
+        return schedule(Math.round(delaySeconds * world.context.getTickRate()), task);
+    }
+    
+    public boolean isPending(final long handle) {
+        return node(handle) != NULL;
+    }
+    
+    /**
+     * @return true if the task was pending and is now cancelled
+     */
+    public boolean cancel(final long handle) {
+        final int node = node(handle);
+        if (node == NULL) {
+            return false;
+        }
+        unlink(node);
+        release(node);
+        size--;
+        return true;
+    }
+    
+    public void clear() {
+        for (int slot = 0; slot < heads.length; slot++) {
+            for (int node = detach(slot); node != NULL;) {
+                final int after = next[node];
+                release(node);
+                node = after;
+            }
+        }
+        size = 0;
+        registeredTasks.clear();
+        taskIds.clear();
+    }
+    
+    /**
+     * Writes the wheels and every node, with each {@link Task} written as its
+     * id, so the exact same tasks and handles can be restored by
+     * {@link #restore(ByteBuffer)}.
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        buffer.putLong(now);
+        buffer.putInt(size);
+        buffer.putInt(free);
+        // most slots are empty, so only the others are written, ending with NULL
+        for (int slot = 0; slot < heads.length; slot++) {
+            if (heads[slot] != NULL) {
+                buffer.putShort((short) slot);
+                buffer.putInt(heads[slot]);
+                buffer.putInt(tails[slot]);
+            }
+        }
+        buffer.putShort((short) NULL);
+        buffer.putInt(registeredTasks.size);
+        buffer.putInt(capacity);
+        for (int node = 0; node < capacity; node++) {
+            final Task task = tasks[node];
+            buffer.putInt(task == null ? NULL : taskIds.get(task, NULL));
+            buffer.putLong(deadlines[node]);
+            buffer.putInt(slots[node]);
+            buffer.putInt(prev[node]);
+            buffer.putInt(next[node]);
+            buffer.putInt(generations[node]);
+        }
+    }
+    
+    /**
+     * Restores a snapshot of this same {@link Scheduler}, since the
+     * {@link Task}s are looked up by their ids. It only allocates if there are
+     * more nodes in the snapshot than there's room for.
+     */
+    public void restore(final ByteBuffer buffer) {
+        now = buffer.getLong();
+        size = buffer.getInt();
+        free = buffer.getInt();
+        Arrays.fill(heads, NULL);
+        Arrays.fill(tails, NULL);
+        for (int slot; (slot = buffer.getShort()) != NULL;) {
+            heads[slot] = buffer.getInt();
+            tails[slot] = buffer.getInt();
+        }
+        // tasks first scheduled after the snapshot get the same ids next time
+        for (int numTasks = buffer.getInt(); registeredTasks.size > numTasks;) {
+            taskIds.remove(registeredTasks.pop(), NULL);
+        }
+        capacity = buffer.getInt();
+        if (capacity > tasks.length) {
+            resize(capacity);
+        }
+        for (int node = 0; node < capacity; node++) {
+            final int id = buffer.getInt();
+            tasks[node] = id == NULL ? null : registeredTasks.get(id);
+            deadlines[node] = buffer.getLong();
+            slots[node] = buffer.getInt();
+            prev[node] = buffer.getInt();
+            next[node] = buffer.getInt();
+            generations[node] = buffer.getInt();
+        }
+    }
+    
+    private void cascade(final int level) {
+        final int slot = level * SLOTS + (int) (now >>> SLOT_BITS * level & SLOT_MASK);
+        for (int node = detach(slot); node != NULL;) {
+            final int after = next[node];
+            link(node);
+            node = after;
+        }
+    }
+    
+    /**
+     * Advances one tick, running all the tasks due now in the order they were
+     * scheduled.
+     */
+    public void advance() {
+        now++;
+        for (int level = 1; level < LEVELS
+                && (now & (1L << SLOT_BITS * level) - 1) == 0; level++) {
+            cascade(level);
+        }
+        // pop one at a time, since a task might cancel another task in the slot
+        final int slot = (int) (now & SLOT_MASK);
+        for (int node; (node = heads[slot]) != NULL;) {
+            unlink(node);
+            if (deadlines[node] > now) {
+                link(node); // was beyond the end of the wheels
+            } else {
+                final Task task = tasks[node];
+                release(node);
+                size--;
+                task.run();
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,125 @@
+package com.github.kkysen.megamashbros.core;
+
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.math.Vector2;
+
+/**
+ * The {@link SimulationContext} holds everything that used to be a
+ * process-wide static but really belongs to one {@link World}: the clock, the
+ * {@link Player#id} allocator, the random number generator, and scratch
+ * objects. Since each {@link World} owns its own, many {@link World}s can be
+ * stepped on different threads at once without corrupting each other.
+ * 
+ * @author Khyber Sen
+ */
+public class SimulationContext {
+    
+    private int tickRate;
+    
+    /**
+     * the fixed time step of one tick, 1 / {@link #tickRate}
+     */
+    public float deltaTime;
+    
+    /**
+     * how much faster than real time the {@link World} is updated
+     */
+    public float speed = 1;
+    
+    /**
+     * the number of ticks simulated so far
+     */
+    public long tick = 0;
+    
+    /**
+     * the game time simulated so far, in seconds
+     */
+    public float time = 0;
+    
+    private int numIds = 0;
+    
+    /**
+     * the seed of the {@link #random}, so the game can be recreated
+     */
+    public final long seed;
+    
+    public final RandomXS128 random;
+    
+    /**
+     * scratch vectors, only valid until the next call that might use them
+     */
+    public final Vector2 tmp = new Vector2();
+    public final Vector2 tmp2 = new Vector2();
+    public final Vector2 tmp3 = new Vector2();
+    
+    public SimulationContext(final int tickRate, final long seed) {
+        setTickRate(tickRate);
+        this.seed = seed;
+        random = new RandomXS128(seed);
+    }
+    
+    public int getTickRate() {
+        return tickRate;
+    }
+    
+    /**
+     * @param tickRate the number of fixed ticks simulated per second of game
+     *            time
+     */
+    public void setTickRate(final int tickRate) {
+        if (tickRate <= 0) {
+            throw new IllegalArgumentException("tickRate must be positive: " + tickRate);
+        }
+        this.tickRate = tickRate;
+        deltaTime = 1f / tickRate;
+    }
+    
+    /**
+     * Advances the clock by one tick.
+     */
+    public void tick() {
+        tick++;
+        time += deltaTime;
+    }
+    
+    /**
+     * @return a new {@link Player#id}, unique within this {@link World}
+     */
+    public int nextId() {
+        return numIds++;
+    }
+    
+    /**
+     * @return the number of ids allocated, so every {@link Player#id} is less
+     *         than this
+     */
+    public int numIds() {
+        return numIds;
+    }
+    
+    public void resetIds() {
+        numIds = 0;
+    }
+    
+    /**
+     * Writes the clock, the number of ids, and the state of the
+     * {@link #random}, but not the settings like the {@link #speed}.
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        buffer.putLong(tick);
+        buffer.putFloat(time);
+        buffer.putInt(numIds);
+        buffer.putLong(random.getState(0));
+        buffer.putLong(random.getState(1));
+    }
+    
+    public void restore(final ByteBuffer buffer) {
+        tick = buffer.getLong();
+        time = buffer.getFloat();
+        numIds = buffer.getInt();
+        random.setState(buffer.getLong(), buffer.getLong());
+    }
+    
+}
@@ -1,66 +1,80 @@
 package com.github.kkysen.megamashbros.core;
 
+import java.nio.ByteBuffer;
+
 import com.badlogic.gdx.graphics.g2d.Animation;
 import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.math.Vector2;
-import com.badlogic.gdx.utils.Array;
 import com.github.kkysen.libgdx.util.Debuggable;
 import com.github.kkysen.libgdx.util.ExtensionMethods;
 import com.github.kkysen.libgdx.util.Renderable;
 import com.github.kkysen.megamashbros.actions.Action;
 import com.github.kkysen.megamashbros.actions.Attack;
-import com.github.kkysen.megamashbros.app.Game;
 
 import lombok.experimental.ExtensionMethod;
 
 /**
+ * A {@link State} only holds what changes per {@link Player}, like its
+ * {@link #player} and elapsed time. The animations and size are in its shared
+ * {@link StateAnimation}, so cloning a {@link State} is cheap.
+ * 
  * @author Khyber Sen
  */
 @ExtensionMethod(ExtensionMethods.class)
 public class State implements Renderable, Debuggable, Cloneable {
     
-    private final String name;
+    public final StateAnimation animation;
     
     public Player player;
     public Action action;
-    public Vector2 position;
     
-    public Vector2 size;
+    /**
+     * its index in its {@link Player}'s {@link Transitions}, -1 until it's
+     * compiled into them
+     */
+    public int id = -1;
+    
+    public Vector2 position;
     
     public boolean resetJustCalled;
     private float elapsedTime;
-    private final Animation<TextureRegion> animationRight;
-    private final Animation<TextureRegion> animationLeft;
-    private final boolean alreadyFlipped = false;	//false for not yet right, true for not yet left
-    
-    public State(final String name,
-            final Animation<TextureRegion> animationRight) {
-        this.name = name;
-        this.animationRight = animationRight;
-        animationLeft = flipFrames(animationRight);
-        final TextureRegion firstFrame = animationRight.getKeyFrame(0);
-        final float maxSide = Math.max(firstFrame.getRegionWidth(), firstFrame.getRegionHeight());
-        size = new Vector2(maxSide, maxSide);
-    }
-    
-    private Animation<TextureRegion> flipFrames(final Animation<TextureRegion> right) {
-        final Array<TextureRegion> temp = new Array<>();
-        for (final Object r : right.getKeyFrames()) {
-            temp.add(new TextureRegion((TextureRegion) r));
-        }
-        
-        for (int x = 0; x < temp.size; x++) {
-            //temp[x].flip(true, false);
-            temp.get(x).flip(true, false);
-        }
-        
-        return new Animation<>(right.getFrameDuration(), temp, right.getPlayMode());
+    
+    public State(final StateAnimation animation) {
+        this.animation = animation;
+    }
+    
+    public State(final String name, final Animation<TextureRegion> animationRight) {
+        this(new StateAnimation(name, animationRight));
+    }
+    
+    /**
+     * Creates a headless {@link State} with no animations, only the size its
+     * first frame would have had.
+     */
+    public State(final String name, final int width, final int height) {
+        this(new StateAnimation(name, width, height));
     }
     
+    public boolean isHeadless() {
+        return animation.isHeadless();
+    }
+    
+    public float width() {
+        return animation.width;
+    }
+    
+    public float height() {
+        return animation.height;
+    }
+    
+    /**
+     * Shares the {@link #animation}, only copying the per-{@link Player}
+     * fields.
+     */
     @Override
     public State clone() {
-        final State clone = new State(name, animationRight);
+        final State clone = new State(animation);
         clone.player = player;
         clone.action = action;
         clone.position = position;
@@ -72,7 +86,7 @@ public class State implements Renderable, Debuggable, Cloneable {
     
     @Override
     public String toString() {
-        return name + " state @ " + position;
+        return animation.name + " state @ " + position;
     }
     
     public void resetTime() {
@@ -81,7 +95,7 @@ public class State implements Renderable, Debuggable, Cloneable {
     
     public void setPlayer(final Player player, final boolean resetTime) {
         this.player = player;
-        error(this + " set player to " + player);
+        error("{} set player to {}", this, player);
         position = player == null ? null : player.position;
         if (resetTime) {
             resetTime();
@@ -92,24 +106,52 @@ public class State implements Renderable, Debuggable, Cloneable {
         setPlayer(player, true);
     }
     
+    /**
+     * Advances the animation by one tick of the simulation.
+     */
+    public void update(final float deltaTime) {
+        elapsedTime += deltaTime;
+    }
+    
     @Override
     public void render(final Batch batch) {
-        final Animation<TextureRegion> animation = player.facingRight ? animationRight
-                : animationLeft;
-        elapsedTime += Game.deltaTime;
-        batch.draw(animation.getKeyFrame(elapsedTime), position.x, position.y);
+        batch.draw(animation.facing(player.facingRight).getKeyFrame(elapsedTime), position.x,
+                position.y);
     }
     
-    public Hitbox newHitbox(final Attack attack, final float width, final float height) {
-        return new Hitbox(player, attack, width, height);
+    /**
+     * Writes the per-{@link Player} fields, except for which {@link Player}
+     * it belongs to, only whether it belongs to one.
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        buffer.put((byte) ((player == null ? 0 : 1) | (resetJustCalled ? 2 : 0)));
+        buffer.putFloat(elapsedTime);
+    }
+    
+    /**
+     * @param owner the {@link Player} this {@link State} belonged to, if it
+     *            belonged to any
+     */
+    public void restore(final ByteBuffer buffer, final Player owner) {
+        final byte flags = buffer.get();
+        player = (flags & 1) == 0 ? null : owner;
+        position = player == null ? null : player.position;
+        resetJustCalled = (flags & 2) != 0;
+        elapsedTime = buffer.getFloat();
     }
     
-    public void addHitbox(final Hitbox hitbox) {
-        player.hitboxes.add(hitbox);
+    /**
+     * @return the index of the new hitbox in the {@link World#hitboxes}
+     */
+    public int addHitbox(final Attack attack, final float width, final float height) {
+        return player.world.hitboxes.add(player, attack, width, height);
     }
     
-    public void addHurtbox(final Hurtbox hurtbox) {
-        player.hurtboxes.add(hurtbox);
+    /**
+     * @return the index of the new hurtbox in the {@link World#hurtboxes}
+     */
+    public int addHurtbox(final float width, final float height, final float lifetime) {
+        return player.world.hurtboxes.add(player, width, height, lifetime);
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.github.kkysen.megamashbros.core;
+
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * The immutable part of a {@link State}: its name, its right and left facing
+ * {@link Animation}s, and its size. It's created once per character's state and
+ * shared by every {@link State} cloned from it, so the frames are only flipped
+ * once no matter how many {@link Player}s there are.
+ * 
+ * @author Khyber Sen
+ */
+public final class StateAnimation {
+    
+    public final String name;
+    
+    public final Animation<TextureRegion> right;
+    public final Animation<TextureRegion> left;
+    
+    /**
+     * the longer side of the first frame
+     */
+    public final float width;
+    public final float height;
+    
+    private StateAnimation(final String name, final Animation<TextureRegion> right,
+            final Animation<TextureRegion> left, final int width, final int height) {
+        this.name = name;
+        this.right = right;
+        this.left = left;
+        final float maxSide = Math.max(width, height);
+        this.width = maxSide;
+        this.height = maxSide;
+    }
+    
+    public StateAnimation(final String name, final Animation<TextureRegion> right) {
+        this(name, right, flipFrames(right), right.getKeyFrame(0).getRegionWidth(),
+                right.getKeyFrame(0).getRegionHeight());
+    }
+    
+    /**
+     * Creates a headless {@link StateAnimation} with no animations, only the
+     * size its first frame would have had.
+     */
+    public StateAnimation(final String name, final int width, final int height) {
+        this(name, null, null, width, height);
+    }
+    
+    public boolean isHeadless() {
+        return right == null;
+    }
+    
+    private static Animation<TextureRegion> flipFrames(final Animation<TextureRegion> right) {
+        final Array<TextureRegion> temp = new Array<>();
+        for (final Object r : right.getKeyFrames()) {
+            temp.add(new TextureRegion((TextureRegion) r));
+        }
+        
+        for (int x = 0; x < temp.size; x++) {
+            //temp[x].flip(true, false);
+            temp.get(x).flip(true, false);
+        }
+        
+        return new Animation<>(right.getFrameDuration(), temp, right.getPlayMode());
+    }
+    
+    public Animation<TextureRegion> facing(final boolean right) {
+        return right ? this.right : left;
+    }
+    
+}
@@ -0,0 +1,244 @@
+package com.github.kkysen.megamashbros.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.badlogic.gdx.utils.Array;
+import com.github.kkysen.libgdx.util.Debuggable;
+import com.github.kkysen.libgdx.util.Histogram;
+
+/**
+ * Times each {@link Phase} of every tick of a {@link World} into a
+ * {@link Histogram}, so tick spikes can be traced to the phase that caused
+ * them.
+ * <br>
+ * The phases are timed by {@link #lap(Phase)}, which charges the time since the
+ * previous lap to the given {@link Phase}, so there's only one
+ * {@link System#nanoTime()} per phase boundary. The laps of all the
+ * {@link Player}s in a tick are summed and recorded once per tick. When the
+ * {@link Player}s are computed in parallel, each thread laps its own in a
+ * {@link #newWorker()}, and those are summed into the tick too, so their
+ * phases can add up to more than the time the tick took.
+ * <br>
+ * It's disabled until {@link #enable()}d, and then every
+ * {@link #exportInterval} ticks, the percentiles of the last interval are
+ * appended to the {@link #exportFile} as one line of JSON by a background
+ * thread, and the histograms are reset.
+ * 
+ * @author Khyber Sen
+ */
+public class TickMetrics implements Debuggable {
+    
+    public enum Phase {
+        
+        INPUT,
+        AI,
+        BOXES,
+        COLLISION,
+        PLATFORM,
+        EXECUTABLES,
+        MOVE,
+        RENDER,
+        TICK,
+        
+        ;
+        
+        private static final Phase[] values = values();
+        
+    }
+    
+    /**
+     * every 10 seconds of game time
+     */
+    public static final int DEFAULT_EXPORT_INTERVAL = 10 * World.DEFAULT_TICK_RATE;
+    
+    private static final ExecutorService exporter = Executors.newSingleThreadExecutor(runnable -> {
+        final Thread thread = new Thread(runnable, "metrics exporter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final World world;
+    
+    private boolean enabled = false;
+    
+    private final Histogram[] histograms = new Histogram[Phase.values.length];
+    private final long[] tickNanos = new long[Phase.values.length];
+    
+    private long tickStart;
+    private long lapStart;
+    
+    private Path exportFile;
+    private int exportInterval;
+    private int ticksSinceExport = 0;
+    
+    public TickMetrics(final World world) {
+        this.world = world;
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void enable() {
+        if (histograms[0] == null) {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new Histogram();
+            }
+        }
+        enabled = true;
+    }
+    
+    public void disable() {
+        enabled = false;
+    }
+    
+    /**
+     * Enables the metrics and appends them to the file every interval.
+     * 
+     * @param interval the number of ticks between each export
+     */
+    public void export(final Path file, final int interval) {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be positive: " + interval);
+        }
+        exportFile = file;
+        exportInterval = interval;
+        enable();
+    }
+    
+    /**
+     * @return a {@link TickMetrics} that only laps, for one thread computing
+     *         {@link Player}s in parallel, to be {@link #mergeLaps(Array)}d
+     *         into this one afterwards
+     */
+    TickMetrics newWorker() {
+        return new TickMetrics(world);
+    }
+    
+    /**
+     * Starts lapping on the worker from now, if this is enabled. Called on
+     * the worker's thread.
+     */
+    void startLaps(final TickMetrics worker) {
+        worker.enabled = enabled;
+        worker.lapStart = System.nanoTime();
+    }
+    
+    /**
+     * Adds the laps of the workers to this tick instead of the time since the
+     * last lap, which was spent waiting for them, and clears them.
+     */
+    void mergeLaps(final Array<TickMetrics> workers) {
+        if (!enabled) {
+            return;
+        }
+        for (int j = 0; j < workers.size; j++) {
+            final TickMetrics worker = workers.get(j);
+            for (int i = 0; i < tickNanos.length; i++) {
+                tickNanos[i] += worker.tickNanos[i];
+                worker.tickNanos[i] = 0;
+            }
+        }
+        lapStart = System.nanoTime();
+    }
+    
+    public Histogram histogram(final Phase phase) {
+        return histograms[phase.ordinal()];
+    }
+    
+    public void startTick() {
+        if (!enabled) {
+            return;
+        }
+        tickStart = lapStart = System.nanoTime();
+    }
+    
+    /**
+     * Charges the time since the last lap to the phase.
+     */
+    public void lap(final Phase phase) {
+        if (!enabled) {
+            return;
+        }
+        final long now = System.nanoTime();
+        tickNanos[phase.ordinal()] += now - lapStart;
+        lapStart = now;
+    }
+    
+    /**
+     * Records the time of each phase in this tick, and exports them if it's
+     * time to.
+     */
+    public void endTick() {
+        if (!enabled) {
+            return;
+        }
+        tickNanos[Phase.TICK.ordinal()] = System.nanoTime() - tickStart;
+        for (final Phase phase : Phase.values) {
+            if (phase == Phase.RENDER) {
+                continue; // recorded per frame instead
+            }
+            histograms[phase.ordinal()].record(tickNanos[phase.ordinal()]);
+            tickNanos[phase.ordinal()] = 0;
+        }
+        if (exportFile != null && ++ticksSinceExport >= exportInterval) {
+            ticksSinceExport = 0;
+            export();
+        }
+    }
+    
+    public void record(final Phase phase, final long nanos) {
+        if (!enabled) {
+            return;
+        }
+        histograms[phase.ordinal()].record(nanos);
+    }
+    
+    /**
+     * @return the percentiles of every phase as one line of JSON, in
+     *         nanoseconds
+     */
+    public String toJson() {
+        final StringBuilder sb = new StringBuilder(128 * histograms.length);
+        sb.append("{\"tick\":").append(world.context.tick);
+        sb.append(",\"time\":").append(System.currentTimeMillis());
+        for (final Phase phase : Phase.values) {
+            final Histogram histogram = histograms[phase.ordinal()];
+            sb.append(",\"").append(phase).append("\":{");
+            sb.append("\"count\":").append(histogram.count());
+            sb.append(",\"mean\":").append((long) histogram.mean());
+            sb.append(",\"p50\":").append(histogram.percentile(50));
+            sb.append(",\"p99\":").append(histogram.percentile(99));
+            sb.append(",\"max\":").append(histogram.max());
+            sb.append('}');
+        }
+        return sb.append('}').toString();
+    }
+    
+    private void export() {
+        final String json = toJson();
+        for (final Histogram histogram : histograms) {
+            histogram.reset();
+        }
+        final Path file = exportFile;
+        exporter.execute(() -> {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                writer.write(json);
+                writer.newLine();
+            } catch (final IOException e) {
+                error("couldn't export metrics to {}: {}", file, e);
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+    
+}
@@ -0,0 +1,122 @@
+package com.github.kkysen.megamashbros.core;
+
+import com.github.kkysen.megamashbros.actions.Action;
+import com.github.kkysen.megamashbros.actions.Attack;
+import com.github.kkysen.megamashbros.actions.Executable;
+import com.github.kkysen.megamashbros.actions.GroundAttack;
+import com.github.kkysen.megamashbros.actions.Move;
+import com.github.kkysen.megamashbros.actions.Stop;
+
+/**
+ * A {@link Player}'s {@link Executable}s compiled into tables indexed by the
+ * {@link State#id} it's in, when it's created, so every tick it can look up
+ * which {@link Executable}s can be done from its {@link State} and what kind
+ * of {@link Action} it's doing in O(1), instead of scanning each
+ * {@link Action}'s impossible pre-states and checking what class it is.
+ * <br>
+ * Executable i's {@link Action}'s {@link State} gets id i + 1, and the spawn
+ * {@link State} gets id 0.
+ * 
+ * @author Khyber Sen
+ */
+final class Transitions {
+    
+    static final byte MOVE = 1;
+    static final byte ATTACK = 2;
+    static final byte GROUND_ATTACK = 4;
+    
+    /**
+     * by {@link State#id}, the executables, by bit, that can be executed from
+     * that {@link State}
+     */
+    final long[] possible;
+    
+    /**
+     * by {@link State#id}, the kind of {@link Action} a {@link Player} in that
+     * {@link State} is doing, or for executable i, the kind it is at i + 1
+     */
+    final byte[] kinds;
+    
+    /**
+     * the executables, by bit, that are {@link Move}s
+     */
+    final long moves;
+    
+    /**
+     * the index of the {@link Stop}, which every {@link Player} must have
+     */
+    final int stop;
+    
+    private static byte kind(final Executable executable) {
+        byte kind = 0;
+        if (executable instanceof Move) {
+            kind |= MOVE;
+        }
+        if (executable instanceof Attack) {
+            kind |= ATTACK;
+        }
+        if (executable instanceof GroundAttack) {
+            kind |= GROUND_ATTACK;
+        }
+        return kind;
+    }
+    
+    /**
+     * Also sets the {@link State#id}s of spawnState and the executables'
+     * {@link Action}s' {@link State}s.
+     */
+    Transitions(final State spawnState, final Executable[] executables) {
+        if (executables.length > Long.SIZE) {
+            throw new IllegalArgumentException("there can be at most " + Long.SIZE
+                    + " executables, not " + executables.length);
+        }
+        final State[] states = new State[executables.length + 1];
+        states[0] = spawnState;
+        kinds = new byte[states.length];
+        long moves = 0;
+        int stop = -1;
+        for (int i = 0; i < executables.length; i++) {
+            final Executable executable = executables[i];
+            if (executable instanceof Action) {
+                states[i + 1] = ((Action) executable).getState();
+            }
+            kinds[i + 1] = kind(executable);
+            if ((kinds[i + 1] & MOVE) != 0) {
+                moves |= 1L << i;
+            }
+            if (stop == -1 && executable instanceof Stop) {
+                stop = i;
+            }
+        }
+        if (stop == -1) {
+            throw new IllegalArgumentException("one executable must be a Stop");
+        }
+        this.moves = moves;
+        this.stop = stop;
+        
+        possible = new long[states.length];
+        for (int id = 0; id < states.length; id++) {
+            final State state = states[id];
+            if (state == null) {
+                continue; // not an Action, so a Player can't be in its State
+            }
+            state.id = id;
+            for (int i = 0; i < executables.length; i++) {
+                final Executable executable = executables[i];
+                if (!(executable instanceof Action)
+                        || !((Action) executable).isImpossiblePreState(state)) {
+                    possible[id] |= 1L << i;
+                }
+            }
+        }
+    }
+    
+    boolean isPossible(final State state, final int executable) {
+        return (possible[state.id] & 1L << executable) != 0;
+    }
+    
+    boolean is(final State state, final byte kind) {
+        return (kinds[state.id] & kind) != 0;
+    }
+    
+}
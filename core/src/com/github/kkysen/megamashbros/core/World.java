@@ -1,5 +1,7 @@
 package com.github.kkysen.megamashbros.core;
 
+import java.nio.ByteBuffer;
+
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.Batch;
@@ -7,15 +9,23 @@ import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
 import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.RandomXS128;
 import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.badlogic.gdx.utils.IntArray;
 import com.github.kkysen.libgdx.util.Debuggable;
 import com.github.kkysen.libgdx.util.ExtensionMethods;
 import com.github.kkysen.libgdx.util.Renderable;
 import com.github.kkysen.libgdx.util.keys.KeyBinding;
 import com.github.kkysen.libgdx.util.keys.User;
 import com.github.kkysen.megamashbros.ai.AI;
+import com.github.kkysen.megamashbros.ai.DecisionPhase;
+import com.github.kkysen.megamashbros.core.TickMetrics.Phase;
+import com.github.kkysen.megamashbros.replay.InputRecorder;
+import com.github.kkysen.megamashbros.replay.InputReplay;
+import com.github.kkysen.megamashbros.spectate.SpectatorStream;
 
 import lombok.Getter;
 import lombok.experimental.ExtensionMethod;
@@ -25,10 +35,27 @@ import lombok.experimental.ExtensionMethod;
  * contains a {@link #background} {@link Texture} and a single rectangular
  * {@link #platform}. It also has an {@link Array}&lt;{@link Player}&gt; for all
  * the {@link #players}, although I assume it will normally just be two
- * {@link #players}. When the {@link World} is rendered, it loops through all
- * the {@link #players}, updating them, checking if anyone won the game yet,
- * checking if anyone died by falling off, checking if they hit the
- * {@link #platform}, and then rendering the {@link #players} themselves.
+ * {@link #players}. Every {@link #step()} of the {@link World}, it loops
+ * through all the {@link #players}, updating them, checking if anyone won the
+ * game yet, checking if anyone died by falling off, and checking if they hit
+ * the {@link #platform}. When the {@link World} is rendered, it only renders
+ * the {@link #players} themselves.
+ * <br>
+ * The {@link #players} are updated in two phases: the {@link #computes} phase
+ * computes what they all do at once, and then each is applied in order, so
+ * the result doesn't depend on which is computed first.
+ * <br>
+ * The {@link World} is stepped at a fixed tick rate, independent of the frame
+ * rate. Each frame, {@link #update(float)} adds the frame's time to an
+ * accumulator and runs as many fixed time steps as fit into it, so a slow
+ * frame results in more ticks rather than one huge integration step. The
+ * clock, like all the other per-{@link World} simulation state, is kept in the
+ * {@link #context}.
+ * <br>
+ * Everything that changes during the game can be copied into a
+ * {@link ByteBuffer} by {@link #snapshot(ByteBuffer)} and copied back by
+ * {@link #restore(ByteBuffer)}, without allocating anything, for save states,
+ * rollbacks and searching AIs.
  * 
  * @author Khyber Sen
  */
@@ -42,42 +69,207 @@ public class World implements Renderable, Disposable, Debuggable {
     public final Rectangle bounds;
     public final Platform platform;
     
+    public final Hitboxes hitboxes = new Hitboxes(this);
+    public final Hurtboxes hurtboxes = new Hurtboxes(this);
+    public final Broadphase broadphase;
+    
+    /**
+     * where everything was at the start of the {@link Player} updates, shared
+     * by all the AIs
+     */
+    public final WorldQuery query;
+    
+    /**
+     * runs all the {@link AI}s in parallel against the {@link #query}
+     */
+    public final DecisionPhase decisions = new DecisionPhase();
+    public final ComputePhase computes = new ComputePhase();
+    public final Scheduler scheduler = new Scheduler(this);
+    public final TickMetrics metrics = new TickMetrics(this);
+    
+    /**
+     * records the inputs of every tick, if not null
+     */
+    public InputRecorder recorder;
+    
+    /**
+     * replays recorded inputs every tick, if not null
+     */
+    public InputReplay replay;
+    
+    /**
+     * captures what spectators see every tick, if not null
+     */
+    public SpectatorStream spectators;
+    
+    /**
+     * the {@link User} at this machine's keyboard, whose key events are
+     * drained before each tick and who can pause and resume this
+     * {@link World}, or null if it isn't played from the keyboard, like
+     * hosted, forked and batch-run {@link World}s
+     */
+    public User user;
+    
     public final float gravity = -500; // FIXME
     
+    public static final int DEFAULT_TICK_RATE = 60;
+    
+    /**
+     * the most frame time that will be simulated in one {@link #update(float)},
+     * so that one long frame can't cause a spiral of death
+     */
+    private static final float MAX_FRAME_TIME = 0.25f;
+    
+    public final SimulationContext context;
+    
+    /**
+     * the {@link World} this was {@link #fork()}ed from, or null
+     */
+    private World original;
+    
+    /**
+     * what each of the {@link #original}'s {@link Scheduler.Task}s are forked
+     * into, so that its {@link #scheduler} and {@link #hitboxes} ids can be
+     * translated into this one's
+     */
+    private IdentityMap<Scheduler.Task, Scheduler.Task> forks;
+    
+    private float accumulator = 0;
+    
     private final Array<Player> players = new Array<>(Player.class);
     
+    /**
+     * every {@link Player} added, even if dead, indexed by {@link Player#id}
+     */
+    private final Array<Player> playersById = new Array<>(Player.class);
+    
     public boolean gameOver = false;
     
+    /**
+     * the {@link Player} with the most lives when the game ended, or null if
+     * nobody won
+     */
+    private @Getter Player winner;
+    
     private @Getter boolean paused = false;
     
-    public World(final int width, final int height, final Texture background,
-            final Sprite platformSprite,
-            final Player... players) {
+    private World(final int width, final int height, final TextureRegion background,
+            final Platform platform, final long seed, final Player... players) {
         this.width = width;
         this.height = height;
-        this.background = new TextureRegion(background, 0, 0, width, height);
+        this.background = background;
         bounds = new Rectangle(0, 0, width, height);
-        platformSprite.setSize(width * 0.75f, height * 0.1f);
-        platformSprite.setCenter(width * 0.5f, height * 0.25f);
-        platform = new Platform(platformSprite);
+        this.platform = platform;
+        broadphase = new Broadphase(hitboxes, bounds);
+        query = new WorldQuery(this);
+        context = new SimulationContext(DEFAULT_TICK_RATE, seed);
         addPlayers(players);
     }
     
+    public World(final int width, final int height, final Texture background,
+            final Sprite platformSprite,
+            final Player... players) {
+        this(width, height, new TextureRegion(background, 0, 0, width, height),
+                newPlatform(platformSprite, width, height), MathUtils.random.nextLong(),
+                players);
+    }
+    
+    /**
+     * Creates a headless {@link World} without a background or any
+     * {@link Texture}s, so it can be simulated without a GL context.
+     * 
+     * @param seed the seed of the {@link SimulationContext#random}, so the
+     *            same seed and inputs result in the same game
+     */
+    public World(final int width, final int height, final long seed,
+            final Player... players) {
+        this(width, height, null, new Platform(platformBounds(width, height)), seed, players);
+    }
+    
+    public World(final int width, final int height, final Player... players) {
+        this(width, height, MathUtils.random.nextLong(), players);
+    }
+    
+    private static Rectangle platformBounds(final int width, final int height) {
+        final float platformWidth = width * 0.75f;
+        final float platformHeight = height * 0.1f;
+        return new Rectangle(width * 0.5f - platformWidth * 0.5f,
+                height * 0.25f - platformHeight * 0.5f, platformWidth, platformHeight);
+    }
+    
+    private static Platform newPlatform(final Sprite sprite, final int width,
+            final int height) {
+        final Rectangle bounds = platformBounds(width, height);
+        sprite.setBounds(bounds.x, bounds.y, bounds.width, bounds.height);
+        return new Platform(sprite);
+    }
+    
+    public boolean isHeadless() {
+        return background == null;
+    }
+    
     public void addPlayers(final Player[] players) {
         this.players.addAll(players);
+        final RandomXS128 random = context.random;
         for (final Player player : players) {
             player.world = this;
-            player.position.x = MathUtils.random(platform.leftMargin, platform.rightMargin);
-            player.position.y = platform.top + MathUtils.random(10f);
+            player.id = context.nextId();
+            player.position.x = platform.leftMargin
+                    + random.nextFloat() * (platform.rightMargin - platform.leftMargin);
+            player.position.y = platform.top + random.nextFloat() * 10f;
+            playersById.add(player);
+            hurtboxes.add(player);
+            if (player.isAI()) {
+                ((AI) player.controller).seed(context.seed + player.id);
+            }
+        }
+    }
+    
+    public Player player(final int id) {
+        return playersById.get(id);
+    }
+    
+    /**
+     * Creates a headless copy of this {@link World} with a fork of every
+     * {@link Player} and its {@link Player#controller}, so that it can
+     * {@link #restore(ByteBuffer)} this {@link World}'s snapshots and be played
+     * ahead without changing this one. Only the {@link Player}s are copied,
+     * so it must restore a snapshot before it's stepped, and it can only
+     * restore snapshots of this {@link World}, not its own.
+     */
+    public World fork() {
+        final Player[] forks = new Player[playersById.size];
+        for (int id = 0; id < forks.length; id++) {
+            final Player player = playersById.get(id);
+            forks[id] = player.fork(player.controller.fork());
+        }
+        final World fork = new World(width, height, null, platform, context.seed, forks);
+        fork.original = this;
+        fork.forks = new IdentityMap<>();
+        for (int id = 0; id < forks.length; id++) {
+            playersById.get(id).mapForks(forks[id], fork.forks);
         }
+        fork.context.setTickRate(context.getTickRate());
+        fork.context.speed = context.speed;
+        // it's most likely already being played ahead on a worker thread
+        fork.decisions.pool = null;
+        fork.computes.pool = null;
+        return fork;
     }
     
     public void removePlayers() {
         players.clear();
+        playersById.clear();
+        hitboxes.clear();
+        hurtboxes.clear();
+        broadphase.clear();
+        scheduler.clear();
+        context.resetIds();
     }
     
     public void replacePlayers(final Player[] players) {
         removePlayers();
+        winner = null;
         addPlayers(players);
     }
     
@@ -96,7 +288,6 @@ public class World implements Renderable, Disposable, Debuggable {
         return numAlive < 2;
     }
     
-    @Override
     public void pause() {
         paused = true;
     }
@@ -105,38 +296,77 @@ public class World implements Renderable, Disposable, Debuggable {
         paused = false;
     }
     
-    private void updatePlayers(final Batch batch) {
-        if (KeyBinding.PAUSE.isPressed(User.get())) {
-            paused = true;
+    /**
+     * Checks every hurtbox against the enemy hitboxes the {@link #broadphase}
+     * finds near it, and hits the hurtbox's {@link Player} with any that
+     * overlap. It's only public so that it can be benchmarked on its own.
+     */
+    public void collide() {
+        broadphase.rebuild();
+        for (int i = 0; i < hurtboxes.size; i++) {
+            final IntArray candidates = broadphase.candidates(hurtboxes, i);
+            final int[] items = candidates.items;
+            for (int j = 0; j < candidates.size; j++) {
+                final int hitbox = items[j];
+                final float damage = hurtboxes.collide(i, hitboxes, hitbox);
+                if (damage != 0) {
+                    hurtboxes.player(i).takeHit(hitboxes, hitbox, damage);
+                }
+            }
         }
-        if (KeyBinding.RESUME.isPressed(User.get())) {
-            paused = false;
+    }
+    
+    private void updatePlayers() {
+        if (user != null) {
+            if (KeyBinding.PAUSE.isPressed(user)) {
+                paused = true;
+            }
+            if (KeyBinding.RESUME.isPressed(user)) {
+                paused = false;
+            }
         }
         if (paused) {
             return; // don't update players if paused
         }
+        if (replay != null) {
+            replay.replay(this);
+        }
+        scheduler.advance();
+        metrics.lap(Phase.EXECUTABLES);
+        hitboxes.update();
+        hurtboxes.update();
+        metrics.lap(Phase.BOXES);
+        collide();
+        metrics.lap(Phase.COLLISION);
+        query.build(players);
+        decisions.decide(players, query);
+        metrics.lap(Phase.AI);
+        computes.compute(players, metrics);
+        // applied in order, so the hitboxes and tasks they add are too
+        int numLeft = 0;
         for (int i = 0; i < players.size; i++) {
-            final Player player = players.removeIndex(i);
-            log("updating " + player);
-            if (player.isAI()) {
-                ((AI) player.controller).makeDecisions(player, players);
-            }
-            player.update(players);
+            final Player player = players.get(i);
+            player.apply();
             
             // FIXME check this game logic
             if (!player.isCompletelyDead()) {
-                players.add(player);
-                players.swap(i, players.size - 1);
+                players.set(numLeft++, player);
                 if (!player.isAlive()) {
                     player.lives--;
-                    player.reSpawn(batch);
+                    player.reSpawn();
                 }
             } else {
-                log(player + " has been killed");
-                // already removed from array
+                log("{} has been killed", player);
                 player.kill();
             }
         }
+        players.truncate(numLeft);
+        if (recorder != null) {
+            recorder.record();
+        }
+        if (spectators != null) {
+            spectators.update();
+        }
     }
     
     private void renderPlayers(final Batch batch) {
@@ -145,15 +375,44 @@ public class World implements Renderable, Disposable, Debuggable {
         }
     }
     
-    @Override
-    public void render(final Batch batch) {
-        log("rendering background and platform");
-        batch.draw(background, 0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
-        platform.render(batch);
+    /**
+     * Advances the simulation by as many fixed time steps as fit into the
+     * accumulated frame time, sped up by {@link SimulationContext#speed}.
+     * <br>
+     * Before each tick, the {@link #user}'s key events up to the real time that
+     * tick catches up to are applied, so the ticks run to catch up after a
+     * slow frame each get the keys pressed during their own part of it.
+     * 
+     * @param frameTime the real time in seconds since the last frame
+     * @return the number of ticks simulated
+     */
+    public int update(final float frameTime) {
+        final long now = System.nanoTime();
+        accumulator += Math.min(frameTime, MAX_FRAME_TIME) * context.speed;
+        final float timeStep = context.deltaTime;
+        int numTicks = 0;
+        while (accumulator >= timeStep) {
+            accumulator -= timeStep;
+            // the time left in the accumulator hasn't been simulated yet
+            if (user != null) {
+                user.drain(now - (long) (accumulator / context.speed * 1e9));
+            }
+            step();
+            numTicks++;
+        }
+        return numTicks;
+    }
+    
+    /**
+     * Simulates exactly one tick of {@link SimulationContext#deltaTime} seconds.
+     */
+    public void step() {
         if (gameOver) {
             return;
         }
-        log("rendering " + this + " with " + players.size + " players");
+        if (isLogging()) {
+            log("stepping " + this + " with " + players.size + " players");
+        }
         if (players.size == 0) {
             log("nobody won");
             finishGame();
@@ -161,20 +420,95 @@ public class World implements Renderable, Disposable, Debuggable {
         }
         if (someoneWon()) {
             players.sort((x, y) -> y.lives - x.lives);  //want greatest lives first
-            log(players.get(0) + " has won");
+            final Player first = players.get(0);
+            winner = first.lives > 0 ? first : null;
+            log("{} has won", first);
             // TODO other stuff should be done here eventually
             finishGame();
             return;
         }
-        updatePlayers(batch);
+        metrics.startTick();
+        updatePlayers();
+        context.tick();
+        metrics.endTick();
+    }
+    
+    @Override
+    public void render(final Batch batch) {
+        final long start = metrics.isEnabled() ? System.nanoTime() : 0;
+        log("rendering background and platform");
+        if (background != null) {
+            batch.draw(background, 0, 0, Gdx.graphics.getWidth(), Gdx.graphics.getHeight());
+        }
+        platform.render(batch);
         renderPlayers(batch);
+        if (start != 0) {
+            metrics.record(Phase.RENDER, System.nanoTime() - start);
+        }
     }
     
     @Override
     public void render(final ShapeRenderer lineRenderer) {
-        for (final Player player : players) {
-            player.render(lineRenderer);
+        hitboxes.render(lineRenderer);
+        hurtboxes.render(lineRenderer);
+    }
+    
+    /**
+     * Writes everything about the game that changes as it's played, which
+     * takes a few KB for a normal game. Nothing is allocated, but a
+     * {@link java.nio.BufferOverflowException} is thrown if it doesn't fit.
+     */
+    public void snapshot(final ByteBuffer buffer) {
+        buffer.putInt(playersById.size);
+        context.snapshot(buffer);
+        buffer.putFloat(accumulator);
+        buffer.put((byte) ((gameOver ? 1 : 0) | (paused ? 2 : 0)));
+        buffer.putInt(winner == null ? -1 : winner.id);
+        buffer.putInt(players.size);
+        for (int i = 0; i < players.size; i++) {
+            buffer.putInt(players.get(i).id);
         }
+        for (int id = 0; id < playersById.size; id++) {
+            playersById.get(id).snapshot(buffer);
+        }
+        hitboxes.snapshot(buffer);
+        hurtboxes.snapshot(buffer);
+        scheduler.snapshot(buffer);
+    }
+    
+    /**
+     * Restores a snapshot of this same {@link World}, with the same
+     * {@link Player}s, taken by {@link #snapshot(ByteBuffer)} at any point in
+     * the game. Nothing is allocated unless there are more boxes or scheduled
+     * tasks than there have ever been room for.
+     */
+    public void restore(final ByteBuffer buffer) {
+        final int numPlayers = buffer.getInt();
+        if (numPlayers != playersById.size) {
+            throw new IllegalArgumentException("the snapshot has " + numPlayers
+                    + " players, but there are " + playersById.size);
+        }
+        if (original != null) {
+            hitboxes.registerForks(original.hitboxes, forks);
+            scheduler.registerForks(original.scheduler, forks);
+        }
+        context.restore(buffer);
+        accumulator = buffer.getFloat();
+        final byte flags = buffer.get();
+        gameOver = (flags & 1) != 0;
+        paused = (flags & 2) != 0;
+        final int winnerId = buffer.getInt();
+        winner = winnerId == -1 ? null : playersById.get(winnerId);
+        players.clear();
+        for (int i = buffer.getInt(); i > 0; i--) {
+            players.add(playersById.get(buffer.getInt()));
+        }
+        for (int id = 0; id < playersById.size; id++) {
+            playersById.get(id).restore(buffer);
+        }
+        hitboxes.restore(buffer);
+        hurtboxes.restore(buffer);
+        scheduler.restore(buffer);
     }
     
     private void finishGame() {
@@ -184,6 +518,9 @@ public class World implements Renderable, Disposable, Debuggable {
     
     @Override
     public void dispose() {
+        if (isHeadless()) {
+            return;
+        }
         Gdx.input.setInputProcessor(null);
         background.getTexture().dispose();
         platform.dispose();
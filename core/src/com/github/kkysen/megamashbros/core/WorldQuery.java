@@ -0,0 +1,310 @@
+package com.github.kkysen.megamashbros.core;
+
+import java.util.Arrays;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+
+/**
+ * A read-only view of a {@link World} built once a tick, right before the
+ * {@link Player}s are updated, that every AI can ask where the other
+ * {@link Player}s and the hitboxes are without redoing the same work. None of
+ * the queries allocate, and since it isn't changed until the next tick, it
+ * can be queried from many threads at once.
+ * 
+ * The live {@link Player}s are sorted by x, so the nearest ones are found by
+ * sweeping outwards until no closer one can be left, and the hitboxes are
+ * copied and sorted into a uniform grid by position, since their indices in
+ * the {@link World#hitboxes} change as the {@link Player}s are updated.
+ * 
+ * @author Khyber Sen
+ */
+public class WorldQuery {
+    
+    private final World world;
+    
+    private final float originX;
+    private final float originY;
+    private final float inverseCellSize;
+    private final int numCols;
+    private final int numRows;
+    private final IntArray[] cells;
+    
+    private int numPlayers = 0;
+    
+    /**
+     * the ids and positions of the live {@link Player}s, sorted by x
+     */
+    private int[] ids = new int[0];
+    private float[] px = new float[0];
+    private float[] py = new float[0];
+    
+    /**
+     * the index of each {@link Player} in {@link #ids} by id, or -1 if it's
+     * dead
+     */
+    private int[] indices = new int[0];
+    
+    private long[] sortKeys = new long[0];
+    
+    public int numHitboxes = 0;
+    public float[] x = new float[0];
+    public float[] y = new float[0];
+    public float[] vx = new float[0];
+    public float[] vy = new float[0];
+    public float[] ax = new float[0];
+    public float[] ay = new float[0];
+    public int[] owner = new int[0];
+    
+    private float maxSpeed = 0;
+    private float maxAcceleration = 0;
+    
+    public WorldQuery(final World world, final float cellSize) {
+        this.world = world;
+        originX = world.bounds.x;
+        originY = world.bounds.y;
+        inverseCellSize = 1 / cellSize;
+        numCols = Math.max(1, (int) Math.ceil(world.bounds.width * inverseCellSize));
+        numRows = Math.max(1, (int) Math.ceil(world.bounds.height * inverseCellSize));
+        cells = new IntArray[numCols * numRows];
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = new IntArray(false, 4);
+        }
+    }
+    
+    public WorldQuery(final World world) {
+        this(world, Broadphase.DEFAULT_CELL_SIZE);
+    }
+    
+    private int col(final float x) {
+        final int col = (int) ((x - originX) * inverseCellSize);
+        return col < 0 ? 0 : col >= numCols ? numCols - 1 : col;
+    }
+    
+    private int row(final float y) {
+        final int row = (int) ((y - originY) * inverseCellSize);
+        return row < 0 ? 0 : row >= numRows ? numRows - 1 : row;
+    }
+    
+    /**
+     * Captures the live {@link Player}s and the hitboxes as they are now.
+     */
+    void build(final Array<Player> players) {
+        buildPlayers(players);
+        buildHitboxes(world.hitboxes);
+    }
+    
+    private void buildPlayers(final Array<Player> players) {
+        final int numIds = world.context.numIds();
+        if (indices.length < numIds) {
+            indices = new int[numIds];
+        }
+        Arrays.fill(indices, -1);
+        numPlayers = players.size;
+        if (ids.length < numPlayers) {
+            ids = new int[numPlayers];
+            px = new float[numPlayers];
+            py = new float[numPlayers];
+            sortKeys = new long[numPlayers];
+        }
+        // sort by x without boxing by packing the x and the index into a long
+        for (int i = 0; i < numPlayers; i++) {
+            final float x = players.get(i).position.x;
+            final int bits = Float.floatToIntBits(x);
+            final int sortable = bits < 0 ? ~bits : bits | Integer.MIN_VALUE;
+            sortKeys[i] = (long) (sortable ^ Integer.MIN_VALUE) << 32 | i;
+        }
+        Arrays.sort(sortKeys, 0, numPlayers);
+        for (int i = 0; i < numPlayers; i++) {
+            final Player player = players.get((int) sortKeys[i]);
+            ids[i] = player.id;
+            px[i] = player.position.x;
+            py[i] = player.position.y;
+            indices[player.id] = i;
+        }
+    }
+    
+    private void buildHitboxes(final Hitboxes hitboxes) {
+        numHitboxes = hitboxes.size;
+        if (x.length < numHitboxes) {
+            final int capacity = Math.max(numHitboxes, x.length * 2);
+            x = new float[capacity];
+            y = new float[capacity];
+            vx = new float[capacity];
+            vy = new float[capacity];
+            ax = new float[capacity];
+            ay = new float[capacity];
+            owner = new int[capacity];
+        }
+        for (final IntArray cell : cells) {
+            cell.clear();
+        }
+        maxSpeed = 0;
+        maxAcceleration = 0;
+        if (numHitboxes == 0) {
+            return; // the columns aren't allocated until the first hitbox
+        }
+        System.arraycopy(hitboxes.x, 0, x, 0, numHitboxes);
+        System.arraycopy(hitboxes.y, 0, y, 0, numHitboxes);
+        System.arraycopy(hitboxes.vx, 0, vx, 0, numHitboxes);
+        System.arraycopy(hitboxes.vy, 0, vy, 0, numHitboxes);
+        System.arraycopy(hitboxes.ax, 0, ax, 0, numHitboxes);
+        System.arraycopy(hitboxes.ay, 0, ay, 0, numHitboxes);
+        System.arraycopy(hitboxes.owner, 0, owner, 0, numHitboxes);
+        float maxSpeed2 = 0;
+        float maxAcceleration2 = 0;
+        for (int i = 0; i < numHitboxes; i++) {
+            cells[row(y[i]) * numCols + col(x[i])].add(i);
+            maxSpeed2 = Math.max(maxSpeed2, vx[i] * vx[i] + vy[i] * vy[i]);
+            maxAcceleration2 = Math.max(maxAcceleration2, ax[i] * ax[i] + ay[i] * ay[i]);
+        }
+        maxSpeed = (float) Math.sqrt(maxSpeed2);
+        maxAcceleration = (float) Math.sqrt(maxAcceleration2);
+    }
+    
+    /**
+     * @return the number of live {@link Player}s
+     */
+    public int numPlayers() {
+        return numPlayers;
+    }
+    
+    /**
+     * Finds the k live {@link Player}s nearest to self, other than self.
+     * 
+     * @param ids filled with the ids of the nearest {@link Player}s, nearest
+     *            first
+     * @param distances filled with their distances from self
+     * @return the number found, at most k
+     */
+    public int nearestEnemies(final Player self, final int k, final int[] ids,
+            final float[] distances) {
+        final float sx = self.position.x;
+        final float sy = self.position.y;
+        final int index = indices[self.id];
+        int left;
+        int right;
+        if (index != -1) {
+            left = index - 1;
+            right = index + 1;
+        } else {
+            right = lowerBound(sx);
+            left = right - 1;
+        }
+        int count = 0;
+        while (left >= 0 || right < numPlayers) {
+            final float leftDx = left >= 0 ? sx - px[left] : Float.POSITIVE_INFINITY;
+            final float rightDx = right < numPlayers ? px[right] - sx : Float.POSITIVE_INFINITY;
+            final int i = leftDx <= rightDx ? left-- : right++;
+            if (count == k && Math.min(leftDx, rightDx) >= distances[k - 1]) {
+                break; // everyone further out is too far horizontally already
+            }
+            final float dx = px[i] - sx;
+            final float dy = py[i] - sy;
+            final float distance = (float) Math.sqrt(dx * dx + dy * dy);
+            if (count == k && distance >= distances[k - 1]) {
+                continue;
+            }
+            int j = count < k ? count++ : k - 1;
+            for (; j > 0 && distances[j - 1] > distance; j--) {
+                distances[j] = distances[j - 1];
+                ids[j] = ids[j - 1];
+            }
+            distances[j] = distance;
+            ids[j] = this.ids[i];
+        }
+        return count;
+    }
+    
+    /**
+     * @return the index of the first {@link Player} with an x of at least x
+     */
+    private int lowerBound(final float x) {
+        int low = 0;
+        int high = numPlayers;
+        while (low < high) {
+            final int mid = low + high >>> 1;
+            if (px[mid] < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+    
+    /**
+     * @return the id of the nearest live {@link Player} above or below self
+     *         and within dx of it horizontally, or -1 if there's nobody there
+     */
+    private int nearestVertically(final Player self, final float dx, final boolean above) {
+        final float sx = self.position.x;
+        final float sy = self.position.y;
+        int nearest = -1;
+        float nearestDy = Float.POSITIVE_INFINITY;
+        for (int i = lowerBound(sx - dx); i < numPlayers && px[i] <= sx + dx; i++) {
+            final float dy = above ? py[i] - sy : sy - py[i];
+            if (ids[i] != self.id && dy > 0 && dy < nearestDy) {
+                nearest = ids[i];
+                nearestDy = dy;
+            }
+        }
+        return nearest;
+    }
+    
+    /**
+     * @return the id of the nearest live {@link Player} above self and within
+     *         dx of it horizontally, or -1 if there's nobody there
+     */
+    public int playerAbove(final Player self, final float dx) {
+        return nearestVertically(self, dx, true);
+    }
+    
+    /**
+     * @return the id of the nearest live {@link Player} below self and within
+     *         dx of it horizontally, or -1 if there's nobody there
+     */
+    public int playerBelow(final Player self, final float dx) {
+        return nearestVertically(self, dx, false);
+    }
+    
+    /**
+     * @return the furthest any hitbox can move in the next dt seconds, for
+     *         widening a {@link #hitboxesWithin} query to where they'll be
+     */
+    public float maxHitboxTravel(final float dt) {
+        return dt * (maxSpeed + 0.5f * maxAcceleration * dt);
+    }
+    
+    /**
+     * Finds the hitboxes whose positions are within the radius of (x, y),
+     * other than those of the excluded owner.
+     * 
+     * @param result cleared and filled with the indices of the hitboxes in
+     *            this {@link WorldQuery}'s arrays
+     */
+    public void hitboxesWithin(final float x, final float y, final float radius,
+            final int excludedOwner, final IntArray result) {
+        result.clear();
+        final float radius2 = radius * radius;
+        final int minCol = col(x - radius);
+        final int maxCol = col(x + radius);
+        final int minRow = row(y - radius);
+        final int maxRow = row(y + radius);
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                final IntArray cell = cells[row * numCols + col];
+                final int[] hitboxes = cell.items;
+                for (int j = 0; j < cell.size; j++) {
+                    final int i = hitboxes[j];
+                    final float dx = this.x[i] - x;
+                    final float dy = this.y[i] - y;
+                    if (owner[i] != excludedOwner && dx * dx + dy * dy <= radius2) {
+                        result.add(i);
+                    }
+                }
+            }
+        }
+    }
+    
+}
@@ -0,0 +1,120 @@
+package com.github.kkysen.megamashbros.net;
+
+import java.nio.ByteBuffer;
+import java.util.PriorityQueue;
+import java.util.function.LongSupplier;
+
+import com.badlogic.gdx.math.RandomXS128;
+
+/**
+ * An in-process {@link Transport} for tests, connected to another
+ * {@link LoopbackTransport} created by
+ * {@link #pair(LongSupplier, long, long, float, long)}. It simulates the
+ * latency, jitter and packet loss of a real network, so jitter can also
+ * reorder packets. Time is measured by a clock in nanoseconds, which a test
+ * can advance by itself to be repeatable.
+ * 
+ * @author Khyber Sen
+ */
+public class LoopbackTransport implements Transport {
+    
+    private static class Packet implements Comparable<Packet> {
+        
+        private final long deliveryTime;
+        private final long order;
+        private final byte[] bytes;
+        
+        private Packet(final long deliveryTime, final long order, final byte[] bytes) {
+            this.deliveryTime = deliveryTime;
+            this.order = order;
+            this.bytes = bytes;
+        }
+        
+        @Override
+        public int compareTo(final Packet other) {
+            final int cmp = Long.compare(deliveryTime, other.deliveryTime);
+            return cmp != 0 ? cmp : Long.compare(order, other.order);
+        }
+        
+    }
+    
+    private final LongSupplier clock;
+    private final long latency;
+    private final long jitter;
+    private final float lossRate;
+    private final RandomXS128 random;
+    
+    private LoopbackTransport peer;
+    
+    private final PriorityQueue<Packet> inbox = new PriorityQueue<>();
+    private long numSent = 0;
+    
+    private LoopbackTransport(final LongSupplier clock, final long latency, final long jitter,
+            final float lossRate, final long seed) {
+        this.clock = clock;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.lossRate = lossRate;
+        random = new RandomXS128(seed);
+    }
+    
+    /**
+     * @param clock the current time in nanoseconds
+     * @param latency the time in nanoseconds every packet takes to arrive
+     * @param jitter the most extra time in nanoseconds a packet can take, chosen
+     *            at random
+     * @param lossRate the chance of any packet being lost
+     * @param seed the seed of the randomly lost and delayed packets
+     * @return the two ends of the connection
+     */
+    public static LoopbackTransport[] pair(final LongSupplier clock, final long latency,
+            final long jitter, final float lossRate, final long seed) {
+        final LoopbackTransport a = new LoopbackTransport(clock, latency, jitter, lossRate, seed);
+        final LoopbackTransport b = new LoopbackTransport(clock, latency, jitter, lossRate,
+                ~seed);
+        a.peer = b;
+        b.peer = a;
+        return new LoopbackTransport[] {a, b};
+    }
+    
+    /**
+     * @return two ends of a connection without any latency or loss, in real
+     *         time
+     */
+    public static LoopbackTransport[] pair() {
+        return pair(System::nanoTime, 0, 0, 0, 0);
+    }
+    
+    @Override
+    public void send(final ByteBuffer packet) {
+        final byte[] bytes = new byte[packet.remaining()];
+        packet.get(bytes);
+        final long deliveryTime;
+        synchronized (this) {
+            if (random.nextFloat() < lossRate) {
+                return;
+            }
+            deliveryTime = clock.getAsLong() + latency
+                    + (jitter == 0 ? 0 : (long) (random.nextDouble() * jitter));
+        }
+        peer.deliver(new Packet(deliveryTime, numSent++, bytes));
+    }
+    
+    private synchronized void deliver(final Packet packet) {
+        inbox.add(packet);
+    }
+    
+    @Override
+    public synchronized boolean receive(final ByteBuffer packet) {
+        final Packet next = inbox.peek();
+        if (next == null || next.deliveryTime > clock.getAsLong()) {
+            return false;
+        }
+        inbox.poll();
+        packet.clear();
+        packet.put(next.bytes);
+        packet.flip();
+        return true;
+    }
+    
+}
@@ -0,0 +1,16 @@
+package com.github.kkysen.megamashbros.net;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+
+/**
+ * A {@link Controller} whose keys are only ever set from the network, like
+ * by a {@link RollbackSession}, whether they're the local or the remote
+ * {@link com.github.kkysen.megamashbros.core.Player}'s, or by a match server.
+ * 
+ * @author Khyber Sen
+ */
+public class NetController extends Controller {
+    
+    public NetController() {}
+    
+}
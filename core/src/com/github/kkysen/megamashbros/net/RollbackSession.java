@@ -0,0 +1,330 @@
+package com.github.kkysen.megamashbros.net;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+import lombok.Getter;
+
+/**
+ * Peer-to-peer rollback netcode for a {@link World} shared by one local and
+ * one remote {@link Player}, both controlled by {@link NetController}s.
+ * 
+ * Every tick, the local input is sampled and sent to the peer, and the
+ * {@link World} is stepped right away with a prediction of the remote input:
+ * the last one that arrived. The state before each tick is kept in a ring of
+ * {@link World#snapshot(ByteBuffer)}s, so when a remote input arrives
+ * that differs from its prediction, the {@link World} is restored to that
+ * tick and every tick since is simulated again. Neither peer runs more than
+ * {@link #window} ticks ahead of the remote inputs it has, so a rollback
+ * re-simulates at most that many ticks in one frame.
+ * 
+ * Each packet holds every local input the peer hasn't acknowledged yet, so
+ * a lost packet is made up for by the next one:
+ * 
+ * <pre>
+ * int  the last tick of the receiver's inputs the sender has, without gaps
+ * int  the first tick of the sender's inputs in this packet
+ * byte the number of inputs
+ *      each input as {@link Controller#NUM_WORDS} longs of pressed keys
+ * </pre>
+ * 
+ * A packet whose length doesn't match its number of inputs is dropped like a
+ * lost one.
+ * 
+ * @author Khyber Sen
+ */
+public class RollbackSession {
+    
+    /**
+     * the most ticks a peer can run ahead of the remote inputs it has
+     */
+    public static final int MAX_WINDOW = 16;
+    
+    /**
+     * the number of ticks of inputs and snapshots kept, enough for both peers
+     * to be {@link #MAX_WINDOW} ticks ahead of each other
+     */
+    private static final int RING = 64;
+    private static final int MASK = RING - 1;
+    
+    private static final int NONE = Integer.MAX_VALUE;
+    
+    private static final int INPUT_SIZE = Controller.NUM_WORDS * Long.BYTES;
+    private static final int HEADER_SIZE = Integer.BYTES * 2 + Byte.BYTES;
+    
+    private static final float MAX_FRAME_TIME = 0.25f;
+    
+    private static final long[] NO_KEYS = new long[Controller.NUM_WORDS];
+    
+    public final World world;
+    private final Transport transport;
+    private final Controller input;
+    
+    private final Controller localController;
+    private final Controller remoteController;
+    
+    public final int window;
+    
+    private final long[][] localInputs = new long[RING][Controller.NUM_WORDS];
+    private final long[][] remoteInputs = new long[RING][Controller.NUM_WORDS];
+    
+    /**
+     * the remote inputs each tick was last simulated with, predicted or not
+     */
+    private final long[][] usedInputs = new long[RING][Controller.NUM_WORDS];
+    
+    private final ByteBuffer[] snapshots = new ByteBuffer[RING];
+    private int snapshotCapacity;
+    
+    private final ByteBuffer packet = ByteBuffer.allocateDirect(HEADER_SIZE + RING * INPUT_SIZE);
+    
+    /**
+     * the next tick to simulate
+     */
+    private @Getter int tick = 0;
+    
+    /**
+     * the last tick of remote inputs received without gaps
+     */
+    private int remoteConfirmed = -1;
+    
+    /**
+     * the last tick of local inputs the peer has received without gaps
+     */
+    private int localAcked = -1;
+    
+    /**
+     * the earliest tick that was mispredicted, or {@link #NONE}
+     */
+    private int rollbackTo = NONE;
+    
+    private float accumulator = 0;
+    
+    private @Getter int numRollbacks = 0;
+    private @Getter long numResimulatedTicks = 0;
+    private @Getter int maxRollback = 0;
+    private @Getter int numStalls = 0;
+    private @Getter int numDroppedPackets = 0;
+    
+    /**
+     * @param world a {@link World} that's only stepped by this
+     *            {@link RollbackSession}
+     * @param transport the connection to the peer
+     * @param input the {@link Controller} whose keys are the local input
+     * @param localId the id of the local {@link Player}
+     * @param remoteId the id of the remote {@link Player}
+     * @param window the most ticks to run ahead of the remote inputs, up to
+     *            {@link #MAX_WINDOW}
+     */
+    public RollbackSession(final World world, final Transport transport, final Controller input,
+            final int localId, final int remoteId, final int window) {
+        if (window < 1 || window > MAX_WINDOW) {
+            throw new IllegalArgumentException(
+                    "window must be between 1 and " + MAX_WINDOW + ": " + window);
+        }
+        if (world.context.tick != 0) {
+            throw new IllegalStateException("netplay must start from the first tick");
+        }
+        this.world = world;
+        this.transport = transport;
+        this.input = input;
+        localController = netController(world, localId);
+        remoteController = netController(world, remoteId);
+        this.window = window;
+        final ByteBuffer trial = ByteBuffer.allocate(1 << 20);
+        world.snapshot(trial);
+        snapshotCapacity = Integer.highestOneBit(trial.position()) << 2;
+    }
+    
+    private static Controller netController(final World world, final int id) {
+        final Controller controller = world.player(id).controller;
+        if (!(controller instanceof NetController)) {
+            throw new IllegalArgumentException(
+                    "Player " + id + " must be controlled by a NetController");
+        }
+        return controller;
+    }
+    
+    /**
+     * Advances by as many ticks as fit into the accumulated frame time, like
+     * {@link World#update(float)}.
+     * 
+     * @param frameTime the real time in seconds since the last frame
+     * @return the number of ticks advanced
+     */
+    public int update(final float frameTime) {
+        accumulator += Math.min(frameTime, MAX_FRAME_TIME) * world.context.speed;
+        final float timeStep = world.context.deltaTime;
+        int numTicks = 0;
+        while (accumulator >= timeStep) {
+            if (!advance()) {
+                // wait for the peer instead of falling further behind
+                accumulator = 0;
+                break;
+            }
+            accumulator -= timeStep;
+            numTicks++;
+        }
+        return numTicks;
+    }
+    
+    /**
+     * Receives the remote inputs that have arrived, rolls back if any were
+     * mispredicted, and then simulates the next tick with the current local
+     * input.
+     * 
+     * @return false if this is too far ahead of the remote inputs to simulate
+     *         another tick
+     */
+    public boolean advance() {
+        receive();
+        if (tick - remoteConfirmed > window) {
+            numStalls++;
+            send();
+            return false;
+        }
+        input.getPressedKeys(localInputs[tick & MASK]);
+        if (rollbackTo != NONE) {
+            rollback();
+        }
+        snapshot(tick);
+        simulate(tick);
+        tick++;
+        send();
+        return true;
+    }
+    
+    private void rollback() {
+        final int from = rollbackTo;
+        rollbackTo = NONE;
+        final ByteBuffer snapshot = snapshots[from & MASK];
+        snapshot.rewind();
+        world.restore(snapshot);
+        for (int t = from; t < tick; t++) {
+            if (t != from) {
+                snapshot(t);
+            }
+            simulate(t);
+        }
+        final int numTicks = tick - from;
+        numRollbacks++;
+        numResimulatedTicks += numTicks;
+        maxRollback = Math.max(maxRollback, numTicks);
+    }
+    
+    private void snapshot(final int tick) {
+        final int i = tick & MASK;
+        for (;;) {
+            if (snapshots[i] == null || snapshots[i].capacity() < snapshotCapacity) {
+                snapshots[i] = ByteBuffer.allocateDirect(snapshotCapacity)
+                        .order(ByteOrder.nativeOrder());
+            }
+            final ByteBuffer snapshot = snapshots[i];
+            snapshot.clear();
+            try {
+                world.snapshot(snapshot);
+                snapshot.flip();
+                return;
+            } catch (final BufferOverflowException e) {
+                snapshotCapacity <<= 1;
+            }
+        }
+    }
+    
+    private void simulate(final int tick) {
+        final long[] remote;
+        if (tick <= remoteConfirmed) {
+            remote = remoteInputs[tick & MASK];
+        } else if (remoteConfirmed >= 0) {
+            remote = remoteInputs[remoteConfirmed & MASK];
+        } else {
+            remote = NO_KEYS;
+        }
+        System.arraycopy(remote, 0, usedInputs[tick & MASK], 0, Controller.NUM_WORDS);
+        localController.setPressedKeys(localInputs[tick & MASK]);
+        remoteController.setPressedKeys(remote);
+        world.step();
+    }
+    
+    private void receive() {
+        while (transport.receive(packet)) {
+            if (!isWellFormed(packet)) {
+                numDroppedPackets++;
+                continue;
+            }
+            localAcked = Math.max(localAcked, packet.getInt());
+            final int first = packet.getInt();
+            final int numInputs = packet.get() & 0xFF;
+            for (int i = 0; i < numInputs; i++) {
+                final int tick = first + i;
+                if (tick != remoteConfirmed + 1) {
+                    packet.position(packet.position() + INPUT_SIZE);
+                    continue;
+                }
+                final long[] remote = remoteInputs[tick & MASK];
+                for (int word = 0; word < remote.length; word++) {
+                    remote[word] = packet.getLong();
+                }
+                remoteConfirmed = tick;
+                if (tick < this.tick && !Arrays.equals(remote, usedInputs[tick & MASK])) {
+                    rollbackTo = Math.min(rollbackTo, tick);
+                }
+            }
+        }
+    }
+    
+    private static boolean isWellFormed(final ByteBuffer packet) {
+        if (packet.remaining() < HEADER_SIZE) {
+            return false;
+        }
+        final int numInputs = packet.get(packet.position() + Integer.BYTES * 2) & 0xFF;
+        return packet.remaining() - HEADER_SIZE == numInputs * INPUT_SIZE;
+    }
+    
+    private void send() {
+        // the peer can't be further behind than this, even if its acks are lost
+        final int first = Math.max(localAcked + 1, tick - (MAX_WINDOW * 2 + 1));
+        final int numInputs = Math.max(0, tick - first);
+        packet.clear();
+        packet.putInt(remoteConfirmed);
+        packet.putInt(first);
+        packet.put((byte) numInputs);
+        for (int i = 0; i < numInputs; i++) {
+            for (final long word : localInputs[first + i & MASK]) {
+                packet.putLong(word);
+            }
+        }
+        packet.flip();
+        transport.send(packet);
+    }
+    
+    /**
+     * @return the first tick that may still be rolled back, so every tick
+     *         before it was simulated with the real inputs of both peers
+     */
+    public int confirmedTick() {
+        return Math.min(remoteConfirmed + 1, tick);
+    }
+    
+    /**
+     * Writes the {@link World}'s state from before {@link #confirmedTick()},
+     * which both peers agree on.
+     */
+    public void snapshotConfirmed(final ByteBuffer buffer) {
+        final int confirmed = confirmedTick();
+        if (confirmed == tick) {
+            world.snapshot(buffer);
+            return;
+        }
+        final ByteBuffer snapshot = snapshots[confirmed & MASK];
+        snapshot.rewind();
+        buffer.put(snapshot);
+    }
+    
+}
@@ -0,0 +1,30 @@
+package com.github.kkysen.megamashbros.net;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+/**
+ * An unreliable, non-blocking connection to one peer, like UDP. Packets may be
+ * lost, delayed or reordered, but are never corrupted or split.
+ * 
+ * @author Khyber Sen
+ */
+public interface Transport extends Closeable {
+    
+    /**
+     * Sends the remaining bytes of the packet, unless it's lost.
+     */
+    public void send(ByteBuffer packet);
+    
+    /**
+     * Copies the next received packet into the buffer, which is cleared first
+     * and flipped afterwards.
+     * 
+     * @return false if no packet has arrived yet
+     */
+    public boolean receive(ByteBuffer packet);
+    
+    @Override
+    public default void close() {}
+    
+}
@@ -0,0 +1,66 @@
+package com.github.kkysen.megamashbros.net;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+/**
+ * A {@link Transport} over a non-blocking UDP socket connected to one peer.
+ * 
+ * @author Khyber Sen
+ */
+public class UdpTransport implements Transport {
+    
+    private final DatagramChannel channel;
+    
+    public UdpTransport(final InetSocketAddress local, final InetSocketAddress remote) {
+        try {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.bind(local);
+            channel.connect(remote);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void send(final ByteBuffer packet) {
+        try {
+            channel.write(packet);
+        } catch (final PortUnreachableException e) {
+            // the peer isn't listening yet, so the packet is just lost
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public boolean receive(final ByteBuffer packet) {
+        packet.clear();
+        try {
+            if (channel.read(packet) <= 0) {
+                return false;
+            }
+        } catch (final PortUnreachableException e) {
+            return false;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        packet.flip();
+        return true;
+    }
+    
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+}
@@ -32,17 +32,26 @@ import com.github.kkysen.megamashbros.core.Player;
 import com.github.kkysen.megamashbros.core.State;
 
 /**
- * 
+ * When there is no GL context (see {@link Textures#isHeadless()}), the sprite
+ * sheet isn't loaded at all and every {@link State} is created headless, with
+ * only the size of its first frame.
  * 
  * @author Khyber Sen
  */
 public class Mario extends Player {
     
     private static final String NAME = Mario.class.getSimpleName();
-    private static final Texture SPRITES = new Texture(asset("sprites_transparent.png"));
+    
+    /**
+     * null when headless, in which case only the sizes of the frames are used
+     */
+    private static final Texture SPRITES = Textures.isHeadless() ? null
+            : new Texture(asset("sprites_transparent.png"));
     
     public static void dispose() {
-        SPRITES.dispose();
+        if (SPRITES != null) {
+            SPRITES.dispose();
+        }
     }
     
     private static State newState(final String name, final Animation<TextureRegion> animation) {
@@ -59,155 +68,137 @@ public class Mario extends Player {
         return newState(name, frameDuration, textureRegions, PlayMode.NORMAL);
     }
     
-    private static final State idleRight = newState("idleRight", 0.1f,
-            Textures.getFrames(
-                    SPRITES,
-                    6,
-                    16, 24, 27, 38),
-            PlayMode.LOOP_PINGPONG);
-    
-    private static Array<TextureRegion> temp;
-    static {
-        temp = Textures.getFrames(
-                SPRITES,
-                6,
-                16, 24, 27, 38);
-        temp.forEach((x) -> x.flip(true, false));
+    private static State newHeadlessState(final String name, final int width, final int height) {
+        return new State(NAME + "'s " + name, width, height);
     }
     
-    private static final State idleLeft = newState("idleLeft", 0.2f, temp, PlayMode.LOOP_PINGPONG);
-    
-    private static final State moveRightState = newState("moveRight", 0.1f,
-            Textures.getFrames(
-                    SPRITES,
-                    8,
-                    10, 147, 32, 38),
-            PlayMode.LOOP);
+    private static State newState(final String name, final float frameDuration,
+            final PlayMode playMode, final int numFrames, final int x, final int y,
+            final int width, final int height) {
+        if (SPRITES == null) {
+            return newHeadlessState(name, width, height);
+        }
+        return newState(name, frameDuration,
+                Textures.getFrames(SPRITES, numFrames, x, y, width, height), playMode);
+    }
     
-    //I know this is dirty
-    static {
-        temp = Textures.getFrames(
-                SPRITES,
-                8,
-                10, 147, 32, 38);
-        temp.forEach((x) -> x.flip(true, false));
+    private static State newState(final String name, final float frameDuration, final int x,
+            final int y, final int[][] sizes) {
+        if (SPRITES == null) {
+            return newHeadlessState(name, sizes[0][0], sizes[0][1]);
+        }
+        return newState(name, frameDuration, Textures.getFrames(SPRITES, x, y, sizes));
     }
     
-    private static final State moveLeftState = newState("moveLeft", 0.1f, temp, PlayMode.LOOP);
+    private static final State idleRight = newState("idleRight", 0.1f, PlayMode.LOOP_PINGPONG,
+            6,
+            16, 24, 27, 38);
+    
+    private static final State moveRightState = newState("moveRight", 0.1f, PlayMode.LOOP,
+            8,
+            10, 147, 32, 38);
     
     private static final State jumpState = newState("jump", 0.5f,
-            Textures.getFrames(
-                    SPRITES,
-                    17, 84,
-                    new int[][] {
-                        {28, 42},
-                        {31, 42},
-                        {33, 44}
-                    }));
+            17, 84,
+            new int[][] {
+                {28, 42},
+                {31, 42},
+                {33, 44}
+            });
     
     private static final State forwardTiltState = newState("forward tilt", 0.1f,
-            Textures.getFrames(
-                    SPRITES,
-                    11, 998,
-                    new int[][] {
-                        {32, 38},
-                        {51, 38},
-                        {45, 38},
-                        {42, 38},
-                        {40, 38},
-                        {38, 44},
-                        {39, 38},
-                        {39, 38},
-                        {31, 38}
-                    }));
+            11, 998,
+            new int[][] {
+                {32, 38},
+                {51, 38},
+                {45, 38},
+                {42, 38},
+                {40, 38},
+                {38, 44},
+                {39, 38},
+                {39, 38},
+                {31, 38}
+            });
     
     private static final State downTiltState = newState("down tilt", 0.1f,
-            Textures.getFrames(
+            12, 788,
+            new int[][] {
+                {29, 36},
+                {56, 36},
+                {39, 36},
+                {43, 36},
+                {33, 36},
+                {34, 36}
+            });
+    
+    private static final State forwardAirState;
+    static {
+        final int[][] sizes = {
+            {38, 40},
+            {37, 40},
+            {37, 40},
+            {38, 40},
+            {35, 40},
+            {50, 40},
+            {48, 40},
+            {38, 40},
+            {35, 40},
+            {40, 40},
+            {42, 40}
+        };
+        if (SPRITES == null) {
+            forwardAirState = newHeadlessState("forward air", sizes[0][0], sizes[0][1]);
+        } else {
+            final Array<TextureRegion> frames = Textures.getFrames(SPRITES, 14, 1068, sizes);
+            frames.addAll(Textures.getFrames(
                     SPRITES,
-                    12, 788,
+                    12, 1120,
                     new int[][] {
-                        {29, 36},
-                        {56, 36},
-                        {39, 36},
-                        {43, 36},
-                        {33, 36},
-                        {34, 36}
+                        {41, 40},
+                        {41, 40},
+                        {42, 40},
+                        {42, 40},
+                        {40, 40}
                     }));
-    
-    static {
-        temp = Textures.getFrames(
-                SPRITES,
-                14, 1068,
-                new int[][] {
-                    {38, 40},
-                    {37, 40},
-                    {37, 40},
-                    {38, 40},
-                    {35, 40},
-                    {50, 40},
-                    {48, 40},
-                    {38, 40},
-                    {35, 40},
-                    {40, 40},
-                    {42, 40}
-                });
-        
-        final Array<TextureRegion> temp2 = Textures.getFrames(
-                SPRITES,
-                12, 1120,
-                new int[][] {
-                    {41, 40},
-                    {41, 40},
-                    {42, 40},
-                    {42, 40},
-                    {40, 40}
-                });
-        temp.addAll(temp2);
+            forwardAirState = newState("forward air", 0.1f, frames);
+        }
     }
     
-    private static final State forwardAirState = newState("forward air", 0.1f, temp);
-    
     private static final State upTiltState = newState("up tilt", 0.1f,
-            Textures.getFrames(
-                    SPRITES,
-                    11, 535,
-                    new int[][] {
-                        {40, 53},
-                        {41, 53},
-                        {30, 53},
-                        {29, 53},
-                        {29, 53},
-                        {28, 53}
-                    }));
+            11, 535,
+            new int[][] {
+                {40, 53},
+                {41, 53},
+                {30, 53},
+                {29, 53},
+                {29, 53},
+                {28, 53}
+            });
     
     private static final State upAirState = newState("up air", 0.1f,
-            Textures.getFrames(
-                    SPRITES,
-                    11, 612,
-                    new int[][] {
-                        {43, 77},
-                        {56, 77},
-                        {43, 77},
-                        {44, 77},
-                        {44, 77},
-                        {43, 77},
-                        {29, 77},
-                        {35, 77}
-                    }));
+            11, 612,
+            new int[][] {
+                {43, 77},
+                {56, 77},
+                {43, 77},
+                {44, 77},
+                {44, 77},
+                {43, 77},
+                {29, 77},
+                {35, 77}
+            });
     
     private static final State downAirState = newState("up air state", 0.1f,
-            Textures.getFrames(
-                    SPRITES,
-                    10, 853,
-                    new int[][] {
-                        {37, 40},
-                        {29, 40},
-                        {32, 40},
-                        {35, 40},
-                        {33, 40},
-                        {34, 40},
-                        {36, 40}
-                    }));
+            10, 853,
+            new int[][] {
+                {37, 40},
+                {29, 40},
+                {32, 40},
+                {35, 40},
+                {33, 40},
+                {34, 40},
+                {36, 40}
+            });
     
     public static Mario userControlled() {
         return new Mario(User.get());
@@ -247,4 +238,9 @@ public class Mario extends Player {
         });
     }
     
+    @Override
+    public Mario fork(final Controller controller) {
+        return new Mario(controller);
+    }
+    
 }
@@ -0,0 +1,68 @@
+package com.github.kkysen.megamashbros.replay;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * The format of the gzipped input logs written by {@link InputRecorder} and
+ * read by {@link InputReplay}. A log starts with a header holding everything
+ * needed to recreate the {@link World}:
+ * 
+ * <pre>
+ * int    {@link #MAGIC}
+ * byte   {@link #VERSION}
+ * int    tick rate
+ * int    width
+ * int    height
+ * long   seed
+ * int    number of players
+ * for each player, by id:
+ *     UTF    character
+ *     UTF    name of the recorded {@link Controller}
+ * </pre>
+ * 
+ * followed by the ticks, as var ints. Each tick the pressed keys of every
+ * {@link Controller} are packed into {@link Controller#NUM_WORDS} longs, and
+ * only the keys that changed since the last tick are written. An even var int
+ * 2n is a run of n ticks in which nothing changed. An odd var int 2n + 1 is
+ * one tick in which n players' keys changed, followed for each of them by:
+ * 
+ * <pre>
+ * var int  id
+ * var int  number of keys toggled
+ * byte     key code, for each key toggled
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+final class InputLog {
+    
+    static final int MAGIC = 0x4D4D4249; // "MMBI"
+    static final int VERSION = 1;
+    
+    private InputLog() {}
+    
+    static void writeVarInt(final DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte(value & 0x7F | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+    
+    static int readVarInt(final DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0;; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+    
+}
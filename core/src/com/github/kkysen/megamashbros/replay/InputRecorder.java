@@ -0,0 +1,176 @@
+package com.github.kkysen.megamashbros.replay;
+
+import static com.github.kkysen.megamashbros.replay.InputLog.writeVarInt;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Streams the inputs of every {@link Player} in a {@link World} to an
+ * {@link InputLog}, so that the game can be replayed by an
+ * {@link InputReplay}. It is flushed about once a second of game time, so even
+ * the log of a game that crashed can be replayed up to then.
+ * 
+ * @author Khyber Sen
+ */
+public class InputRecorder implements Closeable {
+    
+    private final World world;
+    private final DataOutputStream out;
+    private final int numPlayers;
+    private final int flushInterval;
+    
+    /**
+     * the pressed keys of each {@link Player} last tick, by id
+     */
+    private final long[][] keys;
+    private final long[] pressed = new long[Controller.NUM_WORDS];
+    private final long[][] toggled;
+    private final int[] toggledIds;
+    
+    /**
+     * the number of ticks in which nothing changed that haven't been written
+     * yet
+     */
+    private int run = 0;
+    private long numTicks = 0;
+    private boolean closed = false;
+    
+    /**
+     * Starts recording a {@link World}, which must not have been stepped yet.
+     * The {@link World#recorder} is set to it, so it will record every tick.
+     */
+    public InputRecorder(final World world, final Path path) {
+        if (world.context.tick != 0) {
+            throw new IllegalStateException("the world has already been stepped");
+        }
+        this.world = world;
+        numPlayers = world.context.numIds();
+        flushInterval = world.context.getTickRate();
+        keys = new long[numPlayers][Controller.NUM_WORDS];
+        toggled = new long[numPlayers][Controller.NUM_WORDS];
+        toggledIds = new int[numPlayers];
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(path), true)));
+            writeHeader();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        world.recorder = this;
+    }
+    
+    private void writeHeader() throws IOException {
+        out.writeInt(InputLog.MAGIC);
+        out.writeByte(InputLog.VERSION);
+        out.writeInt(world.context.getTickRate());
+        out.writeInt((int) world.bounds.width);
+        out.writeInt((int) world.bounds.height);
+        out.writeLong(world.context.seed);
+        out.writeInt(numPlayers);
+        for (int id = 0; id < numPlayers; id++) {
+            final Player player = world.player(id);
+            out.writeUTF(player.name());
+            out.writeUTF(player.controller.name());
+        }
+    }
+    
+    private void writeRun() throws IOException {
+        if (run != 0) {
+            writeVarInt(out, run << 1);
+            run = 0;
+        }
+    }
+    
+    /**
+     * Records the keys every {@link Player} pressed this tick. It's called by
+     * the {@link World} after all the {@link Player}s have been updated.
+     */
+    public void record() {
+        int numToggled = 0;
+        for (int id = 0; id < numPlayers; id++) {
+            world.player(id).controller.getPressedKeys(pressed);
+            final long[] last = keys[id];
+            final long[] diff = toggled[id];
+            long changed = 0;
+            for (int i = 0; i < Controller.NUM_WORDS; i++) {
+                diff[i] = pressed[i] ^ last[i];
+                last[i] = pressed[i];
+                changed |= diff[i];
+            }
+            if (changed != 0) {
+                toggledIds[numToggled++] = id;
+            }
+        }
+        try {
+            if (numToggled == 0) {
+                run++;
+            } else {
+                writeRun();
+                writeVarInt(out, numToggled << 1 | 1);
+                for (int i = 0; i < numToggled; i++) {
+                    writeToggled(toggledIds[i]);
+                }
+            }
+            if (++numTicks % flushInterval == 0) {
+                writeRun();
+                out.flush();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void writeToggled(final int id) throws IOException {
+        final long[] diff = toggled[id];
+        int numKeys = 0;
+        for (final long word : diff) {
+            numKeys += Long.bitCount(word);
+        }
+        writeVarInt(out, id);
+        writeVarInt(out, numKeys);
+        for (int i = 0; i < Controller.NUM_WORDS; i++) {
+            for (long word = diff[i]; word != 0; word &= word - 1) {
+                out.writeByte(i << 6 | Long.numberOfTrailingZeros(word));
+            }
+        }
+    }
+    
+    /**
+     * @return the number of ticks recorded
+     */
+    public long numTicks() {
+        return numTicks;
+    }
+    
+    /**
+     * Writes the rest of the log and stops recording the {@link World}.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (world.recorder == this) {
+            world.recorder = null;
+        }
+        try {
+            writeRun();
+            out.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+}
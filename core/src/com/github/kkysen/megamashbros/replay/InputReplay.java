@@ -0,0 +1,154 @@
+package com.github.kkysen.megamashbros.replay;
+
+import static com.github.kkysen.megamashbros.replay.InputLog.readVarInt;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.app.PlayerFactory;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+import lombok.Getter;
+
+/**
+ * Reads an {@link InputLog} written by an {@link InputRecorder} and feeds the
+ * recorded inputs back into a {@link World}. Since the {@link World} is
+ * recreated with the same seed and the same {@link Player}s in the same
+ * order, it plays out exactly like the recorded game.
+ * 
+ * @author Khyber Sen
+ */
+public class InputReplay implements Closeable {
+    
+    private final DataInputStream in;
+    
+    public final int tickRate;
+    public final int width;
+    public final int height;
+    public final long seed;
+    
+    /**
+     * the character and recorded {@link Controller} of each {@link Player}, by
+     * id
+     */
+    public final String[] characters;
+    public final String[] controllers;
+    
+    private final long[][] keys;
+    
+    /**
+     * the number of ticks left in the current run of ticks in which nothing
+     * changed
+     */
+    private int run = 0;
+    
+    /**
+     * true once the {@link World} has been stepped past the last recorded tick
+     */
+    private @Getter boolean finished = false;
+    
+    public InputReplay(final Path path) {
+        try {
+            in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(Files.newInputStream(path))));
+            if (in.readInt() != InputLog.MAGIC) {
+                throw new IllegalArgumentException(path + " is not an input log");
+            }
+            final int version = in.readUnsignedByte();
+            if (version != InputLog.VERSION) {
+                throw new IllegalArgumentException(
+                        path + " has an unsupported input log version: " + version);
+            }
+            tickRate = in.readInt();
+            width = in.readInt();
+            height = in.readInt();
+            seed = in.readLong();
+            final int numPlayers = in.readInt();
+            characters = new String[numPlayers];
+            controllers = new String[numPlayers];
+            for (int id = 0; id < numPlayers; id++) {
+                characters[id] = in.readUTF();
+                controllers[id] = in.readUTF();
+            }
+            keys = new long[numPlayers][Controller.NUM_WORDS];
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Recreates the recorded {@link World}, with every {@link Player}
+     * controlled by a {@link ReplayController}. The {@link World#replay} is set
+     * to this, so every tick replays the next recorded one.
+     */
+    public World newWorld() {
+        final Player[] players = new Player[characters.length];
+        for (int id = 0; id < players.length; id++) {
+            players[id] = PlayerFactory.newPlayer(characters[id],
+                    new ReplayController(controllers[id]));
+        }
+        final World world = new World(width, height, seed, players);
+        world.context.setTickRate(tickRate);
+        world.replay = this;
+        return world;
+    }
+    
+    /**
+     * Presses the keys recorded for the next tick. It's called by the
+     * {@link World} before any {@link Player} is updated.
+     */
+    public void replay(final World world) {
+        if (finished) {
+            return;
+        }
+        if (run > 0) {
+            run--;
+            return;
+        }
+        try {
+            final int header;
+            try {
+                header = readVarInt(in);
+            } catch (final EOFException e) {
+                // also the end of a log that was never closed
+                finished = true;
+                return;
+            }
+            if ((header & 1) == 0) {
+                run = (header >>> 1) - 1;
+                return;
+            }
+            final int numToggled = header >>> 1;
+            for (int i = 0; i < numToggled; i++) {
+                final int id = readVarInt(in);
+                final long[] pressed = keys[id];
+                for (int numKeys = readVarInt(in); numKeys > 0; numKeys--) {
+                    final int keyCode = in.readUnsignedByte();
+                    pressed[keyCode >>> 6] ^= 1L << keyCode;
+                }
+                world.player(id).controller.setPressedKeys(pressed);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+}
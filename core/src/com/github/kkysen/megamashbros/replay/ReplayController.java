@@ -0,0 +1,27 @@
+package com.github.kkysen.megamashbros.replay;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+
+/**
+ * A {@link Controller} whose keys are only ever pressed by an
+ * {@link InputReplay}.
+ * 
+ * @author Khyber Sen
+ */
+public class ReplayController extends Controller {
+    
+    /**
+     * the name of the {@link Controller} that was recorded
+     */
+    private final String recorded;
+    
+    public ReplayController(final String recorded) {
+        this.recorded = recorded;
+    }
+    
+    @Override
+    public String name() {
+        return "Replayed" + recorded;
+    }
+    
+}
@@ -0,0 +1,126 @@
+package com.github.kkysen.megamashbros.spectate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import lombok.Getter;
+
+/**
+ * Watches a match live through a {@link SpectatorServer}, acknowledging
+ * every frame it receives so the next one can be a delta against it.
+ * 
+ * @author Khyber Sen
+ */
+public class SpectatorClient implements Closeable {
+    
+    private static final int RING = SpectatorStream.RING;
+    private static final int MASK = RING - 1;
+    
+    private final DatagramChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(SpectatorStream.MAX_FRAME_SIZE);
+    private final ByteBuffer ack = ByteBuffer.allocate(Long.BYTES);
+    
+    private final SpectatorFrame[] frames = new SpectatorFrame[RING];
+    private final SpectatorFrame received = new SpectatorFrame();
+    
+    /**
+     * the latest frame received, or null before the first one
+     */
+    private @Getter SpectatorFrame latest;
+    private @Getter long numFramesReceived = 0;
+    private @Getter long numBytesReceived = 0;
+    
+    /**
+     * the number of deltas dropped because their base had been lost
+     */
+    private @Getter long numFramesDropped = 0;
+    
+    /**
+     * Connects to a {@link SpectatorServer} and asks it for frames.
+     */
+    public SpectatorClient(final InetSocketAddress server) {
+        for (int i = 0; i < RING; i++) {
+            frames[i] = new SpectatorFrame();
+        }
+        try {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.connect(server);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        acknowledge(-1);
+    }
+    
+    /**
+     * Tells the server the latest frame received, which it also needs to
+     * start sending frames at all, so it should be sent again if nothing has
+     * arrived for a while.
+     */
+    public void acknowledge(final long tick) {
+        ack.clear();
+        ack.putLong(tick);
+        ack.flip();
+        try {
+            channel.write(ack);
+        } catch (final IOException e) {
+            // the server isn't listening yet, so it's like a lost datagram
+        }
+    }
+    
+    private SpectatorFrame frame(final long tick) {
+        final SpectatorFrame frame = frames[(int) tick & MASK];
+        return frame.tick == tick ? frame : null;
+    }
+    
+    /**
+     * Receives every frame that has arrived and acknowledges the latest.
+     * 
+     * @return the latest frame, or null if none has arrived yet
+     */
+    public SpectatorFrame poll() {
+        final long before = latest == null ? -1 : latest.tick;
+        try {
+            for (in.clear(); channel.read(in) > 0; in.clear()) {
+                in.flip();
+                numBytesReceived += in.remaining();
+                final long baseTick = SpectatorFrame.peekBaseTick(in);
+                final SpectatorFrame base = baseTick == -1 ? null : frame(baseTick);
+                if (baseTick != -1 && base == null) {
+                    numFramesDropped++;
+                    continue;
+                }
+                received.read(in, base);
+                numFramesReceived++;
+                // late datagrams don't replace newer frames
+                final SpectatorFrame frame = frames[(int) received.tick & MASK];
+                if (frame.tick < received.tick) {
+                    frame.set(received);
+                    if (latest == null || frame.tick > latest.tick) {
+                        latest = frame;
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            // the server isn't listening, so nothing has arrived
+        }
+        if (latest != null && latest.tick != before) {
+            acknowledge(latest.tick);
+        }
+        return latest;
+    }
+    
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+}
@@ -0,0 +1,93 @@
+package com.github.kkysen.megamashbros.spectate;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the {@link SpectatorFrame}s written by a {@link SpectatorFileWriter}
+ * one after another.
+ * 
+ * @author Khyber Sen
+ */
+public class SpectatorFileReader implements Closeable {
+    
+    private final DataInputStream in;
+    
+    public final int tickRate;
+    public final int width;
+    public final int height;
+    public final int keyframeInterval;
+    public final String[] characters;
+    
+    private final ByteBuffer buffer = ByteBuffer.allocate(SpectatorStream.MAX_FRAME_SIZE);
+    private final SpectatorFrame previous = new SpectatorFrame();
+    
+    public SpectatorFileReader(final Path path) {
+        try {
+            in = new DataInputStream(new BufferedInputStream(
+                    new GZIPInputStream(Files.newInputStream(path))));
+            if (in.readInt() != SpectatorFileWriter.MAGIC) {
+                throw new IllegalArgumentException(path + " is not a spectator file");
+            }
+            final int version = in.readUnsignedByte();
+            if (version != SpectatorFileWriter.VERSION) {
+                throw new IllegalArgumentException(
+                        path + " has an unsupported spectator file version: " + version);
+            }
+            tickRate = in.readInt();
+            width = in.readInt();
+            height = in.readInt();
+            keyframeInterval = in.readInt();
+            characters = new String[in.readInt()];
+            for (int id = 0; id < characters.length; id++) {
+                characters[id] = in.readUTF();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Reads the next frame into the given one.
+     * 
+     * @return false if there are no more frames
+     */
+    public boolean next(final SpectatorFrame frame) {
+        try {
+            final int length = in.readUnsignedShort();
+            buffer.clear();
+            in.readFully(buffer.array(), 0, length);
+            buffer.limit(length);
+        } catch (final EOFException e) {
+            return false;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final long baseTick = SpectatorFrame.peekBaseTick(buffer);
+        if (baseTick != -1 && baseTick != previous.tick) {
+            throw new IllegalStateException("frame is a delta against tick " + baseTick
+                    + ", but the last frame read was of tick " + previous.tick);
+        }
+        frame.read(buffer, baseTick == -1 ? null : previous);
+        previous.set(frame);
+        return true;
+    }
+    
+    @Override
+    public void close() {
+        try {
+            in.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+}
@@ -0,0 +1,91 @@
+package com.github.kkysen.megamashbros.spectate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Writes a {@link SpectatorStream} to a file for offline viewing with a
+ * {@link SpectatorFileReader}. Every frame is a delta against the one before
+ * it, except for the keyframes. It is flushed about once a second of game
+ * time.
+ * 
+ * <pre>
+ * int   MAGIC
+ * byte  VERSION
+ * int   tickRate, width, height, keyframeInterval
+ * int   numPlayers, then each {@link Player}'s UTF name
+ * each frame as an unsigned short length followed by the {@link SpectatorFrame}
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class SpectatorFileWriter implements SpectatorSink {
+    
+    static final int MAGIC = 0x4D4D4253;
+    static final int VERSION = 1;
+    
+    private final DataOutputStream out;
+    private final int flushInterval;
+    private long numFrames = 0;
+    private boolean closed = false;
+    
+    public SpectatorFileWriter(final SpectatorStream stream, final Path path) {
+        final World world = stream.world;
+        flushInterval = world.context.getTickRate();
+        try {
+            out = new DataOutputStream(new BufferedOutputStream(
+                    new GZIPOutputStream(Files.newOutputStream(path), true)));
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            out.writeInt(world.context.getTickRate());
+            out.writeInt((int) world.bounds.width);
+            out.writeInt((int) world.bounds.height);
+            out.writeInt(stream.keyframeInterval);
+            final int numPlayers = world.context.numIds();
+            out.writeInt(numPlayers);
+            for (int id = 0; id < numPlayers; id++) {
+                out.writeUTF(world.player(id).name());
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        stream.add(this);
+    }
+    
+    @Override
+    public void write(final SpectatorStream stream, final SpectatorFrame frame) {
+        final ByteBuffer encoding = stream.encode(frame.tick - 1);
+        try {
+            out.writeShort(encoding.remaining());
+            out.write(encoding.array(), encoding.arrayOffset(), encoding.remaining());
+            if (++numFrames % flushInterval == 0) {
+                out.flush();
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            out.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+}
@@ -0,0 +1,282 @@
+package com.github.kkysen.megamashbros.spectate;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.github.kkysen.megamashbros.core.Hitboxes;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * What a spectator sees of a {@link World} in one tick, quantized to ints:
+ * every {@link Player}'s position, state, facing, percentage and lives, and
+ * every live hitbox. Positions and sizes are in eighths of a pixel.
+ * 
+ * A frame is written as a delta against an earlier base frame: each
+ * {@link Player} and hitbox is a byte with a bit set for every field that
+ * changed, followed by the changes as zigzag varints, so an unchanged
+ * {@link Player} takes a single byte. A keyframe is just a delta against an
+ * empty frame, so it doesn't depend on any other.
+ * 
+ * <pre>
+ * varlong tick
+ * varlong tick - base tick, or 0 for a keyframe
+ * varint  numPlayers, then each {@link Player}
+ * varint  numHitboxes, then each hitbox
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class SpectatorFrame {
+    
+    public static final float POSITION_SCALE = 8;
+    public static final float PERCENTAGE_SCALE = 1000;
+    
+    public static final int X = 0;
+    public static final int Y = 1;
+    
+    public static final int STATE = 2;
+    public static final int FLAGS = 3;
+    public static final int PERCENTAGE = 4;
+    public static final int LIVES = 5;
+    public static final int PLAYER_FIELDS = 6;
+    
+    public static final int WIDTH = 2;
+    public static final int HEIGHT = 3;
+    public static final int OWNER = 4;
+    public static final int HITBOX_FIELDS = 5;
+    
+    public static final int FACING_RIGHT = 1;
+    public static final int ALIVE = 2;
+    
+    private static final SpectatorFrame EMPTY = new SpectatorFrame();
+    
+    public long tick = -1;
+    
+    public int numPlayers = 0;
+    public int[] players = new int[0];
+    
+    public int numHitboxes = 0;
+    public int[] hitboxes = new int[0];
+    
+    private static int quantize(final float position) {
+        return Math.round(position * POSITION_SCALE);
+    }
+    
+    private void ensureCapacity(final int numPlayers, final int numHitboxes) {
+        if (players.length < numPlayers * PLAYER_FIELDS) {
+            players = Arrays.copyOf(players, numPlayers * PLAYER_FIELDS);
+        }
+        if (hitboxes.length < numHitboxes * HITBOX_FIELDS) {
+            final int capacity = Math.max(numHitboxes, hitboxes.length / HITBOX_FIELDS * 2);
+            hitboxes = Arrays.copyOf(hitboxes, capacity * HITBOX_FIELDS);
+        }
+    }
+    
+    /**
+     * Captures the {@link World} as it is now, only allocating if there are
+     * more hitboxes than ever before.
+     */
+    public void capture(final World world) {
+        final Hitboxes boxes = world.hitboxes;
+        ensureCapacity(world.context.numIds(), boxes.size);
+        tick = world.context.tick;
+        numPlayers = world.context.numIds();
+        for (int id = 0; id < numPlayers; id++) {
+            final Player player = world.player(id);
+            final int i = id * PLAYER_FIELDS;
+            players[i + X] = quantize(player.position.x);
+            players[i + Y] = quantize(player.position.y);
+            players[i + STATE] = player.stateIndex();
+            players[i + FLAGS] = (player.facingRight ? FACING_RIGHT : 0)
+                    | (player.isCompletelyDead() ? 0 : ALIVE);
+            players[i + PERCENTAGE] = Math.round(player.getPercentage() * PERCENTAGE_SCALE);
+            players[i + LIVES] = player.lives;
+        }
+        numHitboxes = boxes.size;
+        for (int box = 0; box < numHitboxes; box++) {
+            final int i = box * HITBOX_FIELDS;
+            hitboxes[i + X] = quantize(boxes.x[box]);
+            hitboxes[i + Y] = quantize(boxes.y[box]);
+            hitboxes[i + WIDTH] = quantize(boxes.width[box]);
+            hitboxes[i + HEIGHT] = quantize(boxes.height[box]);
+            hitboxes[i + OWNER] = boxes.owner[box];
+        }
+    }
+    
+    public void set(final SpectatorFrame frame) {
+        ensureCapacity(frame.numPlayers, frame.numHitboxes);
+        tick = frame.tick;
+        numPlayers = frame.numPlayers;
+        System.arraycopy(frame.players, 0, players, 0, numPlayers * PLAYER_FIELDS);
+        numHitboxes = frame.numHitboxes;
+        System.arraycopy(frame.hitboxes, 0, hitboxes, 0, numHitboxes * HITBOX_FIELDS);
+    }
+    
+    public boolean contentEquals(final SpectatorFrame frame) {
+        if (tick != frame.tick || numPlayers != frame.numPlayers
+                || numHitboxes != frame.numHitboxes) {
+            return false;
+        }
+        for (int i = 0; i < numPlayers * PLAYER_FIELDS; i++) {
+            if (players[i] != frame.players[i]) {
+                return false;
+            }
+        }
+        for (int i = 0; i < numHitboxes * HITBOX_FIELDS; i++) {
+            if (hitboxes[i] != frame.hitboxes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    public float x(final int player) {
+        return players[player * PLAYER_FIELDS + X] / POSITION_SCALE;
+    }
+    
+    public float y(final int player) {
+        return players[player * PLAYER_FIELDS + Y] / POSITION_SCALE;
+    }
+    
+    /**
+     * @return the index of the {@link Player}'s current action, or -1 before
+     *         it has done any
+     */
+    public int stateIndex(final int player) {
+        return players[player * PLAYER_FIELDS + STATE];
+    }
+    
+    public boolean isFacingRight(final int player) {
+        return (players[player * PLAYER_FIELDS + FLAGS] & FACING_RIGHT) != 0;
+    }
+    
+    public boolean isAlive(final int player) {
+        return (players[player * PLAYER_FIELDS + FLAGS] & ALIVE) != 0;
+    }
+    
+    public float percentage(final int player) {
+        return players[player * PLAYER_FIELDS + PERCENTAGE] / PERCENTAGE_SCALE;
+    }
+    
+    public int lives(final int player) {
+        return players[player * PLAYER_FIELDS + LIVES];
+    }
+    
+    public Rectangle hitbox(final int box, final Rectangle bounds) {
+        final int i = box * HITBOX_FIELDS;
+        return bounds.set(hitboxes[i + X] / POSITION_SCALE, hitboxes[i + Y] / POSITION_SCALE,
+                hitboxes[i + WIDTH] / POSITION_SCALE, hitboxes[i + HEIGHT] / POSITION_SCALE);
+    }
+    
+    public int hitboxOwner(final int box) {
+        return hitboxes[box * HITBOX_FIELDS + OWNER];
+    }
+    
+    private static void writeVarLong(final ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) (value & 0x7F | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+    
+    private static long readVarLong(final ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0;; shift += 7) {
+            final byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+    
+    private static void writeRecords(final ByteBuffer out, final int[] values, final int n,
+            final int[] baseValues, final int numBase, final int numFields) {
+        for (int record = 0; record < n; record++) {
+            final int i = record * numFields;
+            final boolean inBase = record < numBase;
+            int changed = 0;
+            for (int field = 0; field < numFields; field++) {
+                if (values[i + field] != (inBase ? baseValues[i + field] : 0)) {
+                    changed |= 1 << field;
+                }
+            }
+            out.put((byte) changed);
+            for (int field = 0; changed != 0; field++, changed >>>= 1) {
+                if ((changed & 1) != 0) {
+                    final int delta = values[i + field] - (inBase ? baseValues[i + field] : 0);
+                    writeVarLong(out, (delta << 1 ^ delta >> 31) & 0xFFFFFFFFL);
+                }
+            }
+        }
+    }
+    
+    private static void readRecords(final ByteBuffer in, final int[] values, final int n,
+            final int[] baseValues, final int numBase, final int numFields) {
+        for (int record = 0; record < n; record++) {
+            final int i = record * numFields;
+            final boolean inBase = record < numBase;
+            final int changed = in.get();
+            for (int field = 0; field < numFields; field++) {
+                final int base = inBase ? baseValues[i + field] : 0;
+                if ((changed & 1 << field) == 0) {
+                    values[i + field] = base;
+                } else {
+                    final int zigzag = (int) readVarLong(in);
+                    values[i + field] = base + (zigzag >>> 1 ^ -(zigzag & 1));
+                }
+            }
+        }
+    }
+    
+    /**
+     * Writes this frame as a delta against the base, or as a keyframe if the
+     * base is null.
+     */
+    public void write(final ByteBuffer out, final SpectatorFrame base) {
+        final SpectatorFrame from = base == null ? EMPTY : base;
+        writeVarLong(out, tick);
+        writeVarLong(out, base == null ? 0 : tick - base.tick);
+        writeVarLong(out, numPlayers);
+        writeRecords(out, players, numPlayers, from.players, from.numPlayers, PLAYER_FIELDS);
+        writeVarLong(out, numHitboxes);
+        writeRecords(out, hitboxes, numHitboxes, from.hitboxes, from.numHitboxes,
+                HITBOX_FIELDS);
+    }
+    
+    /**
+     * @return the tick of the base frame the next frame in the buffer was
+     *         written against, or -1 if it's a keyframe, without reading it
+     */
+    public static long peekBaseTick(final ByteBuffer in) {
+        final int position = in.position();
+        final long tick = readVarLong(in);
+        final long distance = readVarLong(in);
+        in.position(position);
+        return distance == 0 ? -1 : tick - distance;
+    }
+    
+    /**
+     * Reads a frame written by {@link #write(ByteBuffer, SpectatorFrame)}
+     * against the base frame with the {@link #peekBaseTick(ByteBuffer)}, which
+     * is null for a keyframe.
+     */
+    public void read(final ByteBuffer in, final SpectatorFrame base) {
+        final SpectatorFrame from = base == null ? EMPTY : base;
+        tick = readVarLong(in);
+        readVarLong(in);
+        final int numPlayers = (int) readVarLong(in);
+        ensureCapacity(numPlayers, 0);
+        this.numPlayers = numPlayers;
+        readRecords(in, players, numPlayers, from.players, from.numPlayers, PLAYER_FIELDS);
+        final int numHitboxes = (int) readVarLong(in);
+        ensureCapacity(0, numHitboxes);
+        this.numHitboxes = numHitboxes;
+        readRecords(in, hitboxes, numHitboxes, from.hitboxes, from.numHitboxes,
+                HITBOX_FIELDS);
+    }
+    
+}
@@ -0,0 +1,133 @@
+package com.github.kkysen.megamashbros.spectate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Streams a {@link SpectatorStream} live to {@link SpectatorClient}s over UDP.
+ * A viewer joins by sending its first acknowledgement, and from then on gets
+ * every frame as a delta against the last frame it acknowledged, or as a
+ * keyframe if it hasn't acknowledged one recently. Viewers that stop
+ * acknowledging for {@link #TIMEOUT_SECONDS} are dropped.
+ * 
+ * Each acknowledgement is one long, the tick of the frame received.
+ * 
+ * @author Khyber Sen
+ */
+public class SpectatorServer implements SpectatorSink {
+    
+    public static final int TIMEOUT_SECONDS = 5;
+    
+    private static class Viewer {
+        
+        private final SocketAddress address;
+        private long ackedTick = -1;
+        private long lastHeardTick;
+        
+        private Viewer(final SocketAddress address) {
+            this.address = address;
+        }
+        
+    }
+    
+    private final DatagramChannel channel;
+    private final int maxViewers;
+    
+    private final ObjectMap<SocketAddress, Viewer> viewersByAddress = new ObjectMap<>();
+    private final Array<Viewer> viewers = new Array<>(false, 16, Viewer.class);
+    private final ByteBuffer ack = ByteBuffer.allocate(Long.BYTES);
+    
+    private long numDatagramsSent = 0;
+    private long numBytesSent = 0;
+    
+    public SpectatorServer(final SpectatorStream stream, final InetSocketAddress address,
+            final int maxViewers) {
+        this.maxViewers = maxViewers;
+        try {
+            channel = DatagramChannel.open();
+            channel.configureBlocking(false);
+            channel.bind(address);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        stream.add(this);
+    }
+    
+    public InetSocketAddress getAddress() {
+        try {
+            return (InetSocketAddress) channel.getLocalAddress();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    public int numViewers() {
+        return viewers.size;
+    }
+    
+    public long numDatagramsSent() {
+        return numDatagramsSent;
+    }
+    
+    public long numBytesSent() {
+        return numBytesSent;
+    }
+    
+    private void receiveAcks(final long tick) throws IOException {
+        for (SocketAddress address; (address = channel.receive(ack)) != null; ack.clear()) {
+            if (ack.position() != Long.BYTES) {
+                continue;
+            }
+            Viewer viewer = viewersByAddress.get(address);
+            if (viewer == null) {
+                if (viewers.size == maxViewers) {
+                    continue;
+                }
+                viewer = new Viewer(address);
+                viewersByAddress.put(address, viewer);
+                viewers.add(viewer);
+            }
+            viewer.ackedTick = Math.max(viewer.ackedTick, ack.getLong(0));
+            viewer.lastHeardTick = tick;
+        }
+    }
+    
+    @Override
+    public void write(final SpectatorStream stream, final SpectatorFrame frame) {
+        final long timeout = TIMEOUT_SECONDS * stream.world.context.getTickRate();
+        try {
+            receiveAcks(frame.tick);
+            for (int i = 0; i < viewers.size; i++) {
+                final Viewer viewer = viewers.get(i);
+                if (frame.tick - viewer.lastHeardTick > timeout) {
+                    viewersByAddress.remove(viewer.address);
+                    viewers.removeIndex(i--);
+                    continue;
+                }
+                final ByteBuffer encoding = stream.encode(viewer.ackedTick);
+                numBytesSent += encoding.remaining();
+                numDatagramsSent++;
+                channel.send(encoding, viewer.address);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+}
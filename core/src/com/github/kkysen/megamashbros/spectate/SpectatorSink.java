@@ -0,0 +1,21 @@
+package com.github.kkysen.megamashbros.spectate;
+
+import java.io.Closeable;
+
+/**
+ * Somewhere a {@link SpectatorStream} sends its {@link SpectatorFrame}s, like
+ * a file or the viewers of a live match.
+ * 
+ * @author Khyber Sen
+ */
+public interface SpectatorSink extends Closeable {
+    
+    /**
+     * Called once every tick with the frame just captured.
+     */
+    public void write(SpectatorStream stream, SpectatorFrame frame);
+    
+    @Override
+    public default void close() {}
+    
+}
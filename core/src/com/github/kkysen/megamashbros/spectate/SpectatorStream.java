@@ -0,0 +1,177 @@
+package com.github.kkysen.megamashbros.spectate;
+
+import java.io.Closeable;
+import java.nio.ByteBuffer;
+
+import com.badlogic.gdx.utils.Array;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Captures a {@link SpectatorFrame} of a {@link World} every tick and sends
+ * it to all its {@link SpectatorSink}s. It keeps the last {@link #RING} frames
+ * as bases for deltas, and encodes each frame only once per base it's asked
+ * for, so hundreds of viewers acknowledging the same frames share the same
+ * bytes.
+ * 
+ * @author Khyber Sen
+ */
+public class SpectatorStream implements Closeable {
+    
+    /**
+     * the number of frames kept, so the oldest base a delta can use
+     */
+    public static final int RING = 64;
+    private static final int MASK = RING - 1;
+    
+    public static final int DEFAULT_KEYFRAME_INTERVAL = 60;
+    
+    /**
+     * the most bytes one frame can be encoded in, the most a UDP datagram can
+     * hold
+     */
+    public static final int MAX_FRAME_SIZE = 65507;
+    
+    public final World world;
+    
+    /**
+     * the number of ticks between keyframes, which every sink sends as is
+     */
+    public final int keyframeInterval;
+    
+    private final SpectatorFrame[] frames = new SpectatorFrame[RING];
+    private final Array<SpectatorSink> sinks = new Array<>(SpectatorSink.class);
+    
+    /**
+     * the encodings of the current frame and the ticks of their bases,
+     * reused every tick
+     */
+    private final Array<ByteBuffer> encodings = new Array<>(ByteBuffer.class);
+    private final long[] encodedBaseTicks = new long[RING + 1];
+    private int numEncodings = 0;
+    
+    /**
+     * the frame captured last
+     */
+    private SpectatorFrame latest;
+    
+    private long numFrames = 0;
+    private long numEncodedBytes = 0;
+    
+    /**
+     * Starts capturing a {@link World}, and sets its
+     * {@link World#spectators} to this.
+     */
+    public SpectatorStream(final World world, final int keyframeInterval) {
+        if (keyframeInterval < 1 || keyframeInterval > RING) {
+            throw new IllegalArgumentException(
+                    "keyframeInterval must be between 1 and " + RING + ": " + keyframeInterval);
+        }
+        this.world = world;
+        this.keyframeInterval = keyframeInterval;
+        for (int i = 0; i < RING; i++) {
+            frames[i] = new SpectatorFrame();
+        }
+        world.spectators = this;
+    }
+    
+    public SpectatorStream(final World world) {
+        this(world, DEFAULT_KEYFRAME_INTERVAL);
+    }
+    
+    public void add(final SpectatorSink sink) {
+        sinks.add(sink);
+    }
+    
+    public void remove(final SpectatorSink sink) {
+        sinks.removeValue(sink, true);
+    }
+    
+    /**
+     * Captures the current tick and sends it to every sink. It's called by the
+     * {@link World} after all the players have been updated.
+     */
+    public void update() {
+        final SpectatorFrame frame = frames[(int) world.context.tick & MASK];
+        frame.capture(world);
+        latest = frame;
+        numEncodings = 0;
+        numFrames++;
+        for (int i = 0; i < sinks.size; i++) {
+            sinks.get(i).write(this, frame);
+        }
+    }
+    
+    public boolean isKeyframe(final long tick) {
+        return tick % keyframeInterval == 0;
+    }
+    
+    /**
+     * @return the frame of that tick if it's still kept, or null
+     */
+    public SpectatorFrame frame(final long tick) {
+        if (tick < 0) {
+            return null;
+        }
+        final SpectatorFrame frame = frames[(int) tick & MASK];
+        return frame.tick == tick ? frame : null;
+    }
+    
+    /**
+     * @param baseTick the tick of the frame a viewer last acknowledged, or -1
+     * @return the frame captured last encoded as a delta against the base, or as a
+     *         keyframe if it's a keyframe tick or the base is too old, ready to
+     *         be sent as is
+     */
+    public ByteBuffer encode(final long baseTick) {
+        final SpectatorFrame base = isKeyframe(latest.tick) ? null : frame(baseTick);
+        final long encodedBaseTick = base == null ? -1 : baseTick;
+        for (int i = 0; i < numEncodings; i++) {
+            if (encodedBaseTicks[i] == encodedBaseTick) {
+                final ByteBuffer encoding = encodings.get(i);
+                encoding.rewind();
+                return encoding;
+            }
+        }
+        if (numEncodings == encodings.size) {
+            encodings.add(ByteBuffer.allocate(MAX_FRAME_SIZE));
+        }
+        final ByteBuffer encoding = encodings.get(numEncodings);
+        encodedBaseTicks[numEncodings++] = encodedBaseTick;
+        encoding.clear();
+        latest.write(encoding, base);
+        encoding.flip();
+        numEncodedBytes += encoding.limit();
+        return encoding;
+    }
+    
+    /**
+     * @return the number of frames captured
+     */
+    public long numFrames() {
+        return numFrames;
+    }
+    
+    /**
+     * @return the total size of every distinct encoding, which is all a
+     *         {@link SpectatorStream} has to compute no matter how many
+     *         viewers there are
+     */
+    public long numEncodedBytes() {
+        return numEncodedBytes;
+    }
+    
+    /**
+     * Closes every sink and stops capturing the {@link World}.
+     */
+    @Override
+    public void close() {
+        for (final SpectatorSink sink : sinks) {
+            sink.close();
+        }
+        sinks.clear();
+        if (world.spectators == this) {
+            world.spectators = null;
+        }
+    }
+    
+}
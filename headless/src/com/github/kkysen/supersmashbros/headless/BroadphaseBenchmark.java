@@ -0,0 +1,85 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.github.kkysen.megamashbros.core.Broadphase;
+import com.github.kkysen.megamashbros.core.Hitboxes;
+import com.github.kkysen.megamashbros.core.Hurtboxes;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Steps crowded headless {@link World}s, where every {@link Player} keeps
+ * firing projectiles, and compares the number of hurtbox and hitbox pairs
+ * the {@link Broadphase} checks against the number a brute-force check
+ * of every pair would have.
+ * 
+ * <pre>
+ * BroadphaseBenchmark [ticks] [numPlayers...]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class BroadphaseBenchmark {
+    
+    private static final int DEFAULT_TICKS = 600;
+    private static final int[] DEFAULT_NUM_PLAYERS = {2, 8, 32, 128, 512, 1000};
+    
+    private static String run(final int numPlayers, final int ticks) {
+        final World world = Checks.newSpamWorld(numPlayers);
+        
+        long nanos = 0;
+        long candidates = 0;
+        long pairs = 0;
+        int ticked = 0;
+        for (; ticked < ticks && !world.gameOver; ticked++) {
+            final long start = System.nanoTime();
+            world.step();
+            nanos += System.nanoTime() - start;
+            
+            // counted after the tick, outside of the timing
+            final Hitboxes hitboxes = world.hitboxes;
+            final Hurtboxes hurtboxes = world.hurtboxes;
+            final int[] numHitboxesById = new int[numPlayers];
+            for (int i = 0; i < hitboxes.size; i++) {
+                numHitboxesById[hitboxes.owner[i]]++;
+            }
+            world.broadphase.rebuild();
+            for (int i = 0; i < hurtboxes.size; i++) {
+                pairs += hitboxes.size - numHitboxesById[hurtboxes.owner[i]];
+                candidates += world.broadphase.candidates(hurtboxes, i).size;
+            }
+        }
+        
+        return String.format("%5d players: %10.0f ns/tick, %12d candidate pairs vs %12d"
+                + " brute-force pairs over %d ticks",
+                numPlayers, (double) nanos / Math.max(1, ticked), candidates, pairs, ticked);
+    }
+    
+    public static void main(final String[] args) {
+        final int ticks = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_TICKS;
+        final int[] numPlayers;
+        if (args.length > 1) {
+            numPlayers = new int[args.length - 1];
+            for (int i = 0; i < numPlayers.length; i++) {
+                numPlayers[i] = Integer.parseInt(args[i + 1]);
+            }
+        } else {
+            numPlayers = DEFAULT_NUM_PLAYERS;
+        }
+        
+        // the headless application only provides Gdx.app and Gdx.files
+        final HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = 1f / World.DEFAULT_TICK_RATE;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        
+        for (final int n : numPlayers) {
+            run(n, ticks / 10); // warm up
+            System.out.println(run(n, ticks));
+        }
+        Gdx.app.exit();
+    }
+    
+}
@@ -0,0 +1,76 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import java.util.function.IntFunction;
+
+import com.github.kkysen.libgdx.util.Log;
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.ai.SmartAI;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.players.Mario;
+
+/**
+ * Creates the headless {@link World}s the checks play in, all of
+ * {@link Mario}s on the same stage, with logging turned off, and exits them
+ * with status 1 when they fail.
+ * 
+ * @author Khyber Sen
+ */
+final class Checks {
+    
+    static final int WIDTH = 1920;
+    static final int HEIGHT = 1080;
+    
+    /**
+     * the seed every check plays with unless it needs another
+     */
+    static final long SEED = 0;
+    
+    static {
+        Log.setLevel(Log.NONE);
+    }
+    
+    private Checks() {}
+    
+    static World newWorld(final long seed, final Player... players) {
+        return new World(WIDTH, HEIGHT, seed, players);
+    }
+    
+    /**
+     * @param controllers the {@link Controller} of each {@link Mario}, by index
+     */
+    static World newWorld(final long seed, final int numPlayers,
+            final IntFunction<Controller> controllers) {
+        final Player[] players = new Player[numPlayers];
+        for (int i = 0; i < numPlayers; i++) {
+            players[i] = new Mario(controllers.apply(i));
+        }
+        return newWorld(seed, players);
+    }
+    
+    /**
+     * @return a {@link World} of {@link SmartAI}s and {@link SpamAI}s taking
+     *         turns
+     */
+    static World newMixedWorld(final long seed, final int numPlayers) {
+        return newWorld(seed, numPlayers, i -> (i & 1) == 0 ? new SmartAI() : new SpamAI());
+    }
+    
+    /**
+     * @return a {@link World} of only {@link SpamAI}s, so it fills up with
+     *         hitboxes
+     */
+    static World newSpamWorld(final int numPlayers) {
+        return newWorld(SEED, numPlayers, i -> new SpamAI());
+    }
+    
+    /**
+     * Exits with status 1 if the check failed.
+     */
+    static void failIf(final boolean failed) {
+        if (failed) {
+            System.exit(1);
+        }
+    }
+    
+}
@@ -0,0 +1,88 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Checks that the collision phase, {@link World#collide()}, which rebuilds the
+ * {@link World#broadphase}, collides every hurtbox with its candidates and
+ * knocks back every hit {@link Player}, doesn't allocate anything once it's
+ * warmed up. After every tick it collides once more to measure, and then
+ * restores the tick's snapshot, so the extra knockbacks don't change the game.
+ * Exits with status 1 if it allocates.
+ * 
+ * <pre>
+ * CollisionAllocationCheck [numPlayers] [ticks]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class CollisionAllocationCheck {
+    
+    private static final int WARM_UP_TICKS = 300;
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    private static final com.sun.management.ThreadMXBean threads = //
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    
+    private static float totalPercentage(final World world) {
+        float sum = 0;
+        for (int id = 0; id < world.context.numIds(); id++) {
+            sum += world.player(id).getPercentage();
+        }
+        return sum;
+    }
+    
+    public static void main(final String[] args) {
+        final int numPlayers = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        final int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        
+        // the headless application only provides Gdx.app and Gdx.files
+        final HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = 1f / World.DEFAULT_TICK_RATE;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        final World world = Checks.newSpamWorld(numPlayers);
+        final ByteBuffer snapshot = ByteBuffer.allocateDirect(BUFFER_SIZE)
+                .order(ByteOrder.nativeOrder());
+        
+        // the first measurement warms up allocatedBytes() itself
+        allocatedBytes();
+        long allocated = 0;
+        float damage = 0;
+        int measured = 0;
+        for (int tick = 0; tick < WARM_UP_TICKS + ticks && !world.gameOver; tick++) {
+            world.step();
+            snapshot.clear();
+            world.snapshot(snapshot);
+            snapshot.flip();
+            final float percentage = totalPercentage(world);
+            final long before = allocatedBytes();
+            world.collide();
+            final long bytes = allocatedBytes() - before;
+            damage += totalPercentage(world) - percentage;
+            world.restore(snapshot);
+            if (tick >= WARM_UP_TICKS) {
+                allocated += bytes;
+                measured++;
+            }
+        }
+        
+        System.out.println(allocated + " bytes allocated by the collision phase over " + measured
+                + " ticks (" + damage + "% total damage)");
+        Gdx.app.exit();
+        Checks.failIf(allocated != 0);
+    }
+    
+}
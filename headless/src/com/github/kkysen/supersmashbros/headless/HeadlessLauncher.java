@@ -0,0 +1,48 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.github.kkysen.megamashbros.app.HeadlessGame;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Runs one game from options.json without a display. Pass --fast to step the
+ * {@link World} as fast as possible instead of in real time,
+ * --metrics=&lt;file&gt; to export the {@link World#metrics} to the file,
+ * --record=&lt;file&gt; to record the inputs to the file, and
+ * --replay=&lt;file&gt; to replay recorded inputs instead of playing a new
+ * game.
+ * 
+ * @author Khyber Sen
+ */
+public class HeadlessLauncher {
+    
+    private static final String METRICS_OPTION = "--metrics=";
+    private static final String RECORD_OPTION = "--record=";
+    private static final String REPLAY_OPTION = "--replay=";
+    
+    public static void main(final String[] args) {
+        boolean fast = false;
+        Path metricsFile = null;
+        Path recordFile = null;
+        Path replayFile = null;
+        for (final String arg : args) {
+            if (arg.equals("--fast")) {
+                fast = true;
+            } else if (arg.startsWith(METRICS_OPTION)) {
+                metricsFile = Paths.get(arg.substring(METRICS_OPTION.length()));
+            } else if (arg.startsWith(RECORD_OPTION)) {
+                recordFile = Paths.get(arg.substring(RECORD_OPTION.length()));
+            } else if (arg.startsWith(REPLAY_OPTION)) {
+                replayFile = Paths.get(arg.substring(REPLAY_OPTION.length()));
+            }
+        }
+        final HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = fast ? 0 : 1f / World.DEFAULT_TICK_RATE;
+        new HeadlessApplication(new HeadlessGame(!fast, metricsFile, recordFile, replayFile), config);
+    }
+    
+}
@@ -0,0 +1,100 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import com.badlogic.gdx.Input.Keys;
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.libgdx.util.keys.Key;
+import com.github.kkysen.libgdx.util.keys.KeyEventQueue;
+
+/**
+ * Taps random letter keys on one thread, faster than the ticks drained on
+ * another thread, like the input thread does to the
+ * {@link com.github.kkysen.libgdx.util.keys.User}, and checks that every tap
+ * was seen by some tick, even the ones released in the same tick they were
+ * pressed in, and that none were dropped. Also reports the latency from each
+ * key event to its tick.
+ * Exits with status 1 if any were missed.
+ * 
+ * <pre>
+ * InputCheck [tickRate] [seconds] [tapIntervalUs]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class InputCheck {
+    
+    private static final int NUM_KEYS = Keys.Z - Keys.A + 1;
+    
+    private static final long HOLD = 5_000; // ns
+    
+    private static void spinUntil(final long time) {
+        while (System.nanoTime() - time < 0) {
+            Thread.yield();
+        }
+    }
+    
+    public static void main(final String[] args) throws InterruptedException {
+        final int tickRate = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        final double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 2;
+        final long tapInterval = (args.length > 2 ? Long.parseLong(args[2]) : 50) * 1000;
+        
+        final KeyEventQueue queue = new KeyEventQueue();
+        final Controller controller = new Controller() {};
+        final long period = 1_000_000_000L / tickRate;
+        final long start = System.nanoTime();
+        final long end = start + (long) (seconds * 1e9);
+        
+        final long[] numTaps = new long[1];
+        final Thread input = new Thread(() -> {
+            long seed = start;
+            for (long time = start; time - end < 0; time += tapInterval) {
+                seed = seed * 6364136223846793005L + 1442695040888963407L;
+                final int keyCode = Keys.A + (int) ((seed >>> 33) % NUM_KEYS);
+                spinUntil(time);
+                // a person doesn't make up for taps they missed while this thread wasn't running
+                time = Math.max(time, System.nanoTime() - tapInterval);
+                queue.offer(keyCode, true, System.nanoTime());
+                spinUntil(time + HOLD);
+                queue.offer(keyCode, false, System.nanoTime());
+                numTaps[0]++;
+            }
+        }, "input");
+        input.start();
+        
+        long numTicks = 0;
+        long numMissed = 0;
+        long numPressedTicks = 0;
+        for (long tick = start + period;; tick += period) {
+            spinUntil(tick);
+            final boolean done = !input.isAlive();
+            queue.drain(controller, tick);
+            for (int keyCode = Keys.A; keyCode <= Keys.Z; keyCode++) {
+                final boolean pressed = controller.isPressed(Key.get(keyCode));
+                if (queue.wasPressed(keyCode) && !pressed) {
+                    numMissed++;
+                }
+                numPressedTicks += pressed ? 1 : 0;
+            }
+            numTicks++;
+            if (done && queue.getNumEvents() + queue.getNumDropped() == 2 * numTaps[0]) {
+                break;
+            }
+        }
+        input.join();
+        
+        System.out.printf("%d taps over %d ticks at %d ticks/s, %.2f keys pressed per tick%n",
+                numTaps[0], numTicks, tickRate, (double) numPressedTicks / numTicks);
+        System.out.printf("%d taps released within their tick were kept pressed until the next%n",
+                queue.getNumDeferred());
+        System.out.printf("latency: mean %.1f us, p50 %.1f us, p99 %.1f us, max %.1f us%n",
+                queue.latency.mean() / 1e3, queue.latency.percentile(50) / 1e3,
+                queue.latency.percentile(99) / 1e3, queue.latency.max() / 1e3);
+        if (numMissed != 0 || queue.getNumDropped() != 0) {
+            System.out.printf("FAILED: %d taps missed, %d events dropped%n", numMissed,
+                    queue.getNumDropped());
+        } else {
+            System.out.println("no taps missed");
+        }
+        Checks.failIf(numMissed != 0 || queue.getNumDropped() != 0);
+    }
+    
+}
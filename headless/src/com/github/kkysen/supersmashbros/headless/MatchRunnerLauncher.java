@@ -0,0 +1,60 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import java.io.File;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonReader;
+import com.badlogic.gdx.utils.JsonValue;
+import com.github.kkysen.libgdx.util.Log;
+import com.github.kkysen.megamashbros.app.MatchRunner;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Command line interface for the {@link MatchRunner}:
+ * 
+ * <pre>
+ * MatchRunnerLauncher &lt;options.json&gt; &lt;numMatches&gt; [maxTicks] [threads] [seed]
+ * </pre>
+ * 
+ * Passing the seed a run printed replays the same matches.
+ * 
+ * @author Khyber Sen
+ */
+public class MatchRunnerLauncher {
+    
+    private static final String USAGE = "usage: MatchRunnerLauncher <options.json> <numMatches> "
+            + "[maxTicks] [threads] [seed]";
+    
+    public static void main(final String[] args) {
+        if (args.length < 2) {
+            System.err.println(USAGE);
+            System.exit(1);
+        }
+        final JsonValue options = new JsonReader().parse(new FileHandle(new File(args[0])));
+        final int numMatches = Integer.parseInt(args[1]);
+        final int maxTicks = args.length > 2 ? Integer.parseInt(args[2])
+                : MatchRunner.DEFAULT_MAX_TICKS;
+        final int threads = args.length > 3 ? Integer.parseInt(args[3])
+                : Runtime.getRuntime().availableProcessors();
+        final long seed = args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime();
+        
+        // the headless application only provides Gdx.app and Gdx.files,
+        // the matches themselves are stepped by the MatchRunner's threads
+        final HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        config.renderInterval = 1f / World.DEFAULT_TICK_RATE;
+        new HeadlessApplication(new ApplicationAdapter() {}, config);
+        Log.setLevel(Log.NONE);
+        
+        final MatchRunner runner = new MatchRunner(options, maxTicks, threads, seed);
+        System.out.println("running " + numMatches + " matches on " + threads
+                + " threads from seed " + seed);
+        System.out.println(runner.run(numMatches));
+        runner.shutdown();
+        Gdx.app.exit();
+    }
+    
+}
@@ -0,0 +1,64 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import com.github.kkysen.megamashbros.ai.FrozenAI;
+import com.github.kkysen.megamashbros.core.Boxes;
+import com.github.kkysen.megamashbros.core.Hurtboxes;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Checks that a box only expires after it's lasted its whole lifetime in
+ * ticks the {@link World} wasn't paused for. A hurtbox is added to a
+ * {@link FrozenAI}, and the {@link World} is paused halfway through its
+ * lifetime for longer than the whole lifetime. The box must still be there
+ * after its lifetime counting the paused ticks, and then expire right after
+ * its lifetime not counting them. Exits with status 1 if it expires at any
+ * other tick.
+ * 
+ * <pre>
+ * PauseCheck [lifetimeTicks]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class PauseCheck {
+    
+    private static final float SIZE = 10;
+    
+    /**
+     * @return true if the box added last to the {@link Boxes} is still there
+     */
+    private static boolean stepWith(final World world, final Boxes boxes, final int numBoxes,
+            final int ticks) {
+        for (int tick = 0; tick < ticks; tick++) {
+            world.step();
+        }
+        return boxes.size == numBoxes;
+    }
+    
+    public static void main(final String[] args) {
+        final int lifetime = args.length > 0 ? Integer.parseInt(args[0]) : 30;
+        
+        final World world = Checks.newWorld(Checks.SEED, 2, i -> new FrozenAI());
+        world.step();
+        final Player player = world.player(0);
+        final Hurtboxes boxes = world.hurtboxes;
+        boxes.add(player, SIZE, SIZE, (float) lifetime / world.context.getTickRate());
+        final int numBoxes = boxes.size;
+        
+        // a box added after the update in a tick is collided in the next lifetime ticks
+        final int before = lifetime / 2;
+        final boolean beforePause = stepWith(world, boxes, numBoxes, before);
+        world.pause();
+        final boolean paused = stepWith(world, boxes, numBoxes, lifetime * 2);
+        world.resume();
+        final boolean lastTick = stepWith(world, boxes, numBoxes, lifetime - before);
+        final boolean expired = !stepWith(world, boxes, numBoxes, 1);
+        
+        System.out.println("box of " + lifetime + " ticks paused for " + lifetime * 2
+                + " ticks: there before the pause " + beforePause + ", while paused " + paused
+                + ", for its last tick " + lastTick + ", expired after it " + expired);
+        Checks.failIf(!(beforePause && paused && lastTick && expired));
+    }
+    
+}
@@ -0,0 +1,84 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.FloatArray;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.replay.InputRecorder;
+import com.github.kkysen.megamashbros.replay.InputReplay;
+
+/**
+ * Records a game of AIs with an {@link InputRecorder}, replays it with an
+ * {@link InputReplay}, and checks that every {@link Player} is in exactly the
+ * same place every tick. Exits with status 1 if the replay diverges.
+ * 
+ * <pre>
+ * ReplayCheck [numPlayers] [ticks]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class ReplayCheck {
+    
+    private static void addPositions(final World world, final int numPlayers,
+            final FloatArray positions) {
+        for (int id = 0; id < numPlayers; id++) {
+            final Player player = world.player(id);
+            positions.add(player.position.x);
+            positions.add(player.position.y);
+        }
+    }
+    
+    public static void main(final String[] args) throws IOException {
+        final int numPlayers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        final int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 3600;
+        
+        // any seed, since it's recorded too
+        final World recorded = Checks.newMixedWorld(MathUtils.random.nextLong(), numPlayers);
+        final Path log = Files.createTempFile("replay", ".mmbi");
+        final InputRecorder recorder = new InputRecorder(recorded, log);
+        final FloatArray positions = new FloatArray();
+        for (int tick = 0; tick < ticks && !recorded.gameOver; tick++) {
+            recorded.step();
+            addPositions(recorded, numPlayers, positions);
+        }
+        recorder.close();
+        
+        final InputReplay replay = new InputReplay(log);
+        final World replayed = replay.newWorld();
+        final FloatArray replayedPositions = new FloatArray();
+        while (!replayed.gameOver) {
+            replayed.step();
+            if (replay.isFinished()) {
+                break;
+            }
+            addPositions(replayed, numPlayers, replayedPositions);
+        }
+        replay.close();
+        
+        final int numTicks = positions.size / (2 * numPlayers);
+        int diverged = -1;
+        for (int i = 0; i < positions.size; i++) {
+            if (i >= replayedPositions.size || positions.get(i) != replayedPositions.get(i)) {
+                diverged = i / (2 * numPlayers);
+                break;
+            }
+        }
+        final long bytes = Files.size(log);
+        Files.delete(log);
+        System.out.println(numTicks + " ticks of " + numPlayers + " players recorded in " + bytes
+                + " bytes (" + bytes * 60 * World.DEFAULT_TICK_RATE / Math.max(1, numTicks)
+                + " bytes/min)");
+        if (diverged != -1) {
+            System.out.println("replay diverged at tick " + diverged);
+        } else {
+            System.out.println("replay matched");
+        }
+        Checks.failIf(diverged != -1);
+    }
+    
+}
@@ -0,0 +1,177 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.libgdx.util.keys.KeyBinding;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.net.LoopbackTransport;
+import com.github.kkysen.megamashbros.net.NetController;
+import com.github.kkysen.megamashbros.net.RollbackSession;
+import com.github.kkysen.megamashbros.players.Mario;
+
+/**
+ * Plays two {@link RollbackSession}s against each other over a
+ * {@link LoopbackTransport} with latency, jitter and packet loss, each peer
+ * following its own random script of inputs. Both peers must end up with the
+ * same confirmed {@link World} as one simulated with all the real inputs
+ * right away. Also reports how much was rolled back and how many ticks can
+ * be simulated in one frame, which must be at least the window for a full
+ * rollback to fit. Every so often each peer is also sent a truncated packet
+ * and one with more inputs than it holds, which must be dropped unless
+ * they're lost. Exits with status 1 if the {@link World}s differ or none of
+ * the malformed packets were dropped.
+ * 
+ * <pre>
+ * RollbackCheck [ticks] [latencyMillis] [lossPercent] [window]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class RollbackCheck {
+    
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final long FRAME_NANOS = 1000000000L / World.DEFAULT_TICK_RATE;
+    private static final int MALFORMED_INTERVAL = 60;
+    
+    private static final KeyBinding[] KEYS = {
+        KeyBinding.LEFT,
+        KeyBinding.RIGHT,
+        KeyBinding.JUMP,
+        KeyBinding.RANGE_ATTACK,
+        KeyBinding.ATTACK_FORWARD,
+    };
+    
+    private static long[][] script(final int ticks, final long seed) {
+        final RandomXS128 random = new RandomXS128(seed);
+        final Controller controller = new Controller() {};
+        final long[][] script = new long[ticks][Controller.NUM_WORDS];
+        for (int tick = 0; tick < ticks; tick++) {
+            if (random.nextInt(8) == 0) {
+                controller.setPressedKeys(new long[Controller.NUM_WORDS]);
+                if (random.nextInt(4) != 0) {
+                    controller.pressKeys(KEYS[random.nextInt(KEYS.length)]);
+                }
+            }
+            controller.getPressedKeys(script[tick]);
+        }
+        return script;
+    }
+    
+    private static World newWorld() {
+        return Checks.newWorld(Checks.SEED, new Mario(new NetController()),
+                new Mario(new NetController()));
+    }
+    
+    private static ByteBuffer newBuffer() {
+        return ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    }
+    
+    /**
+     * Sends a packet cut off in its header and a packet claiming more inputs
+     * than it holds to the peer of the transport.
+     */
+    private static void sendMalformed(final LoopbackTransport transport) {
+        final ByteBuffer packet = ByteBuffer.allocate(64);
+        packet.putInt(0).flip();
+        transport.send(packet);
+        packet.clear();
+        packet.putInt(0).putInt(0).put((byte) 2).putLong(0).flip();
+        transport.send(packet);
+    }
+    
+    public static void main(final String[] args) {
+        final int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 3600;
+        final long latency = (args.length > 1 ? Long.parseLong(args[1]) : 60) * 1000000;
+        final float lossRate = (args.length > 2 ? Float.parseFloat(args[2]) : 10) / 100;
+        final int window = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+        
+        final long[][][] scripts = {script(ticks, 1), script(ticks, 2)};
+        final long[] now = {0};
+        final LoopbackTransport[] transports = LoopbackTransport.pair(() -> now[0], latency,
+                latency / 2, lossRate, 0);
+        final Controller[] inputs = new Controller[2];
+        final RollbackSession[] sessions = new RollbackSession[2];
+        for (int id = 0; id < 2; id++) {
+            inputs[id] = new Controller() {};
+            sessions[id] = new RollbackSession(newWorld(), transports[id], inputs[id], id,
+                    1 - id, window);
+        }
+        
+        int numFrames = 0;
+        int numMalformed = 0;
+        long totalNanos = 0;
+        while (sessions[0].getTick() < ticks || sessions[1].getTick() < ticks) {
+            now[0] += FRAME_NANOS;
+            numFrames++;
+            if (numFrames % MALFORMED_INTERVAL == 0) {
+                numMalformed += 4;
+                sendMalformed(transports[0]);
+                sendMalformed(transports[1]);
+            }
+            for (int id = 0; id < 2; id++) {
+                final RollbackSession session = sessions[id];
+                if (session.getTick() >= ticks) {
+                    continue;
+                }
+                inputs[id].setPressedKeys(scripts[id][session.getTick()]);
+                final long start = System.nanoTime();
+                session.advance();
+                totalNanos += System.nanoTime() - start;
+            }
+        }
+        
+        final World reference = newWorld();
+        final ByteBuffer expected = newBuffer();
+        final ByteBuffer actual = newBuffer();
+        boolean same = true;
+        for (int tick = 0; tick <= ticks; tick++) {
+            for (final RollbackSession session : sessions) {
+                if (session.confirmedTick() != tick) {
+                    continue;
+                }
+                expected.clear();
+                reference.snapshot(expected);
+                expected.flip();
+                actual.clear();
+                session.snapshotConfirmed(actual);
+                actual.flip();
+                same &= actual.equals(expected);
+            }
+            if (tick < ticks) {
+                for (int id = 0; id < 2; id++) {
+                    reference.player(id).controller.setPressedKeys(scripts[id][tick]);
+                }
+                reference.step();
+            }
+        }
+        
+        System.out.println(ticks + " ticks over " + latency / 1000000 + " ms latency, "
+                + lossRate * 100 + "% loss, window of " + window + " ticks, " + numFrames
+                + " frames");
+        for (int id = 0; id < 2; id++) {
+            final RollbackSession session = sessions[id];
+            System.out.println("peer " + id + ": " + session.getNumRollbacks() + " rollbacks, "
+                    + session.getNumResimulatedTicks() + " ticks resimulated, max rollback "
+                    + session.getMaxRollback() + " ticks, " + session.getNumStalls()
+                    + " stalls, " + session.getNumDroppedPackets()
+                    + " malformed packets dropped, confirmed up to tick "
+                    + session.confirmedTick());
+        }
+        final long numTicks = 2L * ticks + sessions[0].getNumResimulatedTicks()
+                + sessions[1].getNumResimulatedTicks();
+        final long nanosPerTick = totalNanos / numTicks;
+        System.out.println(nanosPerTick / 1000 + " us per tick with snapshots, so "
+                + FRAME_NANOS / nanosPerTick + " ticks fit in a frame");
+        final int numDropped = sessions[0].getNumDroppedPackets()
+                + sessions[1].getNumDroppedPackets();
+        System.out.println(numDropped + " of " + numMalformed
+                + " malformed packets dropped, the rest lost");
+        System.out.println("same as the reference: " + same);
+        Checks.failIf(!same || numMalformed > 0 && numDropped == 0);
+    }
+    
+}
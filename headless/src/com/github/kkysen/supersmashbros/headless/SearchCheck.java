@@ -0,0 +1,122 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import com.badlogic.gdx.utils.LongArray;
+import com.github.kkysen.megamashbros.ai.AI;
+import com.github.kkysen.megamashbros.ai.SearchAI;
+import com.github.kkysen.megamashbros.ai.SmartAI;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Plays a {@link SearchAI} against {@link SmartAI}s, and then a {@link SmartAI}
+ * in its place from the same start, and compares how much damage they each
+ * dealt and took. Also checks that the {@link SearchAI} stays within its time
+ * budget and reports how many ticks per second its forks are played at.
+ * 
+ * The budget is checked against the CPU time of each tick, since the wall
+ * time also counts the time the thread wasn't running at all. Exits with
+ * status 1 if the 99th percentile tick with the {@link SearchAI} took more CPU
+ * time than the 99th percentile tick with the {@link SmartAI} plus the budget,
+ * by more than {@link #TOLERANCE}, which leaves room for the last fork tick it
+ * started before the deadline.
+ * 
+ * <pre>
+ * SearchCheck [numEnemies] [ticks] [budgetUs]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class SearchCheck {
+    
+    /**
+     * how much longer than the budget in ns a tick can take
+     */
+    private static final long TOLERANCE = 100_000;
+    private static final int WARM_UP_TICKS = 300;
+    
+    private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    
+    private static long percentile(final LongArray times, final int percentile) {
+        times.sort();
+        return times.get(times.size * percentile / 100);
+    }
+    
+    /**
+     * @param tickTimes the CPU time of each tick self is alive for, once it's
+     *            warmed up
+     * @param searchTimes the wall time self searched for in each of those
+     *            ticks, or null if self isn't a {@link SearchAI}
+     */
+    private static World play(final AI self, final int numEnemies, final int ticks,
+            final LongArray tickTimes, final LongArray searchTimes) {
+        final World world = Checks.newWorld(Checks.SEED, numEnemies + 1,
+                i -> i == 0 ? self : new SmartAI());
+        final Player player = world.player(0);
+        long searchTime = 0;
+        for (int tick = 0; tick < ticks && !world.gameOver; tick++) {
+            final long start = threads.getCurrentThreadCpuTime();
+            world.step();
+            final long time = threads.getCurrentThreadCpuTime() - start;
+            final long lastSearchTime = searchTime;
+            if (searchTimes != null) {
+                searchTime = ((SearchAI) self).getSearchTime();
+            }
+            if (tick < WARM_UP_TICKS || player.isCompletelyDead()) {
+                continue;
+            }
+            tickTimes.add(time);
+            if (searchTimes != null) {
+                searchTimes.add(searchTime - lastSearchTime);
+            }
+        }
+        return world;
+    }
+    
+    private static String result(final String name, final World world) {
+        final Player self = world.player(0);
+        float dealt = 0;
+        int killed = 0;
+        for (int id = 1; id < world.context.numIds(); id++) {
+            final Player enemy = world.player(id);
+            dealt += enemy.getPercentage();
+            killed += enemy.isCompletelyDead() ? 1 : 0;
+        }
+        return String.format("%s: dealt %.1f%% and killed %d, took %.1f%%, %s", name, dealt,
+                killed, self.getPercentage(), self.isCompletelyDead() ? "died" : "survived");
+    }
+    
+    public static void main(final String[] args) {
+        final int numEnemies = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+        final int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1800;
+        final long budget = (args.length > 2 ? Long.parseLong(args[2]) : 1000) * 1000;
+        
+        final SearchAI search = new SearchAI(budget);
+        final LongArray searchedTickTimes = new LongArray();
+        final LongArray searchTimes = new LongArray();
+        final World searched = play(search, numEnemies, ticks, searchedTickTimes, searchTimes);
+        final LongArray smartTickTimes = new LongArray();
+        final World smart = play(new SmartAI(), numEnemies, ticks, smartTickTimes, null);
+        
+        final long medianSearchTime = percentile(searchTimes, 50);
+        final long slowSearchTime = percentile(searchTimes, 99);
+        final long slowSearchedTickTime = percentile(searchedTickTimes, 99);
+        final long slowSmartTickTime = percentile(smartTickTimes, 99);
+        final double forkTicksPerSecond = search.getNumForkTicks() * 1e9 / search.getSearchTime();
+        System.out.println(result("SearchAI", searched));
+        System.out.println(result("SmartAI ", smart));
+        System.out.printf("%d rollouts (%d abandoned) over %d ticks, %d fork ticks/s%n",
+                search.getNumRollouts(), search.getNumAbandonedRollouts(), searchTimes.size,
+                (long) forkTicksPerSecond);
+        System.out.println("searched " + medianSearchTime / 1000 + " us per tick (median), "
+                + slowSearchTime / 1000 + " us (99th percentile), with a budget of "
+                + budget / 1000 + " us");
+        System.out.println("99th percentile tick took " + slowSearchedTickTime / 1000
+                + " us of CPU time with the SearchAI, " + slowSmartTickTime / 1000
+                + " us with the SmartAI");
+        Checks.failIf(slowSearchedTickTime - slowSmartTickTime > budget + TOLERANCE);
+    }
+    
+}
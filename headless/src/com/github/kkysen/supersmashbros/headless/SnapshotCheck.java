@@ -0,0 +1,101 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Checks that {@link World#restore(ByteBuffer)} brings back the exact
+ * {@link World#snapshot(ByteBuffer)}: the snapshot is restored after playing
+ * on for a while, and then the same ticks are played again, which must end in
+ * the same snapshot byte for byte. Also times snapshotting and restoring and
+ * checks that they don't allocate. Exits with status 1 if anything fails.
+ * 
+ * <pre>
+ * SnapshotCheck [numPlayers] [ticks]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class SnapshotCheck {
+    
+    private static final int WARM_UP_TICKS = 300;
+    private static final int REPETITIONS = 100000;
+    private static final int BUFFER_SIZE = 1 << 20;
+    
+    private static final com.sun.management.ThreadMXBean threads = //
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    private static long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    
+    /**
+     * Direct buffers in the native order are written much faster than heap
+     * buffers, which write multi-byte values one byte at a time.
+     */
+    private static ByteBuffer newBuffer() {
+        return ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    }
+    
+    private static ByteBuffer snapshot(final World world, final ByteBuffer buffer) {
+        buffer.clear();
+        world.snapshot(buffer);
+        buffer.flip();
+        return buffer;
+    }
+    
+    private static void restore(final World world, final ByteBuffer snapshot) {
+        world.restore(snapshot);
+        snapshot.rewind();
+    }
+    
+    private static void play(final World world, final int ticks) {
+        for (int tick = 0; tick < ticks && !world.gameOver; tick++) {
+            world.step();
+        }
+    }
+    
+    public static void main(final String[] args) {
+        final int numPlayers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        final int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 600;
+        
+        final World world = Checks.newMixedWorld(Checks.SEED, numPlayers);
+        play(world, WARM_UP_TICKS);
+        
+        final ByteBuffer start = snapshot(world, newBuffer());
+        play(world, ticks);
+        final ByteBuffer played = snapshot(world, newBuffer());
+        
+        restore(world, start);
+        final ByteBuffer restored = snapshot(world, newBuffer());
+        final boolean restoredExactly = restored.equals(start);
+        play(world, ticks);
+        final ByteBuffer replayed = snapshot(world, newBuffer());
+        final boolean replayedExactly = replayed.equals(played);
+        
+        final ByteBuffer buffer = newBuffer();
+        for (int i = 0; i < REPETITIONS; i++) { // warm up
+            snapshot(world, buffer);
+            restore(world, buffer);
+        }
+        final long before = allocatedBytes();
+        final long startNanos = System.nanoTime();
+        for (int i = 0; i < REPETITIONS; i++) {
+            snapshot(world, buffer);
+            restore(world, buffer);
+        }
+        final long nanos = System.nanoTime() - startNanos;
+        final long allocated = allocatedBytes() - before;
+        
+        System.out.println(numPlayers + " players: " + start.limit() + " byte snapshot, "
+                + nanos / REPETITIONS + " ns per snapshot and restore, " + allocated
+                + " bytes allocated over " + REPETITIONS);
+        System.out.println("restored exactly: " + restoredExactly + ", replayed exactly: "
+                + replayedExactly + " (" + ticks + " ticks)");
+        Checks.failIf(!restoredExactly || !replayedExactly || allocated != 0);
+    }
+    
+}
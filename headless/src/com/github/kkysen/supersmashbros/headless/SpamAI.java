@@ -0,0 +1,35 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import com.github.kkysen.libgdx.util.keys.KeyBinding;
+import com.github.kkysen.megamashbros.ai.AI;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.core.WorldQuery;
+
+/**
+ * Keeps attacking while wandering around, so the {@link World} fills up with
+ * hitboxes.
+ * 
+ * @author Khyber Sen
+ */
+public class SpamAI extends AI {
+    
+    private static final KeyBinding[] KEYS = {
+        KeyBinding.RANGE_ATTACK,
+        KeyBinding.RANGE_ATTACK,
+        KeyBinding.LEFT,
+        KeyBinding.RIGHT,
+        KeyBinding.JUMP,
+    };
+    
+    @Override
+    public AI fork() {
+        return new SpamAI();
+    }
+    
+    @Override
+    public void makeDecisions(final Player self, final WorldQuery query) {
+        pressKeys(KEYS[random.nextInt(KEYS.length)]);
+    }
+    
+}
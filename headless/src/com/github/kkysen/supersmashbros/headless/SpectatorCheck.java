@@ -0,0 +1,115 @@
+package com.github.kkysen.supersmashbros.headless;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.badlogic.gdx.utils.Array;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.spectate.SpectatorClient;
+import com.github.kkysen.megamashbros.spectate.SpectatorFileReader;
+import com.github.kkysen.megamashbros.spectate.SpectatorFileWriter;
+import com.github.kkysen.megamashbros.spectate.SpectatorFrame;
+import com.github.kkysen.megamashbros.spectate.SpectatorServer;
+import com.github.kkysen.megamashbros.spectate.SpectatorStream;
+
+/**
+ * Plays a match with a {@link SpectatorStream} written to a file and served
+ * live over localhost to many {@link SpectatorClient}s, some of which only
+ * acknowledge a few frames. Reading the file back must give every frame
+ * exactly, and every frame a viewer receives must be exactly the one
+ * captured. Exits with status 1 if any differ.
+ * 
+ * <pre>
+ * SpectatorCheck [numPlayers] [ticks] [numViewers]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class SpectatorCheck {
+    
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final int numPlayers = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        final int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 1800;
+        final int numViewers = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        
+        final World world = Checks.newMixedWorld(Checks.SEED, numPlayers);
+        final SpectatorStream stream = new SpectatorStream(world);
+        final Path path = Files.createTempFile("spectator", ".mmbs");
+        new SpectatorFileWriter(stream, path);
+        final SpectatorServer server = new SpectatorServer(stream,
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), numViewers);
+        final SpectatorClient[] viewers = new SpectatorClient[numViewers];
+        for (int i = 0; i < numViewers; i++) {
+            viewers[i] = new SpectatorClient(server.getAddress());
+        }
+        Thread.sleep(100); // for the first acknowledgements to arrive
+        
+        final Array<SpectatorFrame> captured = new Array<>(SpectatorFrame.class);
+        int numViewedFrames = 0;
+        int numWrongFrames = 0;
+        long streamNanos = 0;
+        for (int tick = 0; tick < ticks && !world.gameOver; tick++) {
+            final long start = System.nanoTime();
+            world.step();
+            streamNanos += System.nanoTime() - start;
+            final SpectatorFrame frame = new SpectatorFrame();
+            frame.set(stream.frame(world.context.tick - 1));
+            captured.add(frame);
+            for (int i = 0; i < numViewers; i++) {
+                // every tenth viewer acknowledges only every tenth frame
+                final SpectatorClient viewer = viewers[i];
+                if (i % 10 == 0 && tick % 10 != 0) {
+                    continue;
+                }
+                final SpectatorFrame viewed = viewer.poll();
+                if (viewed != null && viewed.tick == frame.tick) {
+                    numViewedFrames++;
+                    if (!viewed.contentEquals(frame)) {
+                        numWrongFrames++;
+                    }
+                }
+            }
+        }
+        final long numFrames = stream.numFrames();
+        final long numSentBytes = server.numBytesSent();
+        final long numDatagrams = server.numDatagramsSent();
+        final long numEncodedBytes = stream.numEncodedBytes();
+        stream.close();
+        long numDropped = 0;
+        for (final SpectatorClient viewer : viewers) {
+            numDropped += viewer.getNumFramesDropped();
+            viewer.close();
+        }
+        
+        boolean fileMatches = true;
+        int numFileFrames = 0;
+        try (SpectatorFileReader reader = new SpectatorFileReader(path)) {
+            final SpectatorFrame frame = new SpectatorFrame();
+            while (reader.next(frame)) {
+                fileMatches &= numFileFrames < captured.size
+                        && frame.contentEquals(captured.get(numFileFrames));
+                numFileFrames++;
+            }
+        }
+        fileMatches &= numFileFrames == captured.size;
+        final long fileSize = Files.size(path);
+        Files.delete(path);
+        
+        System.out.println(numPlayers + " players, " + numFrames + " frames, " + numViewers
+                + " viewers");
+        System.out.println("file: " + fileSize + " bytes, " + fileSize / Math.max(1, numFrames)
+                + " bytes/frame, " + numFileFrames + " frames read back, matches: "
+                + fileMatches);
+        System.out.println("live: " + numSentBytes / Math.max(1, numDatagrams)
+                + " bytes/datagram, " + numEncodedBytes / Math.max(1, numFrames)
+                + " bytes encoded per frame for everyone, " + streamNanos / numFrames / 1000
+                + " us per tick including streaming");
+        System.out.println("viewers: " + numViewedFrames + " frames checked, " + numWrongFrames
+                + " wrong, " + numDropped + " dropped for a lost base");
+        Checks.failIf(!fileMatches || numWrongFrames != 0 || numViewedFrames == 0);
+    }
+    
+}
@@ -0,0 +1,94 @@
+package com.github.kkysen.supersmashbros.server;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+
+/**
+ * A client connected to a {@link MatchServer}. It's read by the selector
+ * thread, which replaces its {@link #keys} whenever an INPUT arrives, and
+ * written to by the sim thread of its {@link Match}.
+ * 
+ * @author Khyber Sen
+ */
+final class Connection {
+    
+    /**
+     * a client that hasn't read this much yet is too slow and is dropped
+     */
+    private static final int OUT_SIZE = 1 << 16;
+    
+    final SocketChannel channel;
+    
+    final ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_FRAME_SIZE);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(OUT_SIZE);
+    
+    /**
+     * the keys pressed now, never modified, only replaced
+     */
+    volatile long[] keys = new long[Controller.NUM_WORDS];
+    
+    /**
+     * the character chosen in the JOIN, or null before then
+     */
+    String character;
+    
+    private volatile boolean closed = false;
+    
+    Connection(final SocketChannel channel) {
+        this.channel = channel;
+    }
+    
+    boolean isClosed() {
+        return closed;
+    }
+    
+    /**
+     * Buffers a whole frame, leaving its position where it was so it can be
+     * sent to other {@link Connection}s too.
+     */
+    synchronized void send(final ByteBuffer frame) {
+        if (closed) {
+            return;
+        }
+        if (out.remaining() < frame.remaining()) {
+            flush();
+            if (out.remaining() < frame.remaining()) {
+                close();
+                return;
+            }
+        }
+        final int position = frame.position();
+        out.put(frame);
+        frame.position(position);
+    }
+    
+    /**
+     * Writes as much of the buffered frames as the socket takes without
+     * blocking.
+     */
+    synchronized void flush() {
+        if (closed) {
+            return;
+        }
+        out.flip();
+        try {
+            channel.write(out);
+        } catch (final IOException e) {
+            close();
+        }
+        out.compact();
+    }
+    
+    void close() {
+        closed = true;
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            // already closed
+        }
+    }
+    
+}
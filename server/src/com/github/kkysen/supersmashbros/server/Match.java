@@ -0,0 +1,135 @@
+package com.github.kkysen.supersmashbros.server;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.app.PlayerFactory;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.net.NetController;
+
+/**
+ * One {@link World} hosted by a {@link MatchServer}, whose {@link Player}s are
+ * controlled by the {@link Connection}s that joined it, in order. It's only
+ * ever stepped by one {@link SimThread}.
+ * 
+ * @author Khyber Sen
+ */
+final class Match {
+    
+    private static final long[] NO_KEYS = new long[Controller.NUM_WORDS];
+    
+    final int id;
+    final World world;
+    private final Connection[] connections;
+    private final int maxTicks;
+    
+    /**
+     * the keys of each {@link Player} last sent in a TICK
+     */
+    private final long[][] sentKeys;
+    
+    private final ByteBuffer frame = ByteBuffer.allocateDirect(Protocol.MAX_FRAME_SIZE);
+    
+    Match(final int id, final Connection[] connections, final long seed, final int width,
+            final int height, final int maxTicks) {
+        this.id = id;
+        this.connections = connections;
+        this.maxTicks = maxTicks;
+        final Player[] players = new Player[connections.length];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = PlayerFactory.newPlayer(connections[i].character, new NetController());
+        }
+        world = new World(width, height, seed, players);
+        sentKeys = new long[players.length][Controller.NUM_WORDS];
+    }
+    
+    private void broadcast() {
+        for (final Connection connection : connections) {
+            connection.send(frame);
+            connection.flush();
+        }
+    }
+    
+    void start() {
+        for (int id = 0; id < connections.length; id++) {
+            Protocol.begin(frame, Protocol.START);
+            frame.putInt(this.id);
+            frame.put((byte) id);
+            frame.putInt(world.context.getTickRate());
+            frame.putInt((int) world.bounds.width);
+            frame.putInt((int) world.bounds.height);
+            frame.putLong(world.context.seed);
+            frame.put((byte) connections.length);
+            for (final Connection connection : connections) {
+                Protocol.putUTF(frame, connection.character);
+            }
+            Protocol.end(frame);
+            connections[id].send(frame);
+            connections[id].flush();
+        }
+    }
+    
+    /**
+     * Steps the {@link World} with the keys each {@link Connection} has
+     * pressed now and sends them to everyone, or ends the match.
+     * 
+     * @return false once the match is over
+     */
+    boolean tick() {
+        Protocol.begin(frame, Protocol.TICK);
+        frame.putInt((int) world.context.tick);
+        final int numChangedPosition = frame.position();
+        frame.put((byte) 0);
+        int numChanged = 0;
+        for (int id = 0; id < connections.length; id++) {
+            final Connection connection = connections[id];
+            final long[] keys = connection.isClosed() ? NO_KEYS : connection.keys;
+            world.player(id).controller.setPressedKeys(keys);
+            if (!Arrays.equals(keys, sentKeys[id])) {
+                System.arraycopy(keys, 0, sentKeys[id], 0, keys.length);
+                frame.put((byte) id);
+                Protocol.putKeys(frame, keys);
+                numChanged++;
+            }
+        }
+        frame.put(numChangedPosition, (byte) numChanged);
+        Protocol.end(frame);
+        world.step();
+        broadcast();
+        if (!world.gameOver && world.context.tick < maxTicks) {
+            return true;
+        }
+        end();
+        return false;
+    }
+    
+    private void end() {
+        final Player winner = world.getWinner();
+        Protocol.begin(frame, Protocol.END);
+        frame.putInt((int) world.context.tick);
+        frame.put((byte) (winner == null ? -1 : winner.id));
+        frame.putInt(hash(world));
+        Protocol.end(frame);
+        broadcast();
+        for (final Connection connection : connections) {
+            connection.close();
+        }
+    }
+    
+    /**
+     * @return the CRC32 of the {@link World#snapshot(ByteBuffer)}, which is the
+     *         same for every {@link World} that played the same match
+     */
+    static int hash(final World world) {
+        final ByteBuffer snapshot = ByteBuffer.allocate(1 << 20);
+        world.snapshot(snapshot);
+        snapshot.flip();
+        final CRC32 crc = new CRC32();
+        crc.update(snapshot);
+        return (int) crc.getValue();
+    }
+    
+}
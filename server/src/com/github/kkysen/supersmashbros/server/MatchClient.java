@@ -0,0 +1,193 @@
+package com.github.kkysen.supersmashbros.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.app.PlayerFactory;
+import com.github.kkysen.megamashbros.core.Player;
+import com.github.kkysen.megamashbros.core.World;
+import com.github.kkysen.megamashbros.net.NetController;
+
+import lombok.Getter;
+
+/**
+ * A non-blocking client of a {@link MatchServer}, which can also simulate its
+ * match in lockstep from the inputs the server sends back and check that it
+ * ends up in the same {@link World} state.
+ * 
+ * @author Khyber Sen
+ */
+public class MatchClient implements Closeable {
+    
+    private final SocketChannel channel;
+    private final ByteBuffer in = ByteBuffer.allocate(Protocol.MAX_FRAME_SIZE);
+    private final ByteBuffer out = ByteBuffer.allocate(Protocol.MAX_FRAME_SIZE);
+    private final boolean lockstep;
+    
+    private @Getter int matchId = -1;
+    private @Getter int playerId = -1;
+    private @Getter long seed;
+    private @Getter String[] characters;
+    
+    /**
+     * the {@link World} simulated in lockstep, or null
+     */
+    private @Getter World world;
+    private long[][] keys;
+    
+    /**
+     * the last tick received
+     */
+    private @Getter int tick = -1;
+    private @Getter int numMissedTicks = 0;
+    private @Getter long numBytesReceived = 0;
+    
+    private @Getter boolean ended = false;
+    private @Getter int endTick;
+    private @Getter int winnerId;
+    private @Getter boolean inSync;
+    
+    /**
+     * @param server the address of the {@link MatchServer}
+     * @param character the character to play as, like "Mario"
+     * @param lockstep whether to simulate the match too
+     */
+    public MatchClient(final InetSocketAddress server, final String character,
+            final boolean lockstep) {
+        this.lockstep = lockstep;
+        try {
+            channel = SocketChannel.open(server);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.configureBlocking(false);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Protocol.begin(out, Protocol.JOIN);
+        Protocol.putUTF(out, character);
+        send();
+    }
+    
+    public boolean isStarted() {
+        return matchId != -1;
+    }
+    
+    private void send() {
+        Protocol.end(out);
+        try {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Sends the keys pressed now, which the server uses until they change.
+     */
+    public void sendInput(final long[] pressedKeys) {
+        Protocol.begin(out, Protocol.INPUT);
+        Protocol.putKeys(out, pressedKeys);
+        send();
+    }
+    
+    /**
+     * Reads and handles every frame that has arrived.
+     * 
+     * @return false once the server has closed the connection
+     */
+    public boolean poll() {
+        final int numRead;
+        try {
+            numRead = channel.read(in);
+        } catch (final IOException e) {
+            return false;
+        }
+        if (numRead < 0) {
+            return false;
+        }
+        numBytesReceived += numRead;
+        in.flip();
+        while (Protocol.hasFrame(in)) {
+            final int end = in.position() + Short.BYTES + (in.getShort() & 0xFFFF);
+            handle(in.get());
+            in.position(end);
+        }
+        in.compact();
+        return true;
+    }
+    
+    private void handle(final byte type) {
+        switch (type) {
+            case Protocol.START:
+                start();
+                break;
+            case Protocol.TICK:
+                tick();
+                break;
+            case Protocol.END:
+                endTick = in.getInt();
+                winnerId = in.get();
+                final int hash = in.getInt();
+                ended = true;
+                inSync = world != null && world.context.tick == endTick
+                        && Match.hash(world) == hash;
+                break;
+            default:
+                break;
+        }
+    }
+    
+    private void start() {
+        matchId = in.getInt();
+        playerId = in.get();
+        final int tickRate = in.getInt();
+        final int width = in.getInt();
+        final int height = in.getInt();
+        seed = in.getLong();
+        characters = new String[in.get()];
+        for (int id = 0; id < characters.length; id++) {
+            characters[id] = Protocol.getUTF(in);
+        }
+        keys = new long[characters.length][Controller.NUM_WORDS];
+        if (lockstep) {
+            final Player[] players = new Player[characters.length];
+            for (int id = 0; id < players.length; id++) {
+                players[id] = PlayerFactory.newPlayer(characters[id], new NetController());
+            }
+            world = new World(width, height, seed, players);
+            world.context.setTickRate(tickRate);
+        }
+    }
+    
+    private void tick() {
+        final int tick = in.getInt();
+        numMissedTicks += tick - (this.tick + 1);
+        this.tick = tick;
+        for (int numChanged = in.get(); numChanged > 0; numChanged--) {
+            Protocol.getKeys(in, keys[in.get()]);
+        }
+        if (world != null) {
+            for (int id = 0; id < keys.length; id++) {
+                world.player(id).controller.setPressedKeys(keys[id]);
+            }
+            world.step();
+        }
+    }
+    
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+}
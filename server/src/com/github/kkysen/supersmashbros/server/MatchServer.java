@@ -0,0 +1,318 @@
+package com.github.kkysen.supersmashbros.server;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.badlogic.gdx.utils.Array;
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Hosts many {@link World}s in one process without any window or GPU.
+ * Clients connect over TCP and JOIN with a character, and every
+ * {@link #playersPerMatch} of them start a new {@link Match}. One selector
+ * thread accepts and reads every connection, and the {@link Match}es are
+ * spread over a small fixed pool of {@link SimThread}s, each stepping its own
+ * {@link Match}es every tick and sending the inputs of that tick back to their
+ * clients. See {@link Protocol} for the frames sent. A client that sends a
+ * frame that doesn't match its fields is disconnected.
+ * 
+ * @author Khyber Sen
+ */
+public class MatchServer implements Closeable, Runnable {
+    
+    public static final int WIDTH = 1920;
+    public static final int HEIGHT = 1080;
+    
+    public final int playersPerMatch;
+    public final int maxTicks;
+    
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final Thread selectorThread;
+    private final SimThread[] simThreads;
+    
+    private final Array<Connection> waiting = new Array<>(Connection.class);
+    private final RandomXS128 random = new RandomXS128();
+    private int numMatches = 0;
+    
+    private volatile boolean running = true;
+    
+    /**
+     * @param address the address to listen on, with port 0 for any free port
+     * @param playersPerMatch the number of clients that play in each match
+     * @param numSimThreads the number of threads all the matches are stepped
+     *            on
+     * @param maxTicks the number of ticks after which a match is a draw
+     */
+    public MatchServer(final InetSocketAddress address, final int playersPerMatch,
+            final int numSimThreads, final int maxTicks) {
+        this.playersPerMatch = playersPerMatch;
+        this.maxTicks = maxTicks;
+        try {
+            selector = Selector.open();
+            serverChannel = ServerSocketChannel.open();
+            serverChannel.bind(address);
+            serverChannel.configureBlocking(false);
+            serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        selectorThread = new Thread(this, "selector");
+        simThreads = new SimThread[numSimThreads];
+        for (int i = 0; i < numSimThreads; i++) {
+            simThreads[i] = new SimThread(i, World.DEFAULT_TICK_RATE);
+        }
+    }
+    
+    public void start() {
+        for (final SimThread simThread : simThreads) {
+            simThread.start();
+        }
+        selectorThread.start();
+    }
+    
+    public int getPort() {
+        return serverChannel.socket().getLocalPort();
+    }
+    
+    @Override
+    public void run() {
+        while (running) {
+            try {
+                selector.select();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                final SelectionKey key = keys.next();
+                keys.remove();
+                if (!key.isValid()) {
+                    continue;
+                }
+                if (key.isAcceptable()) {
+                    accept();
+                } else if (key.isReadable()) {
+                    try {
+                        read(key);
+                    } catch (final RuntimeException e) {
+                        // one client mustn't stop this thread for all the others
+                        disconnect(key, (Connection) key.attachment());
+                    }
+                }
+            }
+        }
+    }
+    
+    private void accept() {
+        try {
+            final SocketChannel channel = serverChannel.accept();
+            if (channel == null) {
+                return;
+            }
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+        } catch (final IOException e) {
+            // the client gave up already
+        }
+    }
+    
+    private void read(final SelectionKey key) {
+        final Connection connection = (Connection) key.attachment();
+        final ByteBuffer in = connection.in;
+        int numRead;
+        try {
+            numRead = connection.channel.read(in);
+        } catch (final IOException e) {
+            numRead = -1;
+        }
+        if (numRead < 0) {
+            disconnect(key, connection);
+            return;
+        }
+        in.flip();
+        while (Protocol.hasFrame(in)) {
+            final int length = in.getShort() & 0xFFFF;
+            final int limit = in.limit();
+            final int end = in.position() + length;
+            // so a frame shorter than its fields isn't read into the next one
+            in.limit(end);
+            boolean wellFormed;
+            try {
+                wellFormed = handle(connection, in);
+            } catch (final BufferUnderflowException e) {
+                wellFormed = false;
+            }
+            if (!wellFormed) {
+                disconnect(key, connection);
+                return;
+            }
+            in.limit(limit);
+            in.position(end);
+        }
+        in.compact();
+        if (!in.hasRemaining()) {
+            // a frame longer than any valid one
+            disconnect(key, connection);
+        }
+    }
+    
+    /**
+     * @param frame limited to exactly the frame, after its length
+     * @return false if the frame is longer than its fields
+     * @throws BufferUnderflowException if the frame is shorter than its fields
+     */
+    private boolean handle(final Connection connection, final ByteBuffer frame) {
+        switch (frame.get()) {
+            case Protocol.JOIN:
+                final String character = Protocol.getUTF(frame);
+                if (frame.hasRemaining()) {
+                    return false;
+                }
+                if (connection.character == null) {
+                    connection.character = character;
+                    waiting.add(connection);
+                    if (waiting.size == playersPerMatch) {
+                        startMatch();
+                    }
+                }
+                return true;
+            case Protocol.INPUT:
+                final long[] keys = new long[Controller.NUM_WORDS];
+                Protocol.getKeys(frame, keys);
+                if (frame.hasRemaining()) {
+                    return false;
+                }
+                connection.keys = keys;
+                return true;
+            default:
+                // a newer client's, which this server can skip
+                return true;
+        }
+    }
+    
+    private void startMatch() {
+        final Connection[] connections = waiting.toArray();
+        waiting.clear();
+        final Match match;
+        try {
+            match = new Match(numMatches++, connections, random.nextLong(), WIDTH, HEIGHT,
+                    maxTicks);
+        } catch (final IllegalArgumentException e) {
+            // someone chose a character that doesn't exist
+            for (final Connection connection : connections) {
+                connection.close();
+            }
+            return;
+        }
+        SimThread leastBusy = simThreads[0];
+        for (final SimThread simThread : simThreads) {
+            if (simThread.numMatches() < leastBusy.numMatches()) {
+                leastBusy = simThread;
+            }
+        }
+        leastBusy.add(match);
+    }
+    
+    private void disconnect(final SelectionKey key, final Connection connection) {
+        key.cancel();
+        connection.close();
+        waiting.removeValue(connection, true);
+    }
+    
+    /**
+     * @return the number of matches started so far
+     */
+    public int numMatchesStarted() {
+        return numMatches;
+    }
+    
+    /**
+     * @return the number of matches running now
+     */
+    public int numMatchesRunning() {
+        int sum = 0;
+        for (final SimThread simThread : simThreads) {
+            sum += simThread.numMatches();
+        }
+        return sum;
+    }
+    
+    /**
+     * @return the total number of ticks stepped, summed over all matches
+     */
+    public long numMatchTicks() {
+        long sum = 0;
+        for (final SimThread simThread : simThreads) {
+            sum += simThread.numMatchTicks;
+        }
+        return sum;
+    }
+    
+    /**
+     * @return the total time spent stepping matches, summed over all
+     *         {@link SimThread}s
+     */
+    public long busyNanos() {
+        long sum = 0;
+        for (final SimThread simThread : simThreads) {
+            sum += simThread.busyNanos;
+        }
+        return sum;
+    }
+    
+    /**
+     * @return the number of ticks skipped because a {@link SimThread} fell too
+     *         far behind
+     */
+    public long numSkippedTicks() {
+        long sum = 0;
+        for (final SimThread simThread : simThreads) {
+            sum += simThread.numSkippedTicks;
+        }
+        return sum;
+    }
+    
+    public int numSimThreads() {
+        return simThreads.length;
+    }
+    
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        for (final SimThread simThread : simThreads) {
+            simThread.shutdown();
+        }
+        try {
+            selectorThread.join();
+            for (final SimThread simThread : simThreads) {
+                simThread.join();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            for (final SelectionKey key : selector.keys()) {
+                key.channel().close();
+            }
+            selector.close();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+}
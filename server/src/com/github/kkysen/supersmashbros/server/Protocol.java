@@ -0,0 +1,105 @@
+package com.github.kkysen.supersmashbros.server;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * The frames sent between a {@link MatchServer} and its {@link MatchClient}s
+ * over TCP. Each frame is its length as an unsigned short, then its type and
+ * then:
+ * 
+ * <pre>
+ * client to server
+ * JOIN   UTF character
+ * INPUT  keys pressed now, only sent when they change
+ * 
+ * server to client
+ * START  int matchId, byte playerId, int tickRate, int width, int height,
+ *        long seed, byte numPlayers, each player's UTF character
+ * TICK   int tick, byte numChanged, each changed player's byte id and keys
+ * END    int ticks, byte winnerId or -1, int CRC32 of the final {@link World}
+ * </pre>
+ * 
+ * The keys are the number of pressed keys as a byte followed by their key
+ * codes as bytes, and a TICK holds the keys of the {@link World}'s players
+ * that changed in that tick, so a client can simulate the same match in
+ * lockstep.
+ * 
+ * @author Khyber Sen
+ */
+final class Protocol {
+    
+    static final byte JOIN = 1;
+    static final byte INPUT = 2;
+    static final byte START = 3;
+    static final byte TICK = 4;
+    static final byte END = 5;
+    
+    static final int MAX_FRAME_SIZE = 1 << 12;
+    
+    private Protocol() {}
+    
+    /**
+     * Clears the buffer and starts a frame of the given type in it, leaving
+     * room for its length.
+     */
+    static void begin(final ByteBuffer frame, final byte type) {
+        frame.clear();
+        frame.putShort((short) 0);
+        frame.put(type);
+    }
+    
+    /**
+     * Fills in the length of the frame and flips it so it's ready to send.
+     */
+    static void end(final ByteBuffer frame) {
+        frame.putShort(0, (short) (frame.position() - Short.BYTES));
+        frame.flip();
+    }
+    
+    /**
+     * @return true if a whole frame can be read from the buffer
+     */
+    static boolean hasFrame(final ByteBuffer in) {
+        return in.remaining() >= Short.BYTES
+                && in.remaining() >= Short.BYTES + (in.getShort(in.position()) & 0xFFFF);
+    }
+    
+    static void putKeys(final ByteBuffer buffer, final long[] bits) {
+        int numKeys = 0;
+        for (final long word : bits) {
+            numKeys += Long.bitCount(word);
+        }
+        buffer.put((byte) numKeys);
+        for (int i = 0; i < bits.length; i++) {
+            for (long word = bits[i]; word != 0; word &= word - 1) {
+                buffer.put((byte) (i * Long.SIZE + Long.numberOfTrailingZeros(word)));
+            }
+        }
+    }
+    
+    static void getKeys(final ByteBuffer buffer, final long[] bits) {
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = 0;
+        }
+        for (int numKeys = buffer.get() & 0xFF; numKeys > 0; numKeys--) {
+            final int keyCode = buffer.get() & 0xFF;
+            bits[keyCode / Long.SIZE] |= 1L << keyCode;
+        }
+    }
+    
+    static void putUTF(final ByteBuffer buffer, final String s) {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+    
+    static String getUTF(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+}
@@ -0,0 +1,153 @@
+package com.github.kkysen.supersmashbros.server;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+import com.badlogic.gdx.math.RandomXS128;
+import com.github.kkysen.libgdx.util.Log;
+import com.github.kkysen.libgdx.util.keys.Controller;
+import com.github.kkysen.libgdx.util.keys.KeyBinding;
+import com.github.kkysen.megamashbros.core.World;
+
+/**
+ * Starts a {@link MatchServer} on localhost and connects enough
+ * {@link MatchClient}s to fill many matches, each pressing random keys. Every
+ * client simulates its match in lockstep, so every match must run to its
+ * last tick without missing any, and every client must end in the same
+ * {@link World} state as the server. Meanwhile, a few more clients send
+ * malformed frames, which must get them disconnected without stopping the
+ * server for everyone else. Exits with status 1 if any of this fails.
+ * 
+ * <pre>
+ * ServerCheck [numMatches] [playersPerMatch] [simThreads] [ticks]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class ServerCheck {
+    
+    private static final KeyBinding[] KEYS = {
+        KeyBinding.LEFT,
+        KeyBinding.RIGHT,
+        KeyBinding.JUMP,
+        KeyBinding.RANGE_ATTACK,
+        KeyBinding.ATTACK_FORWARD,
+    };
+    
+    /**
+     * each with its length first, like every frame
+     */
+    private static final byte[][] MALFORMED_FRAMES = {
+        {0, 0}, // no type
+        {0, 1, Protocol.JOIN}, // no character
+        {0, 3, Protocol.JOIN, 0, 5}, // a character longer than the frame
+        {0, 4, Protocol.JOIN, 0, 0, 0}, // a byte after the character
+        {0, 3, Protocol.INPUT, 3, 1}, // fewer keys than it says
+    };
+    
+    /**
+     * @return true if the server disconnected the client after it sent the
+     *         frame
+     */
+    private static boolean isDisconnected(final InetSocketAddress address, final byte[] frame) {
+        try (Socket socket = new Socket(address.getAddress(), address.getPort())) {
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write(frame);
+            return socket.getInputStream().read() == -1;
+        } catch (final SocketTimeoutException e) {
+            return false;
+        } catch (final IOException e) {
+            return true; // reset by the server
+        }
+    }
+    
+    public static void main(final String[] args) throws InterruptedException {
+        final int numMatches = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        final int playersPerMatch = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        final int simThreads = args.length > 2 ? Integer.parseInt(args[2]) : 2;
+        final int ticks = args.length > 3 ? Integer.parseInt(args[3]) : 600;
+        Log.setLevel(Log.NONE);
+        
+        final MatchServer server = new MatchServer(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), playersPerMatch,
+                simThreads, ticks);
+        server.start();
+        final InetSocketAddress address = new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), server.getPort());
+        final MatchClient[] clients = new MatchClient[numMatches * playersPerMatch];
+        for (int i = 0; i < clients.length; i++) {
+            clients[i] = new MatchClient(address, "Mario", true);
+        }
+        int numDisconnected = 0;
+        for (final byte[] frame : MALFORMED_FRAMES) {
+            if (isDisconnected(address, frame)) {
+                numDisconnected++;
+            }
+        }
+        
+        final RandomXS128 random = new RandomXS128(0);
+        final Controller input = new Controller() {};
+        final long[] pressedKeys = new long[Controller.NUM_WORDS];
+        final int[] lastInputTicks = new int[clients.length];
+        final long start = System.nanoTime();
+        final long timeout = start + 2000000000L * (ticks / World.DEFAULT_TICK_RATE + 10);
+        int numEnded = 0;
+        while (numEnded < clients.length && System.nanoTime() < timeout) {
+            numEnded = 0;
+            for (int i = 0; i < clients.length; i++) {
+                final MatchClient client = clients[i];
+                if (client.isEnded()) {
+                    numEnded++;
+                    continue;
+                }
+                client.poll();
+                if (client.getTick() > lastInputTicks[i] && random.nextInt(10) == 0) {
+                    lastInputTicks[i] = client.getTick();
+                    input.setPressedKeys(new long[Controller.NUM_WORDS]);
+                    input.pressKeys(KEYS[random.nextInt(KEYS.length)]);
+                    input.getPressedKeys(pressedKeys);
+                    client.sendInput(pressedKeys);
+                }
+            }
+            Thread.sleep(1);
+        }
+        final long nanos = System.nanoTime() - start;
+        
+        int numInSync = 0;
+        int numMissedTicks = 0;
+        long numBytes = 0;
+        for (final MatchClient client : clients) {
+            if (client.isInSync()) {
+                numInSync++;
+            }
+            numMissedTicks += client.getNumMissedTicks();
+            numBytes += client.getNumBytesReceived();
+            client.close();
+        }
+        final long numMatchTicks = server.numMatchTicks();
+        final long busyNanos = server.busyNanos();
+        final long numSkippedTicks = server.numSkippedTicks();
+        server.close();
+        
+        System.out.println(server.numMatchesStarted() + " matches of " + playersPerMatch
+                + " players on " + simThreads + " sim threads for " + ticks + " ticks in "
+                + nanos / 1000000 + " ms");
+        System.out.println(numEnded + " of " + clients.length + " clients saw their match end, "
+                + numInSync + " in sync with the server, " + numMissedTicks + " ticks missed, "
+                + numSkippedTicks + " ticks skipped by the server");
+        System.out.println(busyNanos / Math.max(1, numMatchTicks) + " ns per match tick, sim threads "
+                + busyNanos * 100 / (nanos * simThreads) + "% busy, "
+                + numBytes / clients.length * World.DEFAULT_TICK_RATE / Math.max(1, ticks)
+                + " bytes/s received per client");
+        System.out.println(numDisconnected + " of " + MALFORMED_FRAMES.length
+                + " clients sending malformed frames were disconnected");
+        if (numInSync != clients.length || numMissedTicks != 0
+                || numDisconnected != MALFORMED_FRAMES.length) {
+            System.exit(1);
+        }
+    }
+    
+}
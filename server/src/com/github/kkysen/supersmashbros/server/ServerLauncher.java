@@ -0,0 +1,47 @@
+package com.github.kkysen.supersmashbros.server;
+
+import java.net.InetSocketAddress;
+
+import com.github.kkysen.libgdx.util.Log;
+import com.github.kkysen.megamashbros.app.MatchRunner;
+
+/**
+ * Runs a {@link MatchServer} until it's killed, printing how busy it is every
+ * few seconds:
+ * 
+ * <pre>
+ * ServerLauncher [port] [playersPerMatch] [simThreads] [maxTicks]
+ * </pre>
+ * 
+ * @author Khyber Sen
+ */
+public class ServerLauncher {
+    
+    private static final int DEFAULT_PORT = 7777;
+    private static final long REPORT_MILLIS = 10000;
+    
+    public static void main(final String[] args) throws InterruptedException {
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        final int playersPerMatch = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        final int simThreads = args.length > 2 ? Integer.parseInt(args[2])
+                : Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        final int maxTicks = args.length > 3 ? Integer.parseInt(args[3])
+                : MatchRunner.DEFAULT_MAX_TICKS;
+        Log.setLevel(Log.NONE);
+        
+        final MatchServer server = new MatchServer(new InetSocketAddress(port), playersPerMatch,
+                simThreads, maxTicks);
+        server.start();
+        System.out.println("listening on port " + server.getPort() + " with " + simThreads
+                + " sim threads, " + playersPerMatch + " players per match");
+        for (long busyNanos = 0;;) {
+            Thread.sleep(REPORT_MILLIS);
+            final long busy = server.busyNanos() - busyNanos;
+            busyNanos += busy;
+            System.out.println(server.numMatchesRunning() + " matches running, "
+                    + server.numMatchesStarted() + " started, sim threads "
+                    + busy * 100 / (REPORT_MILLIS * 1000000 * simThreads) + "% busy");
+        }
+    }
+    
+}
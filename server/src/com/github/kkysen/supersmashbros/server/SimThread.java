@@ -0,0 +1,91 @@
+package com.github.kkysen.supersmashbros.server;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import com.badlogic.gdx.utils.Array;
+
+/**
+ * One of a {@link MatchServer}'s fixed pool of threads, which steps all of
+ * its {@link Match}es once every tick. A {@link Match} stays on the same
+ * {@link SimThread} until it ends, so its {@link com.github.kkysen.megamashbros.core.World}
+ * is never touched by two threads.
+ * 
+ * @author Khyber Sen
+ */
+final class SimThread extends Thread {
+    
+    /**
+     * the most ticks to catch up on at once after falling behind, beyond
+     * which they're skipped
+     */
+    private static final int MAX_CATCH_UP = 8;
+    
+    private final long tickNanos;
+    
+    private final Queue<Match> added = new ConcurrentLinkedQueue<>();
+    private final Array<Match> matches = new Array<>(false, 16, Match.class);
+    
+    private volatile boolean running = true;
+    private final AtomicInteger numMatches = new AtomicInteger();
+    
+    volatile long numMatchTicks = 0;
+    volatile long busyNanos = 0;
+    volatile long numSkippedTicks = 0;
+    
+    SimThread(final int index, final int tickRate) {
+        super("sim-" + index);
+        tickNanos = 1000000000L / tickRate;
+        setDaemon(true);
+    }
+    
+    /**
+     * @return the number of {@link Match}es running or about to
+     */
+    int numMatches() {
+        return numMatches.get();
+    }
+    
+    void add(final Match match) {
+        numMatches.incrementAndGet();
+        added.add(match);
+    }
+    
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(this);
+    }
+    
+    @Override
+    public void run() {
+        long nextTick = System.nanoTime();
+        while (running) {
+            final long start = System.nanoTime();
+            for (Match match; (match = added.poll()) != null;) {
+                match.start();
+                matches.add(match);
+            }
+            numMatchTicks += matches.size;
+            for (int i = 0; i < matches.size; i++) {
+                if (!matches.get(i).tick()) {
+                    matches.removeIndex(i--);
+                    numMatches.decrementAndGet();
+                }
+            }
+            final long end = System.nanoTime();
+            busyNanos += end - start;
+            
+            nextTick += tickNanos;
+            if (end - nextTick > MAX_CATCH_UP * tickNanos) {
+                numSkippedTicks += (end - nextTick) / tickNanos;
+                nextTick = end;
+            }
+            for (long wait; running && (wait = nextTick - System.nanoTime()) > 0;) {
+                LockSupport.parkNanos(this, wait);
+            }
+        }
+    }
+    
+}